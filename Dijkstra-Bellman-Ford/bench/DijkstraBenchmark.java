@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH comparison of the Dijkstra implementations of this module:
+ * DiGraph.populateDijkstraFrom() with java.util.PriorityQueue, the
+ * IndexedDijkstra engine with decreaseKey, and CsrGraph.populateDijkstraFrom().
+ *
+ * The repository has no build file, so the benchmark is compiled by hand.
+ * Put jmh-core, jmh-generator-annprocess and their dependencies jopt-simple
+ * and commons-math3 (from Maven Central) into a directory lib/, then run from
+ * the module directory:
+ *
+ * <pre>
+ * javac -cp "lib/*" -d bench-out src/*.java bench/*.java
+ * java -cp "bench-out:lib/*" org.openjdk.jmh.Main DijkstraBenchmark
+ * </pre>
+ *
+ * javac runs the JMH annotation processor it finds on the class path and
+ * writes the generated benchmark classes and the benchmark list to
+ * bench-out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DijkstraBenchmark {
+
+	/** "strassennetz" or "random-" followed by the number of nodes */
+	@Param({ "strassennetz", "random-10000", "random-100000" })
+	public String graphName;
+
+	private DiGraph graph;
+	private IndexedDijkstra engine;
+	private CsrGraph frozen;
+	private int[] predecessors;
+
+	/** random start nodes, the benchmarks take them in turn */
+	private int[] startNodes;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void loadGraph() throws IOException {
+		if (graphName.equals("strassennetz")) {
+			graph = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+		} else {
+			graph = randomGraph(Integer.parseInt(graphName.substring("random-".length())), 4, 1000);
+		}
+		graph.setShowSteps(false);
+		engine = new IndexedDijkstra(graph);
+		frozen = graph.freeze();
+		predecessors = new int[frozen.getNodeCount()];
+
+		// chosen once, a setup per invocation would distort timings this short
+		Random random = new Random(42);
+		startNodes = new int[1024];
+		for (int i = 0; i < startNodes.length; i++) {
+			startNodes[i] = random.nextInt(frozen.getNodeCount());
+		}
+	}
+
+	private int nextStartNode() {
+		next = (next + 1) & (startNodes.length - 1);
+		return startNodes[next];
+	}
+
+	@Benchmark
+	public void priorityQueue(Blackhole bh) {
+		int startNode = nextStartNode();
+		graph.populateDijkstraFrom(startNode);
+		bh.consume(graph.nodes.get(startNode).distance);
+	}
+
+	@Benchmark
+	public void indexedDijkstra(Blackhole bh) {
+		engine.run(nextStartNode());
+		bh.consume(engine.getDistances());
+	}
+
+	@Benchmark
+	public void csrGraph(Blackhole bh) {
+		bh.consume(frozen.populateDijkstraFrom(nextStartNode(), predecessors));
+	}
+
+	@Benchmark
+	public void dialQueue(Blackhole bh) {
+		bh.consume(frozen.populateDialDijkstraFrom(nextStartNode(), predecessors));
+	}
+
+	/**
+	 * Builds a connected random graph: a ring through all nodes plus
+	 * (degree - 1) random edges per node, weights uniform in 1 .. maxWeight.
+	 */
+	static DiGraph randomGraph(int nodeCount, int degree, int maxWeight) {
+		Random r = new Random(nodeCount);
+		DiGraph g = new DiGraph();
+		for (int i = 0; i < nodeCount; i++) {
+			g.addNode();
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			g.addEdge(v, (v + 1) % nodeCount, 1 + r.nextInt(maxWeight));
+			for (int k = 1; k < degree; k++) {
+				g.addEdge(v, r.nextInt(nodeCount), 1 + r.nextInt(maxWeight));
+			}
+		}
+		return g;
+	}
+}
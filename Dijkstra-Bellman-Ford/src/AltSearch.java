@@ -0,0 +1,162 @@
+import java.util.Arrays;
+
+/**
+ * Point-to-point shortest paths with A* and the landmark lower bounds of
+ * Landmarks as heuristic.
+ *
+ * The queue is ordered by the distance from the start plus the lower bound
+ * of the distance to the target, so the search is pulled towards the target
+ * and settles far fewer nodes than Dijkstra's algorithm. Nodes whose bound
+ * is infinite can not reach the target and are never queued. The bounds are
+ * consistent, so every node is settled once; should rounding make a settled
+ * node cheaper again, it is simply queued again.
+ *
+ * The workspace is reused between queries and only the touched entries are
+ * reset. An engine must not be used by several threads at once, the
+ * landmarks may be shared by several engines.
+ */
+public class AltSearch {
+
+	private final Landmarks landmarks;
+	private final CsrGraph graph;
+
+	private final double[] distance;
+	/** lower bound of the distance to the target, valid for touched nodes */
+	private final double[] heuristic;
+	private final int[] predecessor;
+	private final IndexMinPQ<Double> queue;
+
+	/** nodes with a finite distance, to reset them */
+	private int[] touched = new int[16];
+	private int touchedCount;
+
+	private double bestDistance;
+	private int settledCount;
+
+	/**
+	 * Creates an engine that searches the graph of the landmarks.
+	 *
+	 * @param landmarks
+	 *            the landmarks, with the graph to search
+	 */
+	public AltSearch(Landmarks landmarks) {
+		this.landmarks = landmarks;
+		this.graph = landmarks.getGraph();
+		int n = graph.getNodeCount();
+		distance = new double[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		heuristic = new double[n];
+		predecessor = new int[n];
+		queue = new IndexMinPQ<Double>(Math.max(1, n));
+	}
+
+	/**
+	 * Calculates the shortest path from the start node to the target node.
+	 *
+	 * @param startNodeID
+	 *            the id of the start node
+	 * @param targetNodeID
+	 *            the id of the target node
+	 * @return the ids of the nodes on the path, starting with the start node,
+	 *         or null if no path exists
+	 */
+	public int[] findPath(int startNodeID, int targetNodeID) {
+		reset();
+		bestDistance = Double.POSITIVE_INFINITY;
+
+		double h = landmarks.lowerBound(startNodeID, targetNodeID);
+		if (h == Double.POSITIVE_INFINITY) {
+			return null;
+		}
+		distance[startNodeID] = 0.0;
+		heuristic[startNodeID] = h;
+		predecessor[startNodeID] = -1;
+		touch(startNodeID);
+		queue.insert(startNodeID, h);
+
+		while (!queue.isEmpty()) {
+			int v = queue.delMin();
+			settledCount++;
+			if (v == targetNodeID) {
+				bestDistance = distance[v];
+				break;
+			}
+			for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+				int w = graph.targets[e];
+				double d = distance[v] + graph.weights[e];
+				if (d < distance[w]) {
+					if (distance[w] == Double.POSITIVE_INFINITY) {
+						double bound = landmarks.lowerBound(w, targetNodeID);
+						if (bound == Double.POSITIVE_INFINITY) {
+							continue;
+						}
+						heuristic[w] = bound;
+						touch(w);
+					}
+					distance[w] = d;
+					predecessor[w] = v;
+					if (queue.contains(w)) {
+						queue.decreaseKey(w, d + heuristic[w]);
+					} else {
+						queue.insert(w, d + heuristic[w]);
+					}
+				}
+			}
+		}
+
+		if (bestDistance == Double.POSITIVE_INFINITY) {
+			return null;
+		}
+		int length = 0;
+		for (int v = targetNodeID; v != -1; v = predecessor[v]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int v = targetNodeID; v != -1; v = predecessor[v]) {
+			path[--length] = v;
+		}
+		return path;
+	}
+
+	private void touch(int v) {
+		if (touchedCount == touched.length) {
+			touched = Arrays.copyOf(touched, 2 * touchedCount);
+		}
+		touched[touchedCount++] = v;
+	}
+
+	// restores the state of a fresh engine for the touched nodes only
+	private void reset() {
+		for (int i = 0; i < touchedCount; i++) {
+			int v = touched[i];
+			distance[v] = Double.POSITIVE_INFINITY;
+			if (queue.contains(v)) {
+				queue.delete(v);
+			}
+		}
+		touchedCount = 0;
+		settledCount = 0;
+	}
+
+	/**
+	 * @return the landmarks this engine uses
+	 */
+	public Landmarks getLandmarks() {
+		return landmarks;
+	}
+
+	/**
+	 * @return length of the path found by the last query, infinity if there
+	 *         was none
+	 */
+	public double getDistance() {
+		return bestDistance;
+	}
+
+	/**
+	 * @return number of nodes settled by the last query
+	 */
+	public int getSettledCount() {
+		return settledCount;
+	}
+}
@@ -0,0 +1,208 @@
+import java.util.Arrays;
+
+/**
+ * Point-to-point shortest paths with bidirectional Dijkstra.
+ *
+ * A forward search from the start node on the graph and a backward search
+ * from the target node on the reverse graph settle one node each in turn.
+ * Whenever an edge connects the two search spaces, the length of the path
+ * through it is a candidate for the shortest path. The search stops as soon
+ * as the sum of the smallest keys of both queues is not smaller than the best
+ * candidate, so usually only two "balls" around start and target are
+ * settled instead of the whole graph.
+ *
+ * The workspace is reused between queries and only the touched entries are
+ * reset, so a query costs time proportional to the explored part of the
+ * graph. An engine must not be used by several threads at once.
+ */
+public class BidirectionalDijkstra {
+
+	private final CsrGraph forward;
+	private final CsrGraph backward;
+
+	private final double[] distanceForward;
+	private final double[] distanceBackward;
+	/** predecessor in the forward search, successor in the backward search */
+	private final int[] predecessor;
+	private final int[] successor;
+	private final IndexMinPQ<Double> queueForward;
+	private final IndexMinPQ<Double> queueBackward;
+
+	/** nodes with a finite distance in one of the searches, to reset them */
+	private int[] touched;
+	private int touchedCount;
+
+	private double bestDistance;
+	private int meetingNode;
+	private int settledCount;
+
+	/**
+	 * Creates an engine for the given graph. The reverse graph is built on
+	 * first use by CsrGraph.reverse().
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 */
+	public BidirectionalDijkstra(CsrGraph graph) {
+		int n = graph.getNodeCount();
+		forward = graph;
+		backward = graph.reverse();
+		distanceForward = new double[n];
+		distanceBackward = new double[n];
+		predecessor = new int[n];
+		successor = new int[n];
+		Arrays.fill(distanceForward, Double.POSITIVE_INFINITY);
+		Arrays.fill(distanceBackward, Double.POSITIVE_INFINITY);
+		queueForward = new IndexMinPQ<Double>(n);
+		queueBackward = new IndexMinPQ<Double>(n);
+		touched = new int[16];
+	}
+
+	/**
+	 * Calculates the shortest path from the start node to the target node.
+	 *
+	 * @param startNodeID
+	 *            the id of the start node
+	 * @param targetNodeID
+	 *            the id of the target node
+	 * @return the ids of the nodes on the path, starting with the start node,
+	 *         or null if no path exists
+	 */
+	public int[] findPath(int startNodeID, int targetNodeID) {
+		reset();
+		bestDistance = Double.POSITIVE_INFINITY;
+		meetingNode = -1;
+
+		distanceForward[startNodeID] = 0.0;
+		distanceBackward[targetNodeID] = 0.0;
+		predecessor[startNodeID] = -1;
+		successor[targetNodeID] = -1;
+		touch(startNodeID);
+		touch(targetNodeID);
+		queueForward.insert(startNodeID, 0.0);
+		queueBackward.insert(targetNodeID, 0.0);
+		if (startNodeID == targetNodeID) {
+			bestDistance = 0.0;
+			meetingNode = startNodeID;
+		}
+
+		boolean forwardTurn = true;
+		while (!queueForward.isEmpty() && !queueBackward.isEmpty()) {
+			// no path through an unsettled node can beat the best candidate anymore
+			if (queueForward.minKey() + queueBackward.minKey() >= bestDistance) {
+				break;
+			}
+			if (forwardTurn) {
+				settle(forward, queueForward, distanceForward, predecessor, distanceBackward);
+			} else {
+				settle(backward, queueBackward, distanceBackward, successor, distanceForward);
+			}
+			forwardTurn = !forwardTurn;
+		}
+
+		if (meetingNode == -1) {
+			return null;
+		}
+		return buildPath();
+	}
+
+	// settles the minimum of the queue and relaxes its edges in graph
+	private void settle(CsrGraph graph, IndexMinPQ<Double> queue, double[] distance,
+			int[] parent, double[] otherDistance) {
+		int v = queue.delMin();
+		settledCount++;
+		for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+			int w = graph.targets[e];
+			double d = distance[v] + graph.weights[e];
+			if (d < distance[w]) {
+				if (distance[w] == Double.POSITIVE_INFINITY && otherDistance[w] == Double.POSITIVE_INFINITY) {
+					touch(w);
+				}
+				distance[w] = d;
+				parent[w] = v;
+				if (queue.contains(w)) {
+					queue.decreaseKey(w, d);
+				} else {
+					queue.insert(w, d);
+				}
+			}
+			// the edge connects both search spaces
+			if (d + otherDistance[w] < bestDistance) {
+				bestDistance = d + otherDistance[w];
+				meetingNode = w;
+			}
+		}
+	}
+
+	private int[] buildPath() {
+		int length = 0;
+		for (int v = meetingNode; v != -1; v = predecessor[v]) {
+			length++;
+		}
+		for (int v = successor[meetingNode]; v != -1; v = successor[v]) {
+			length++;
+		}
+
+		int[] path = new int[length];
+		int pos = 0;
+		for (int v = meetingNode; v != -1; v = predecessor[v]) {
+			path[pos++] = v;
+		}
+		// the forward part was collected from the meeting node backwards
+		for (int i = 0, j = pos - 1; i < j; i++, j--) {
+			int swap = path[i];
+			path[i] = path[j];
+			path[j] = swap;
+		}
+		for (int v = successor[meetingNode]; v != -1; v = successor[v]) {
+			path[pos++] = v;
+		}
+		return path;
+	}
+
+	private void touch(int v) {
+		if (touchedCount == touched.length) {
+			touched = Arrays.copyOf(touched, 2 * touchedCount);
+		}
+		touched[touchedCount++] = v;
+	}
+
+	// restores the state of a fresh engine for the touched nodes only
+	private void reset() {
+		for (int i = 0; i < touchedCount; i++) {
+			int v = touched[i];
+			distanceForward[v] = Double.POSITIVE_INFINITY;
+			distanceBackward[v] = Double.POSITIVE_INFINITY;
+		}
+		touchedCount = 0;
+		settledCount = 0;
+		while (!queueForward.isEmpty()) {
+			queueForward.delMin();
+		}
+		while (!queueBackward.isEmpty()) {
+			queueBackward.delMin();
+		}
+	}
+
+	/**
+	 * @return the graph this engine searches
+	 */
+	public CsrGraph getGraph() {
+		return forward;
+	}
+
+	/**
+	 * @return length of the path found by the last query, infinity if there
+	 *         was none
+	 */
+	public double getDistance() {
+		return bestDistance;
+	}
+
+	/**
+	 * @return number of nodes settled by both searches of the last query
+	 */
+	public int getSettledCount() {
+		return settledCount;
+	}
+}
@@ -0,0 +1,585 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Contraction Hierarchies for fast point-to-point queries on road networks.
+ *
+ * Preprocessing contracts the nodes one by one in the order of their
+ * priority, the edge difference (shortcuts needed minus edges removed) plus
+ * the number of already contracted neighbors. Priorities are updated lazily:
+ * the minimum is re-evaluated before it is contracted and put back if it is
+ * not the minimum anymore. The neighbors of a contracted node only get their
+ * count of contracted neighbors raised by one, their edge difference is
+ * re-evaluated when they become the minimum. Contracting a node v adds a
+ * shortcut u->w for every pair of edges u->v->w unless a witness search from
+ * u that avoids v finds a path to w that is not longer.
+ *
+ * A query runs a bidirectional Dijkstra that only follows edges to nodes
+ * contracted later: upwards from the start node, and upwards on the reverse
+ * graph from the target node. The shortcuts on the resulting path are
+ * unpacked into the original edges.
+ *
+ * The hierarchy describes the graph at the time of its construction, later
+ * changes of the DiGraph are not seen. Queries reuse one workspace, so an
+ * instance must not be queried by several threads at once.
+ */
+public class ContractionHierarchy {
+
+	/** witness searches give up after settling this many nodes */
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+	/** smaller limit while only estimating the number of shortcuts */
+	private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+	private final DiGraph graph;
+	private final int n;
+
+	// all edges, the original ones first, then the shortcuts
+	private int edgeCount;
+	private int[] edgeFrom;
+	private int[] edgeTo;
+	private double[] edgeWeight;
+	/** the two edges a shortcut replaces, -1 for original edges */
+	private int[] edgeFirst;
+	private int[] edgeSecond;
+	/** edges replaced by a shorter shortcut between the same nodes */
+	private boolean[] edgeDead;
+
+	/** position of every node in the contraction order */
+	private final int[] rank;
+
+	// search graphs of the query, entries are edge ids
+	private int[] upOffsets;
+	private int[] upEdges;
+	private int[] downOffsets;
+	private int[] downEdges;
+
+	// query workspace
+	private final double[] distanceForward;
+	private final double[] distanceBackward;
+	private final int[] parentEdgeForward;
+	private final int[] parentEdgeBackward;
+	private final IndexMinPQ<Double> queueForward;
+	private final IndexMinPQ<Double> queueBackward;
+	private int[] touched = new int[16];
+	private int touchedCount;
+	private double bestDistance;
+
+	/**
+	 * Preprocesses the given graph. All edge weights have to be non-negative.
+	 *
+	 * @param graph
+	 *            the graph, the returned paths consist of its nodes
+	 */
+	public ContractionHierarchy(DiGraph graph) {
+		this.graph = graph;
+		CsrGraph g = graph.freeze();
+		this.n = g.getNodeCount();
+		this.rank = new int[n];
+
+		int m = g.getEdgeCount();
+		edgeFrom = new int[Math.max(16, 2 * m)];
+		edgeTo = new int[edgeFrom.length];
+		edgeWeight = new double[edgeFrom.length];
+		edgeFirst = new int[edgeFrom.length];
+		edgeSecond = new int[edgeFrom.length];
+		edgeDead = new boolean[edgeFrom.length];
+
+		new Contraction(g).run();
+		buildSearchGraphs();
+
+		distanceForward = new double[n];
+		distanceBackward = new double[n];
+		Arrays.fill(distanceForward, Double.POSITIVE_INFINITY);
+		Arrays.fill(distanceBackward, Double.POSITIVE_INFINITY);
+		parentEdgeForward = new int[n];
+		parentEdgeBackward = new int[n];
+		queueForward = new IndexMinPQ<Double>(n);
+		queueBackward = new IndexMinPQ<Double>(n);
+	}
+
+	private int addEdge(int from, int to, double weight, int first, int second) {
+		if (edgeCount == edgeFrom.length) {
+			int size = 2 * edgeCount;
+			edgeFrom = Arrays.copyOf(edgeFrom, size);
+			edgeTo = Arrays.copyOf(edgeTo, size);
+			edgeWeight = Arrays.copyOf(edgeWeight, size);
+			edgeFirst = Arrays.copyOf(edgeFirst, size);
+			edgeSecond = Arrays.copyOf(edgeSecond, size);
+			edgeDead = Arrays.copyOf(edgeDead, size);
+		}
+		edgeFrom[edgeCount] = from;
+		edgeTo[edgeCount] = to;
+		edgeWeight[edgeCount] = weight;
+		edgeFirst[edgeCount] = first;
+		edgeSecond[edgeCount] = second;
+		return edgeCount++;
+	}
+
+	/**
+	 * The state needed while the nodes are contracted.
+	 */
+	private class Contraction {
+		/** live edge ids per node, edges to contracted nodes are skipped lazily */
+		private final IntList[] outEdges = new IntList[n];
+		private final IntList[] inEdges = new IntList[n];
+		private final boolean[] contracted = new boolean[n];
+		private final int[] contractedNeighbors = new int[n];
+
+		// witness search workspace
+		private final double[] witnessDistance = new double[n];
+		private final IndexMinPQ<Double> witnessQueue = new IndexMinPQ<Double>(n);
+		private final IntList witnessTouched = new IntList();
+		/** marks the targets of a witness search and the neighbors of a contracted node */
+		private final int[] stamp = new int[n];
+		private int currentStamp;
+
+		Contraction(CsrGraph g) {
+			Arrays.fill(witnessDistance, Double.POSITIVE_INFINITY);
+			for (int v = 0; v < n; v++) {
+				outEdges[v] = new IntList();
+				inEdges[v] = new IntList();
+			}
+			for (int v = 0; v < n; v++) {
+				for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+					if (g.weights[e] < 0) {
+						throw new IllegalArgumentException("contraction hierarchies need non-negative edge weights");
+					}
+					if (g.targets[e] != v) {
+						connect(v, g.targets[e], g.weights[e], -1, -1);
+					}
+				}
+			}
+		}
+
+		void run() {
+			IndexMinPQ<Double> queue = new IndexMinPQ<Double>(n);
+			for (int v = 0; v < n; v++) {
+				queue.insert(v, priority(v));
+			}
+
+			int nextRank = 0;
+			while (!queue.isEmpty()) {
+				int v = queue.delMin();
+				// lazy update: contract v only if it is still the minimum
+				double p = priority(v);
+				if (!queue.isEmpty() && p > queue.minKey()) {
+					queue.insert(v, p);
+					continue;
+				}
+
+				contract(v, true);
+				contracted[v] = true;
+				rank[v] = nextRank++;
+
+				// every neighbor once: drop its edges to v and count v as contracted neighbor
+				IntList neighbors = new IntList();
+				currentStamp++;
+				for (int i = 0; i < outEdges[v].size; i++) {
+					addNeighbor(neighbors, edgeTo[outEdges[v].data[i]]);
+				}
+				for (int i = 0; i < inEdges[v].size; i++) {
+					addNeighbor(neighbors, edgeFrom[inEdges[v].data[i]]);
+				}
+				for (int i = 0; i < neighbors.size; i++) {
+					int x = neighbors.data[i];
+					removeDeadEdges(outEdges[x]);
+					removeDeadEdges(inEdges[x]);
+					// the edge difference is re-evaluated lazily when x becomes the minimum
+					contractedNeighbors[x]++;
+					queue.changeKey(x, queue.keyOf(x) + 1);
+				}
+			}
+		}
+
+		private void addNeighbor(IntList neighbors, int x) {
+			if (!contracted[x] && stamp[x] != currentStamp) {
+				stamp[x] = currentStamp;
+				neighbors.add(x);
+			}
+		}
+
+		private void removeDeadEdges(IntList edges) {
+			int kept = 0;
+			for (int i = 0; i < edges.size; i++) {
+				if (isLive(edges.data[i])) {
+					edges.data[kept++] = edges.data[i];
+				}
+			}
+			edges.size = kept;
+		}
+
+		private boolean isLive(int e) {
+			return !edgeDead[e] && !contracted[edgeFrom[e]] && !contracted[edgeTo[e]];
+		}
+
+		private double priority(int v) {
+			int removed = 0;
+			for (int i = 0; i < outEdges[v].size; i++) {
+				if (isLive(outEdges[v].data[i])) {
+					removed++;
+				}
+			}
+			for (int i = 0; i < inEdges[v].size; i++) {
+				if (isLive(inEdges[v].data[i])) {
+					removed++;
+				}
+			}
+			return contract(v, false) - removed + contractedNeighbors[v];
+		}
+
+		/**
+		 * Determines the shortcuts needed to contract v.
+		 *
+		 * @param insert
+		 *            whether to add the shortcuts or just count them
+		 * @return number of shortcuts
+		 */
+		private int contract(int v, boolean insert) {
+			int shortcuts = 0;
+			IntList in = inEdges[v];
+			IntList out = outEdges[v];
+
+			// the witness searches may stop once all targets are settled
+			double maxOut = 0;
+			int targetStamp = ++currentStamp;
+			int targetCount = 0;
+			for (int j = 0; j < out.size; j++) {
+				int e = out.data[j];
+				if (isLive(e)) {
+					maxOut = Math.max(maxOut, edgeWeight[e]);
+					if (stamp[edgeTo[e]] != targetStamp) {
+						stamp[edgeTo[e]] = targetStamp;
+						targetCount++;
+					}
+				}
+			}
+
+			for (int i = 0; i < in.size; i++) {
+				int first = in.data[i];
+				if (!isLive(first)) {
+					continue;
+				}
+				int u = edgeFrom[first];
+				witnessSearch(u, v, edgeWeight[first] + maxOut, targetStamp, targetCount,
+						insert ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+
+				for (int j = 0; j < out.size; j++) {
+					int second = out.data[j];
+					if (!isLive(second)) {
+						continue;
+					}
+					int w = edgeTo[second];
+					double viaV = edgeWeight[first] + edgeWeight[second];
+					if (w == u || witnessDistance[w] <= viaV) {
+						continue;
+					}
+					shortcuts++;
+					if (insert) {
+						connect(u, w, viaV, first, second);
+					}
+				}
+			}
+			return shortcuts;
+		}
+
+		// adds an edge, replacing a longer live edge between the same nodes
+		private void connect(int u, int w, double weight, int first, int second) {
+			for (int i = 0; i < outEdges[u].size; i++) {
+				int e = outEdges[u].data[i];
+				if (edgeTo[e] == w && !edgeDead[e]) {
+					if (edgeWeight[e] <= weight) {
+						return;
+					}
+					edgeDead[e] = true;
+				}
+			}
+			int e = addEdge(u, w, weight, first, second);
+			outEdges[u].add(e);
+			inEdges[w].add(e);
+		}
+
+		// Dijkstra from u in the remaining graph without v, until all targets are settled
+		private void witnessSearch(int u, int v, double maxDistance, int targetStamp, int targetCount,
+				int settleLimit) {
+			for (int i = 0; i < witnessTouched.size; i++) {
+				witnessDistance[witnessTouched.data[i]] = Double.POSITIVE_INFINITY;
+			}
+			witnessTouched.size = 0;
+			while (!witnessQueue.isEmpty()) {
+				witnessQueue.delMin();
+			}
+
+			witnessDistance[u] = 0.0;
+			witnessTouched.add(u);
+			witnessQueue.insert(u, 0.0);
+			int settled = 0;
+			while (!witnessQueue.isEmpty() && settled++ < settleLimit && targetCount > 0) {
+				if (witnessQueue.minKey() > maxDistance) {
+					break;
+				}
+				int x = witnessQueue.delMin();
+				if (stamp[x] == targetStamp) {
+					targetCount--;
+				}
+				for (int i = 0; i < outEdges[x].size; i++) {
+					int e = outEdges[x].data[i];
+					int y = edgeTo[e];
+					if (y == v || !isLive(e)) {
+						continue;
+					}
+					double d = witnessDistance[x] + edgeWeight[e];
+					if (d < witnessDistance[y]) {
+						if (witnessDistance[y] == Double.POSITIVE_INFINITY) {
+							witnessTouched.add(y);
+						}
+						witnessDistance[y] = d;
+						if (witnessQueue.contains(y)) {
+							witnessQueue.decreaseKey(y, d);
+						} else {
+							witnessQueue.insert(y, d);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// sorts the live edges into the upward and the reversed downward graph
+	private void buildSearchGraphs() {
+		upOffsets = new int[n + 1];
+		downOffsets = new int[n + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			if (edgeDead[e]) {
+				continue;
+			}
+			if (rank[edgeTo[e]] > rank[edgeFrom[e]]) {
+				upOffsets[edgeFrom[e] + 1]++;
+			} else {
+				downOffsets[edgeTo[e] + 1]++;
+			}
+		}
+		for (int v = 0; v < n; v++) {
+			upOffsets[v + 1] += upOffsets[v];
+			downOffsets[v + 1] += downOffsets[v];
+		}
+
+		upEdges = new int[upOffsets[n]];
+		downEdges = new int[downOffsets[n]];
+		int[] nextUp = Arrays.copyOf(upOffsets, n);
+		int[] nextDown = Arrays.copyOf(downOffsets, n);
+		for (int e = 0; e < edgeCount; e++) {
+			if (edgeDead[e]) {
+				continue;
+			}
+			if (rank[edgeTo[e]] > rank[edgeFrom[e]]) {
+				upEdges[nextUp[edgeFrom[e]]++] = e;
+			} else {
+				downEdges[nextDown[edgeTo[e]]++] = e;
+			}
+		}
+	}
+
+	/**
+	 * @return number of shortcuts added by the preprocessing
+	 */
+	public int getShortcutCount() {
+		int shortcuts = 0;
+		for (int e = 0; e < edgeCount; e++) {
+			if (edgeFirst[e] != -1 && !edgeDead[e]) {
+				shortcuts++;
+			}
+		}
+		return shortcuts;
+	}
+
+	/**
+	 * @param nodeID
+	 *            id of a node
+	 * @return position of the node in the contraction order
+	 */
+	public int getRank(int nodeID) {
+		return rank[nodeID];
+	}
+
+	/**
+	 * Calculates a List of Nodes that describes the shortest path from start
+	 * node to target node, like DiGraph.getShortestPathDijkstra().
+	 *
+	 * @param startNode
+	 *            the start node, as returned by addNode()
+	 * @param targetNode
+	 *            the target node, as returned by addNode()
+	 * @return the list of nodes, or null if no path exists
+	 */
+	public List<Node> getShortestPath(Node startNode, Node targetNode) {
+		return getShortestPath(startNode.id, targetNode.id);
+	}
+
+	public List<Node> getShortestPath(int startNodeID, int targetNodeID) {
+		int[] path = findPath(startNodeID, targetNodeID);
+		if (path == null) {
+			return null;
+		}
+		LinkedList<Node> l = new LinkedList<Node>();
+		for (int id : path) {
+			l.add(graph.nodes.get(id));
+		}
+		return l;
+	}
+
+	/**
+	 * Calculates the length of the shortest path from start node to target
+	 * node.
+	 *
+	 * @return the length, infinity if there is no path
+	 */
+	public double getDistance(int startNodeID, int targetNodeID) {
+		search(startNodeID, targetNodeID);
+		return bestDistance;
+	}
+
+	/**
+	 * Calculates the shortest path from start node to target node.
+	 *
+	 * @return the ids of the nodes on the path, starting with the start node,
+	 *         or null if no path exists
+	 */
+	public int[] findPath(int startNodeID, int targetNodeID) {
+		int meetingNode = search(startNodeID, targetNodeID);
+		if (meetingNode == -1) {
+			return null;
+		}
+
+		IntList path = new IntList();
+		path.add(startNodeID);
+		// edges of the forward search, collected from the meeting node backwards
+		IntList upward = new IntList();
+		for (int v = meetingNode; parentEdgeForward[v] != -1; v = edgeFrom[parentEdgeForward[v]]) {
+			upward.add(parentEdgeForward[v]);
+		}
+		for (int i = upward.size - 1; i >= 0; i--) {
+			unpack(upward.data[i], path);
+		}
+		for (int v = meetingNode; parentEdgeBackward[v] != -1; v = edgeTo[parentEdgeBackward[v]]) {
+			unpack(parentEdgeBackward[v], path);
+		}
+		return Arrays.copyOf(path.data, path.size);
+	}
+
+	// appends the nodes of the edge after its start node, shortcuts are replaced by their edges
+	private void unpack(int edge, IntList path) {
+		IntList stack = new IntList();
+		stack.add(edge);
+		while (stack.size > 0) {
+			int e = stack.data[--stack.size];
+			if (edgeFirst[e] == -1) {
+				path.add(edgeTo[e]);
+			} else {
+				// the second half is handled after the first one
+				stack.add(edgeSecond[e]);
+				stack.add(edgeFirst[e]);
+			}
+		}
+	}
+
+	// the upward bidirectional search, returns the meeting node or -1
+	private int search(int startNodeID, int targetNodeID) {
+		reset();
+		bestDistance = Double.POSITIVE_INFINITY;
+		int meetingNode = -1;
+
+		distanceForward[startNodeID] = 0.0;
+		distanceBackward[targetNodeID] = 0.0;
+		parentEdgeForward[startNodeID] = -1;
+		parentEdgeBackward[targetNodeID] = -1;
+		touch(startNodeID);
+		touch(targetNodeID);
+		queueForward.insert(startNodeID, 0.0);
+		queueBackward.insert(targetNodeID, 0.0);
+
+		boolean forwardTurn = true;
+		while (true) {
+			// a direction is done once its smallest key cannot improve the best path
+			boolean forwardDone = queueForward.isEmpty() || queueForward.minKey() >= bestDistance;
+			boolean backwardDone = queueBackward.isEmpty() || queueBackward.minKey() >= bestDistance;
+			if (forwardDone && backwardDone) {
+				break;
+			}
+			if (backwardDone || (forwardTurn && !forwardDone)) {
+				int v = settle(queueForward, distanceForward, parentEdgeForward, upOffsets, upEdges, edgeTo);
+				if (distanceForward[v] + distanceBackward[v] < bestDistance) {
+					bestDistance = distanceForward[v] + distanceBackward[v];
+					meetingNode = v;
+				}
+			} else {
+				int v = settle(queueBackward, distanceBackward, parentEdgeBackward, downOffsets, downEdges, edgeFrom);
+				if (distanceForward[v] + distanceBackward[v] < bestDistance) {
+					bestDistance = distanceForward[v] + distanceBackward[v];
+					meetingNode = v;
+				}
+			}
+			forwardTurn = !forwardTurn;
+		}
+		return meetingNode;
+	}
+
+	// settles the minimum of the queue, head gives the other end of an edge
+	private int settle(IndexMinPQ<Double> queue, double[] distance, int[] parentEdge,
+			int[] offsets, int[] edges, int[] head) {
+		int v = queue.delMin();
+		for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+			int e = edges[i];
+			int w = head[e];
+			double d = distance[v] + edgeWeight[e];
+			if (d < distance[w]) {
+				if (distanceForward[w] == Double.POSITIVE_INFINITY
+						&& distanceBackward[w] == Double.POSITIVE_INFINITY) {
+					touch(w);
+				}
+				distance[w] = d;
+				parentEdge[w] = e;
+				if (queue.contains(w)) {
+					queue.decreaseKey(w, d);
+				} else {
+					queue.insert(w, d);
+				}
+			}
+		}
+		return v;
+	}
+
+	private void touch(int v) {
+		if (touchedCount == touched.length) {
+			touched = Arrays.copyOf(touched, 2 * touchedCount);
+		}
+		touched[touchedCount++] = v;
+	}
+
+	private void reset() {
+		for (int i = 0; i < touchedCount; i++) {
+			distanceForward[touched[i]] = Double.POSITIVE_INFINITY;
+			distanceBackward[touched[i]] = Double.POSITIVE_INFINITY;
+		}
+		touchedCount = 0;
+		while (!queueForward.isEmpty()) {
+			queueForward.delMin();
+		}
+		while (!queueBackward.isEmpty()) {
+			queueBackward.delMin();
+		}
+	}
+
+	/** growable list of ints */
+	private static class IntList {
+		int[] data = new int[4];
+		int size;
+
+		void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, 2 * size);
+			}
+			data[size++] = value;
+		}
+	}
+}
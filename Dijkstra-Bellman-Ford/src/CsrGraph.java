@@ -0,0 +1,676 @@
+import java.util.Arrays;
+
+/**
+ * An immutable graph in compressed sparse row (CSR) layout.
+ *
+ * The outgoing edges of the node with id v are stored in the positions
+ * offsets[v] .. offsets[v+1]-1 of the arrays targets and weights. Node ids
+ * are the same as the ids handed out by DiGraph.addNode(), that is 0 .. n-1.
+ *
+ * No Node or Edge objects are involved, so a frozen graph needs 12 bytes per
+ * edge and the shortest path algorithms of this class only touch primitive
+ * arrays. Use DiGraph.freeze() or GraphIO.loadCsrGraph() to create one.
+ */
+public class CsrGraph {
+
+	/** start of the outgoing edges of each node, length n+1 */
+	final int[] offsets;
+	/** target node of each edge, grouped by start node */
+	final int[] targets;
+	/** weight of each edge, parallel to targets */
+	final double[] weights;
+
+	/** largest weight for which shortestPathTreeDijkstra() uses a DialQueue */
+	static final int DIAL_MAX_WEIGHT = 1 << 16;
+
+	/** the graph with all edges reversed, built on first use */
+	private CsrGraph reverse;
+	/** result of getMaxIntegerWeight(), -2 until it is computed */
+	private volatile int maxIntegerWeight = -2;
+
+	/**
+	 * Creates a graph from already grouped arrays. The arrays are not copied.
+	 */
+	CsrGraph(int[] offsets, int[] targets, double[] weights) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	/**
+	 * Builds a CSR graph from an unordered list of edges.
+	 *
+	 * @param nodeCount
+	 *            number of nodes, all ids have to be smaller than this
+	 * @param sources
+	 *            start node of each edge
+	 * @param targets
+	 *            target node of each edge
+	 * @param weights
+	 *            weight of each edge
+	 * @param edgeCount
+	 *            number of valid entries in the three arrays
+	 * @return the frozen graph
+	 */
+	public static CsrGraph fromEdges(int nodeCount, int[] sources, int[] targets,
+			double[] weights, int edgeCount) {
+		int[] offsets = new int[nodeCount + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			offsets[sources[e] + 1]++;
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+
+		// counting sort of the edges by start node
+		int[] next = Arrays.copyOf(offsets, nodeCount);
+		int[] sortedTargets = new int[edgeCount];
+		double[] sortedWeights = new double[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			int pos = next[sources[e]]++;
+			sortedTargets[pos] = targets[e];
+			sortedWeights[pos] = weights[e];
+		}
+		return new CsrGraph(offsets, sortedTargets, sortedWeights);
+	}
+
+	/**
+	 * Copies the nodes and edges of the given graph into a CSR graph. Later
+	 * changes to the DiGraph are not reflected by the returned graph.
+	 *
+	 * @param g
+	 *            the graph to freeze
+	 * @return the frozen graph
+	 */
+	public static CsrGraph fromDiGraph(DiGraph g) {
+		int nodeCount = g.nodes.size();
+		int[] offsets = new int[nodeCount + 1];
+		for (int v = 0; v < nodeCount; v++) {
+			offsets[v + 1] = offsets[v] + g.nodes.get(v).edges.size();
+		}
+
+		int[] targets = new int[offsets[nodeCount]];
+		double[] weights = new double[offsets[nodeCount]];
+		for (int v = 0; v < nodeCount; v++) {
+			int pos = offsets[v];
+			for (Edge e : g.nodes.get(v).edges) {
+				targets[pos] = e.endnode.id;
+				weights[pos] = e.weight;
+				pos++;
+			}
+		}
+		return new CsrGraph(offsets, targets, weights);
+	}
+
+	/**
+	 * Returns the graph with the direction of every edge reversed, i.e. the
+	 * incoming edges of every node. It is built on the first call and shared
+	 * afterwards.
+	 *
+	 * @return the reverse graph
+	 */
+	public synchronized CsrGraph reverse() {
+		if (reverse == null) {
+			int[] sources = new int[targets.length];
+			for (int v = 0; v < getNodeCount(); v++) {
+				for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+					sources[e] = v;
+				}
+			}
+			reverse = fromEdges(getNodeCount(), targets, sources, weights, targets.length);
+			reverse.reverse = this;
+		}
+		return reverse;
+	}
+
+	/**
+	 * @return number of nodes
+	 */
+	public int getNodeCount() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * @return number of edges
+	 */
+	public int getEdgeCount() {
+		return targets.length;
+	}
+
+	/**
+	 * @param node
+	 *            id of the node
+	 * @return number of outgoing edges of the node
+	 */
+	public int getOutDegree(int node) {
+		return offsets[node + 1] - offsets[node];
+	}
+
+	/**
+	 * Returns the weight of the directed edge between the given nodes.
+	 *
+	 * @return Graph.WEIGHT_NO_EDGE, if there is no such edge
+	 */
+	public double getWeight(int startnode, int endnode) {
+		for (int e = offsets[startnode]; e < offsets[startnode + 1]; e++) {
+			if (targets[e] == endnode) {
+				return weights[e];
+			}
+		}
+		return Graph.WEIGHT_NO_EDGE;
+	}
+
+	/**
+	 * Chooses predecessors for final distances, e.g. after a parallel search
+	 * where the order of the updates is not known. A breadth-first search
+	 * from the start node follows only edges with distance[v] + weight ==
+	 * distance[w], so the predecessors always form a tree.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param distance
+	 *            the final distance of every node
+	 * @param predecessors
+	 *            receives the predecessor of every node, -1 for the start
+	 *            node and unreachable nodes
+	 */
+	void buildShortestPathTree(int startNodeID, double[] distance, int[] predecessors) {
+		int n = getNodeCount();
+		Arrays.fill(predecessors, -1);
+		boolean[] visited = new boolean[n];
+		int[] queue = new int[n];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = startNodeID;
+		visited[startNodeID] = true;
+
+		while (head < tail) {
+			int v = queue[head++];
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				int w = targets[e];
+				if (!visited[w] && distance[v] + weights[e] == distance[w]) {
+					visited[w] = true;
+					predecessors[w] = v;
+					queue[tail++] = w;
+				}
+			}
+		}
+	}
+
+	// Disjkstra algorithm
+	// ----------------------------------------------------------------------------------------------------
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes. All edge
+	 * weights have to be non-negative.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @return distance of every node, infinity for unreachable nodes
+	 */
+	public double[] populateDijkstraFrom(int startNodeID) {
+		return populateDijkstraFrom(startNodeID, null);
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes. All edge
+	 * weights have to be non-negative.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param predecessors
+	 *            if not null, receives the predecessor of every node on its
+	 *            shortest path, -1 for the start node and unreachable nodes
+	 * @return distance of every node, infinity for unreachable nodes
+	 */
+	public double[] populateDijkstraFrom(int startNodeID, int[] predecessors) {
+		int n = getNodeCount();
+		double[] distance = new double[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		if (predecessors != null) {
+			Arrays.fill(predecessors, -1);
+		}
+
+		IndexMinPQ<Double> queue = new IndexMinPQ<Double>(n);
+		distance[startNodeID] = 0.0;
+		queue.insert(startNodeID, 0.0);
+
+		while (!queue.isEmpty()) {
+			int v = queue.delMin();
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				int w = targets[e];
+				double d = distance[v] + weights[e];
+				if (d < distance[w]) {
+					distance[w] = d;
+					if (predecessors != null) {
+						predecessors[w] = v;
+					}
+					if (queue.contains(w)) {
+						queue.decreaseKey(w, d);
+					} else {
+						queue.insert(w, d);
+					}
+				}
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Checks whether Dial's variant of Dijkstra's algorithm can be used.
+	 *
+	 * @return the largest edge weight if all weights are non-negative
+	 *         integers that fit into an int, otherwise -1
+	 */
+	public int getMaxIntegerWeight() {
+		int max = maxIntegerWeight;
+		if (max == -2) {
+			max = 0;
+			for (double w : weights) {
+				if (!(w >= 0 && w < Integer.MAX_VALUE && w == Math.rint(w))) {
+					max = -1;
+					break;
+				}
+				max = Math.max(max, (int) w);
+			}
+			maxIntegerWeight = max;
+		}
+		return max;
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes with
+	 * Dijkstra's algorithm on a DialQueue instead of a binary heap. All edge
+	 * weights have to be non-negative integers; the queue has one bucket per
+	 * possible weight, so the time is O(m + C * n) for the largest weight C,
+	 * which is fast for small C. The distances equal the ones of
+	 * populateDijkstraFrom().
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param predecessors
+	 *            if not null, receives the predecessor of every node on its
+	 *            shortest path, -1 for the start node and unreachable nodes
+	 * @return distance of every node, infinity for unreachable nodes
+	 * @throws IllegalArgumentException
+	 *             if a weight is not a non-negative integer
+	 */
+	public double[] populateDialDijkstraFrom(int startNodeID, int[] predecessors) {
+		int maxWeight = getMaxIntegerWeight();
+		if (maxWeight < 0) {
+			throw new IllegalArgumentException("Dial's algorithm needs non-negative integer weights");
+		}
+		int n = getNodeCount();
+		double[] distance = new double[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		if (predecessors != null) {
+			Arrays.fill(predecessors, -1);
+		}
+		boolean[] settled = new boolean[n];
+
+		DialQueue queue = new DialQueue(maxWeight);
+		distance[startNodeID] = 0.0;
+		queue.add(startNodeID, 0);
+
+		while (!queue.isEmpty()) {
+			int v = queue.poll();
+			// entries of nodes that were added again with a smaller key are outdated
+			if (settled[v]) {
+				continue;
+			}
+			settled[v] = true;
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				int w = targets[e];
+				double d = distance[v] + weights[e];
+				if (d < distance[w]) {
+					distance[w] = d;
+					if (predecessors != null) {
+						predecessors[w] = v;
+					}
+					queue.add(w, (long) d);
+				}
+			}
+		}
+		return distance;
+	}
+
+	// Bellman-Ford algorithm
+	// ----------------------------------------------------------------------------------------------------
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes. Edge
+	 * weights may be negative.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @return distance of every node, infinity for unreachable nodes
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public double[] populateBellmanFordFrom(int startNodeID) {
+		return populateBellmanFordFrom(startNodeID, null);
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes. Edge
+	 * weights may be negative.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param predecessors
+	 *            if not null, receives the predecessor of every node on its
+	 *            shortest path, -1 for the start node and unreachable nodes
+	 * @return distance of every node, infinity for unreachable nodes
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public double[] populateBellmanFordFrom(int startNodeID, int[] predecessors) {
+		int n = getNodeCount();
+		double[] distance = new double[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		if (predecessors != null) {
+			Arrays.fill(predecessors, -1);
+		}
+		distance[startNodeID] = 0.0;
+
+		// after n-1 passes all distances are final, unless there is a negative cycle
+		boolean changed = true;
+		for (int k = 0; k < n && changed; k++) {
+			changed = false;
+			for (int v = 0; v < n; v++) {
+				if (distance[v] == Double.POSITIVE_INFINITY) {
+					continue;
+				}
+				for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+					int w = targets[e];
+					double d = distance[v] + weights[e];
+					if (d < distance[w]) {
+						distance[w] = d;
+						if (predecessors != null) {
+							predecessors[w] = v;
+						}
+						changed = true;
+					}
+				}
+			}
+		}
+
+		if (changed) {
+			throw new RuntimeException("There is a negative cycle.");
+		}
+		return distance;
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes with the
+	 * queue based variant of Bellman-Ford. Edge weights may be negative.
+	 *
+	 * Only nodes whose distance changed are scanned again, in FIFO order, and
+	 * the search ends as soon as the queue runs empty. A node is not scanned
+	 * while its parent is still queued, since the parent will improve it
+	 * again anyway. Negative cycles are found by walking the parent pointers
+	 * after every n relaxations: with strictly improving relaxations the
+	 * parent pointers form a tree unless there is a negative cycle.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param predecessors
+	 *            if not null, receives the predecessor of every node on its
+	 *            shortest path, -1 for the start node and unreachable nodes
+	 * @return distance of every node, infinity for unreachable nodes
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public double[] populateQueueBellmanFordFrom(int startNodeID, int[] predecessors) {
+		int n = getNodeCount();
+		double[] distance = new double[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		int[] parent = predecessors != null ? predecessors : new int[n];
+		Arrays.fill(parent, -1);
+
+		// circular FIFO queue, every node is in it at most once
+		int[] queue = new int[n];
+		boolean[] inQueue = new boolean[n];
+		int head = 0;
+		int size = 0;
+
+		distance[startNodeID] = 0.0;
+		queue[0] = startNodeID;
+		inQueue[startNodeID] = true;
+		size = 1;
+
+		// a pass ends when the nodes queued during the previous pass are scanned
+		int pass = 1;
+		int leftInPass = 1;
+		int relaxations = 0;
+
+		while (size > 0) {
+			int v = queue[head];
+			head = head + 1 == n ? 0 : head + 1;
+			size--;
+			inQueue[v] = false;
+
+			if (parent[v] == -1 || !inQueue[parent[v]]) {
+				for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+					int w = targets[e];
+					double d = distance[v] + weights[e];
+					if (d < distance[w]) {
+						distance[w] = d;
+						parent[w] = v;
+						if (!inQueue[w]) {
+							queue[(head + size) % n] = w;
+							inQueue[w] = true;
+							size++;
+						}
+						if (++relaxations == n) {
+							relaxations = 0;
+							if (hasParentCycle(w, parent)) {
+								throw new RuntimeException("There is a negative cycle.");
+							}
+						}
+					}
+				}
+			}
+
+			if (--leftInPass == 0) {
+				leftInPass = size;
+				// without a negative cycle all distances are final after n-1 passes
+				if (size > 0 && ++pass > n) {
+					throw new RuntimeException("There is a negative cycle.");
+				}
+			}
+		}
+		return distance;
+	}
+
+	// follows the parent pointers from the node, at most n steps to the root
+	private boolean hasParentCycle(int node, int[] parent) {
+		int v = parent[node];
+		for (int steps = 0; v != -1; steps++) {
+			if (v == node || steps == getNodeCount()) {
+				return true;
+			}
+			v = parent[v];
+		}
+		return false;
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes with
+	 * the queue based Bellman-Ford and Tarjan's subtree disassembly. Edge
+	 * weights may be negative.
+	 *
+	 * The parent pointers are kept as a tree whose nodes are linked in
+	 * preorder, together with their depth. When the distance of a node w
+	 * improves, the subtree below w is removed from the tree: the distances
+	 * of its nodes are outdated, so they are not scanned until they improve
+	 * themselves. If the node whose edge improved w is found in the subtree,
+	 * the new edge closes a cycle of negative length, which is reported at
+	 * once instead of after n passes. Removing subtrees also saves many
+	 * useless scans on graphs without negative cycles.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param predecessors
+	 *            if not null, receives the predecessor of every node on its
+	 *            shortest path, -1 for the start node and unreachable nodes
+	 * @return distance of every node, infinity for unreachable nodes
+	 * @throws NegativeCycleException
+	 *             if a negative cycle is reachable from the start node, it
+	 *             contains the nodes of the cycle
+	 */
+	public double[] populateTarjanBellmanFordFrom(int startNodeID, int[] predecessors) {
+		int n = getNodeCount();
+		double[] distance = new double[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		int[] parent = predecessors != null ? predecessors : new int[n];
+		Arrays.fill(parent, -1);
+
+		// the tree in preorder as a circular doubly linked list starting at the root
+		int[] next = new int[n];
+		int[] prev = new int[n];
+		int[] depth = new int[n];
+		boolean[] inTree = new boolean[n];
+
+		// circular FIFO queue, every node is in it at most once
+		int[] queue = new int[n];
+		boolean[] inQueue = new boolean[n];
+		int head = 0;
+		int size = 1;
+
+		distance[startNodeID] = 0.0;
+		next[startNodeID] = startNodeID;
+		prev[startNodeID] = startNodeID;
+		inTree[startNodeID] = true;
+		queue[0] = startNodeID;
+		inQueue[startNodeID] = true;
+
+		while (size > 0) {
+			int v = queue[head];
+			head = head + 1 == n ? 0 : head + 1;
+			size--;
+			inQueue[v] = false;
+			if (!inTree[v]) {
+				// an ancestor improved after v was queued, v will improve as well
+				continue;
+			}
+
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				int w = targets[e];
+				double d = distance[v] + weights[e];
+				if (!(d < distance[w])) {
+					continue;
+				}
+
+				if (inTree[w]) {
+					if (w == v) {
+						throw new NegativeCycleException(new int[] { v });
+					}
+					// disassemble the subtree below w, it is the run after w with a larger depth
+					int x = next[w];
+					while (x != startNodeID && depth[x] > depth[w]) {
+						if (x == v) {
+							throw new NegativeCycleException(treePath(w, v, parent));
+						}
+						inTree[x] = false;
+						x = next[x];
+					}
+					// cut w and its old subtree out of the list
+					int before = prev[w];
+					next[before] = x;
+					prev[x] = before;
+				}
+
+				distance[w] = d;
+				parent[w] = v;
+				depth[w] = depth[v] + 1;
+				inTree[w] = true;
+				// w becomes the first child of v
+				next[w] = next[v];
+				prev[next[v]] = w;
+				next[v] = w;
+				prev[w] = v;
+				if (!inQueue[w]) {
+					queue[(head + size) % n] = w;
+					inQueue[w] = true;
+					size++;
+				}
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Searches a negative cycle that can be reached from the start node, with
+	 * populateTarjanBellmanFordFrom().
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @return the ids of the nodes on the cycle in the order of its edges,
+	 *         the last node has an edge back to the first one, or null if no
+	 *         negative cycle is reachable
+	 */
+	public int[] findNegativeCycle(int startNodeID) {
+		try {
+			populateTarjanBellmanFordFrom(startNodeID, null);
+			return null;
+		} catch (NegativeCycleException e) {
+			return e.getCycle();
+		}
+	}
+
+	// the tree path from ancestor down to node
+	private static int[] treePath(int ancestor, int node, int[] parent) {
+		int length = 1;
+		for (int v = node; v != ancestor; v = parent[v]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int v = node; v != ancestor; v = parent[v]) {
+			path[--length] = v;
+		}
+		path[0] = ancestor;
+		return path;
+	}
+
+	// Shortest path trees
+	// ----------------------------------------------------------------------------------------------------
+
+	/**
+	 * Runs Dijkstra's algorithm from the start node and returns the result as
+	 * a separate object. All state of the search is local, so any number of
+	 * threads can call this method on one graph at the same time.
+	 *
+	 * If all weights are small non-negative integers, the search runs on a
+	 * DialQueue, see populateDialDijkstraFrom().
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @return distances and parents of all nodes
+	 */
+	public ShortestPathTree shortestPathTreeDijkstra(int startNodeID) {
+		int[] parent = new int[getNodeCount()];
+		int maxWeight = getMaxIntegerWeight();
+		double[] distance = maxWeight >= 0 && maxWeight <= DIAL_MAX_WEIGHT
+				? populateDialDijkstraFrom(startNodeID, parent)
+				: populateDijkstraFrom(startNodeID, parent);
+		return new ShortestPathTree(startNodeID, distance, parent);
+	}
+
+	/**
+	 * Runs the queue based Bellman-Ford from the start node and returns the
+	 * result as a separate object. All state of the search is local, so any
+	 * number of threads can call this method on one graph at the same time.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @return distances and parents of all nodes
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public ShortestPathTree shortestPathTreeBellmanFord(int startNodeID) {
+		int[] parent = new int[getNodeCount()];
+		double[] distance = populateQueueBellmanFordFrom(startNodeID, parent);
+		return new ShortestPathTree(startNodeID, distance, parent);
+	}
+}
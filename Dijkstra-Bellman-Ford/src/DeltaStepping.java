@@ -0,0 +1,326 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single source shortest paths for non-negative edge weights with
+ * the delta-stepping algorithm of Meyer and Sanders.
+ *
+ * Tentative distances are kept in buckets of width delta. The nodes of the
+ * smallest non-empty bucket are settled together: first their light edges
+ * (weight at most delta) are relaxed in parallel, repeatedly, until the
+ * bucket stays empty, then the heavy edges of all nodes removed from the
+ * bucket are relaxed once. For a very small delta this becomes Dijkstra's
+ * algorithm, for a very large one Bellman-Ford.
+ *
+ * Relaxations lower a shared AtomicLongArray of distances with
+ * compare-and-set; the bucket insertions of a phase are collected per task
+ * and merged afterwards by the calling thread. The distances equal the ones
+ * of CsrGraph.populateDijkstraFrom().
+ */
+public class DeltaStepping {
+
+	/** nodes per task below which a frontier is not split any further */
+	private static final int MIN_CHUNK = 256;
+	/** most buckets an engine allocates, a smaller delta is rejected */
+	private static final int MAX_BUCKETS = 1 << 22;
+
+	private final CsrGraph light;
+	private final CsrGraph heavy;
+	private final CsrGraph graph;
+	private final double delta;
+	/** number of buckets, reused cyclically */
+	private final int bucketCount;
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	/**
+	 * Creates an engine with its own pool and delta chosen by chooseDelta().
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 * @param parallelism
+	 *            number of worker threads
+	 */
+	public DeltaStepping(CsrGraph graph, int parallelism) {
+		this(graph, new ForkJoinPool(parallelism), true, chooseDelta(graph));
+	}
+
+	/**
+	 * Creates an engine that runs on the given pool.
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 * @param pool
+	 *            the pool to run the phases on
+	 * @param delta
+	 *            the bucket width, has to be positive and at least the
+	 *            largest edge weight divided by 2^22
+	 */
+	public DeltaStepping(CsrGraph graph, ForkJoinPool pool, double delta) {
+		this(graph, pool, false, delta);
+	}
+
+	private DeltaStepping(CsrGraph graph, ForkJoinPool pool, boolean ownsPool, double delta) {
+		if (!(delta > 0)) {
+			throw new IllegalArgumentException("delta has to be positive");
+		}
+		this.graph = graph;
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		this.delta = delta;
+
+		// split the edges into light and heavy ones
+		int m = graph.getEdgeCount();
+		int[] lightSources = new int[m];
+		int[] lightTargets = new int[m];
+		double[] lightWeights = new double[m];
+		int[] heavySources = new int[m];
+		int[] heavyTargets = new int[m];
+		double[] heavyWeights = new double[m];
+		int lightCount = 0;
+		int heavyCount = 0;
+		double maxWeight = 0;
+		for (int v = 0; v < graph.getNodeCount(); v++) {
+			for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+				double w = graph.weights[e];
+				if (w < 0) {
+					throw new IllegalArgumentException("delta-stepping needs non-negative edge weights");
+				}
+				maxWeight = Math.max(maxWeight, w);
+				if (w <= delta) {
+					lightSources[lightCount] = v;
+					lightTargets[lightCount] = graph.targets[e];
+					lightWeights[lightCount++] = w;
+				} else {
+					heavySources[heavyCount] = v;
+					heavyTargets[heavyCount] = graph.targets[e];
+					heavyWeights[heavyCount++] = w;
+				}
+			}
+		}
+		this.light = CsrGraph.fromEdges(graph.getNodeCount(), lightSources, lightTargets, lightWeights, lightCount);
+		this.heavy = CsrGraph.fromEdges(graph.getNodeCount(), heavySources, heavyTargets, heavyWeights, heavyCount);
+
+		// tentative distances span at most maxWeight / delta + 2 buckets, so
+		// that many are enough when they are reused cyclically
+		if (maxWeight / delta > MAX_BUCKETS - 2) {
+			throw new IllegalArgumentException("delta " + delta + " is too small for the largest weight "
+					+ maxWeight + ", it would need more than " + MAX_BUCKETS + " buckets");
+		}
+		this.bucketCount = (int) (maxWeight / delta) + 2;
+	}
+
+	/**
+	 * Chooses the bucket width from the weight distribution: the largest
+	 * weight divided by the average out-degree, so that a bucket holds about
+	 * one edge length per neighbor, but at least the smallest positive
+	 * weight, so that buckets are not mostly empty.
+	 *
+	 * @param graph
+	 *            the graph to search
+	 * @return a positive bucket width
+	 */
+	public static double chooseDelta(CsrGraph graph) {
+		double maxWeight = 0;
+		double minPositiveWeight = Double.POSITIVE_INFINITY;
+		for (double w : graph.weights) {
+			maxWeight = Math.max(maxWeight, w);
+			if (w > 0) {
+				minPositiveWeight = Math.min(minPositiveWeight, w);
+			}
+		}
+		if (maxWeight == 0) {
+			return 1.0;
+		}
+		double averageDegree = Math.max(1.0, (double) graph.getEdgeCount() / Math.max(1, graph.getNodeCount()));
+		return Math.max(maxWeight / averageDegree, minPositiveWeight);
+	}
+
+	/**
+	 * @return the bucket width used by this engine
+	 */
+	public double getDelta() {
+		return delta;
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param predecessors
+	 *            if not null, receives the predecessor of every node on its
+	 *            shortest path, -1 for the start node and unreachable nodes
+	 * @return distance of every node, infinity for unreachable nodes
+	 */
+	public double[] populateDeltaSteppingFrom(int startNodeID, int[] predecessors) {
+		int n = graph.getNodeCount();
+		AtomicLongArray distance = new AtomicLongArray(n);
+		long infinity = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+		for (int v = 0; v < n; v++) {
+			distance.set(v, infinity);
+		}
+		distance.set(startNodeID, Double.doubleToLongBits(0.0));
+
+		IntList[] buckets = new IntList[bucketCount];
+		for (int i = 0; i < bucketCount; i++) {
+			buckets[i] = new IntList();
+		}
+		buckets[0].add(startNodeID);
+		int queued = 1;
+
+		// stamps to take every node only once per light phase and once into the settled set
+		int[] phaseStamp = new int[n];
+		int[] settledStamp = new int[n];
+		int phase = 0;
+		int round = 0;
+
+		long current = 0;
+		while (queued > 0) {
+			// the smallest non-empty bucket
+			while (buckets[(int) (current % bucketCount)].size == 0) {
+				current++;
+			}
+			IntList bucket = buckets[(int) (current % bucketCount)];
+			IntList settled = new IntList();
+			round++;
+
+			while (bucket.size > 0) {
+				phase++;
+				IntList frontier = new IntList();
+				for (int i = 0; i < bucket.size; i++) {
+					int v = bucket.data[i];
+					// skip stale entries of nodes that moved to a smaller bucket
+					if (phaseStamp[v] != phase && bucketOf(distance, v) == current) {
+						phaseStamp[v] = phase;
+						frontier.add(v);
+						if (settledStamp[v] != round) {
+							settledStamp[v] = round;
+							settled.add(v);
+						}
+					}
+				}
+				queued -= bucket.size;
+				bucket.size = 0;
+
+				queued += distribute(pool.invoke(new Relax(light, distance, frontier.data, 0, frontier.size)),
+						distance, buckets);
+			}
+
+			queued += distribute(pool.invoke(new Relax(heavy, distance, settled.data, 0, settled.size)),
+					distance, buckets);
+			current++;
+		}
+
+		double[] result = new double[n];
+		for (int v = 0; v < n; v++) {
+			result[v] = Double.longBitsToDouble(distance.get(v));
+		}
+		if (predecessors != null) {
+			graph.buildShortestPathTree(startNodeID, result, predecessors);
+		}
+		return result;
+	}
+
+	private long bucketOf(AtomicLongArray distance, int v) {
+		return (long) (Double.longBitsToDouble(distance.get(v)) / delta);
+	}
+
+	// puts the improved nodes into the buckets of their new distances
+	private int distribute(IntList improved, AtomicLongArray distance, IntList[] buckets) {
+		for (int i = 0; i < improved.size; i++) {
+			int v = improved.data[i];
+			buckets[(int) (bucketOf(distance, v) % buckets.length)].add(v);
+		}
+		return improved.size;
+	}
+
+	/**
+	 * Relaxes the edges of the given nodes in graph and returns the nodes
+	 * whose distance was lowered.
+	 */
+	private static class Relax extends RecursiveTask<IntList> {
+
+		private static final long serialVersionUID = 1L;
+		private final CsrGraph graph;
+		private final AtomicLongArray distance;
+		private final int[] nodes;
+		private final int begin;
+		private final int end;
+
+		Relax(CsrGraph graph, AtomicLongArray distance, int[] nodes, int begin, int end) {
+			this.graph = graph;
+			this.distance = distance;
+			this.nodes = nodes;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected IntList compute() {
+			if (end - begin > MIN_CHUNK) {
+				int middle = (begin + end) >>> 1;
+				Relax left = new Relax(graph, distance, nodes, begin, middle);
+				Relax right = new Relax(graph, distance, nodes, middle, end);
+				right.fork();
+				IntList result = left.compute();
+				result.addAll(right.join());
+				return result;
+			}
+
+			IntList improved = new IntList();
+			for (int i = begin; i < end; i++) {
+				int v = nodes[i];
+				double dv = Double.longBitsToDouble(distance.get(v));
+				for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+					double d = dv + graph.weights[e];
+					int w = graph.targets[e];
+
+					// atomic minimum: retry until d is stored or not smaller anymore
+					long current = distance.get(w);
+					while (d < Double.longBitsToDouble(current)) {
+						if (distance.compareAndSet(w, current, Double.doubleToLongBits(d))) {
+							improved.add(w);
+							break;
+						}
+						current = distance.get(w);
+					}
+				}
+			}
+			return improved;
+		}
+	}
+
+	/** growable list of ints */
+	private static class IntList {
+		int[] data = new int[8];
+		int size;
+
+		void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, 2 * size);
+			}
+			data[size++] = value;
+		}
+
+		void addAll(IntList other) {
+			if (size + other.size > data.length) {
+				data = Arrays.copyOf(data, Math.max(2 * data.length, size + other.size));
+			}
+			System.arraycopy(other.data, 0, data, size, other.size);
+			size += other.size;
+		}
+	}
+
+	/**
+	 * Shuts down the pool of the engine if it was created by the engine. A
+	 * pool passed in by the caller is left running.
+	 */
+	public void shutdown() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+}
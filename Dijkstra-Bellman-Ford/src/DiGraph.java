@@ -27,8 +27,27 @@ public class DiGraph implements Graph {
 
 	public HashMap<Integer, Node> nodes;
 
-	// needed for testing, where the execution of methods should not stop
-	private boolean showSteps = true;
+	// stepping is opt-in: without setShowSteps(true) the algorithms never wait
+	private boolean showSteps = false;
+
+	// incremented by every change of nodes or edges
+	private int modCount = 0;
+
+	// frozen copy used by the point-to-point queries, valid for frozenModCount
+	private CsrGraph frozen;
+	private int frozenModCount = -1;
+	// one point-to-point engine per querying thread, for the current frozen copy
+	private final ThreadLocal<BidirectionalDijkstra> bidirectionalDijkstra = new ThreadLocal<BidirectionalDijkstra>();
+	// one A* engine per querying thread, for the last landmarks used
+	private final ThreadLocal<AltSearch> altSearch = new ThreadLocal<AltSearch>();
+	// distance table engine for the current frozen copy, guarded by itself
+	private final Object distanceTableLock = new Object();
+	private DistanceTable distanceTable;
+	// k shortest paths engine for the current frozen copy, guarded by itself
+	private final Object kShortestPathsLock = new Object();
+	private KShortestPaths kShortestPaths;
+	// answers repeated point-to-point queries, null if disabled
+	private volatile ShortestPathCache queryCache;
 
 	public DiGraph() {
 		nodes = new HashMap<Integer, Node>();
@@ -52,9 +71,11 @@ public class DiGraph implements Graph {
 	public void addEdge(Node startnode, Node endnode, double weight) {
 		if (startnode != null && endnode != null) {
 			
-			// only add edges between nodes which are already part of this graph 
-			if(nodes.values().contains(startnode) && nodes.values().contains(endnode)){
+			// only add edges between nodes which are already part of this graph,
+			// nodes are equal by id and stored under their id
+			if(nodes.containsKey(startnode.id) && nodes.containsKey(endnode.id)){
 				startnode.addEdge(endnode, weight);
+				modCount++;
 			}
 
 		}
@@ -82,6 +103,7 @@ public class DiGraph implements Graph {
 		int newId = nodes.size();
 		newOne = new Node(newId);
 		nodes.put(newId, newOne);
+		modCount++;
 		return newOne;
 	}
 
@@ -101,7 +123,7 @@ public class DiGraph implements Graph {
 	@Override
 	public double getWeight(Node startnode, Node endnode) {
 		if (startnode != null && endnode != null) {
-			if(nodes.values().contains(startnode) && nodes.values().contains(endnode)){
+			if(nodes.containsKey(startnode.id) && nodes.containsKey(endnode.id)){
 				return startnode.getWeight(endnode);
 			}
 		}
@@ -113,6 +135,47 @@ public class DiGraph implements Graph {
 		return getWeight(nodes.get(startnode), nodes.get(endnode));
 	}
 
+	/**
+	 * Changes the weight of the directed edge between the given nodes. If
+	 * there are several such edges, the one whose weight getWeight() returns
+	 * is changed.
+	 * 
+	 * @param startnode
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param endnode
+	 *            the index of the target node, as returned by addNode().id.
+	 * @param weight
+	 *            the new weight
+	 * @return true if the edge exists
+	 */
+	public boolean setWeight(int startnode, int endnode, double weight) {
+		Node start = nodes.get(startnode);
+		Node end = nodes.get(endnode);
+		if (start == null || end == null) {
+			return false;
+		}
+		for (Edge e : start.edges) {
+			if (e.endnode == end) {
+				e.weight = weight;
+				modCount++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a counter that changes with every change of the nodes, edges
+	 * or weights made through this class. Results computed for the graph are
+	 * still valid as long as the counter has the same value.
+	 * 
+	 * @return the modification counter
+	 */
+	@Override
+	public int getModificationCount() {
+		return modCount;
+	}
+
 	/**
 	 * Returns all nodes of the graph.
 	 * 
@@ -133,6 +196,21 @@ public class DiGraph implements Graph {
 		return edges;
 	}
 
+	/**
+	 * Copies the graph into an immutable CsrGraph. Later changes to this
+	 * graph are not reflected by the returned graph. As long as the graph is
+	 * not changed, the same copy is returned by every call.
+	 * 
+	 * @return the frozen graph
+	 */
+	public synchronized CsrGraph freeze() {
+		if (frozen == null || frozenModCount != modCount) {
+			frozen = CsrGraph.fromDiGraph(this);
+			frozenModCount = modCount;
+		}
+		return frozen;
+	}
+
 	/**
 	 * For a node returns all nodes the outgoing edges of the node directly lead to.
 	 * 
@@ -169,7 +247,7 @@ public class DiGraph implements Graph {
 	@Override
 	public boolean isConnected(Node startnode, Node endnode) {
 		if (startnode != null && endnode != null) {
-			if(nodes.values().contains(startnode) && nodes.values().contains(endnode)){
+			if(nodes.containsKey(startnode.id) && nodes.containsKey(endnode.id)){
 				return startnode.hasEdgeTo(endnode);
 			}
 		}
@@ -188,9 +266,9 @@ public class DiGraph implements Graph {
 	@Override
 	public void clearMarks() {
 		for (Node nextNode : nodes.values()) {
-			nextNode.status = Node.WHITE;
+			setStatus(nextNode, Node.WHITE);
 			for (Edge nextEdge : nextNode.getIncidentEdges()) {
-				nextEdge.status = Edge.WHITE;
+				setStatus(nextNode, nextEdge, Edge.WHITE);
 			}
 		}
 	}
@@ -200,7 +278,7 @@ public class DiGraph implements Graph {
 	 */
 	private void resetState() {
 		for (Node n : nodes.values()) {
-			n.status = Node.WHITE;
+			setStatus(n, Node.WHITE);
 		}
 	}
 	
@@ -218,10 +296,10 @@ public class DiGraph implements Graph {
 			System.out.println("Error! this node does not exist!");
 			return;
 		}
-		startNode.status = Node.GRAY;
+		setStatus(startNode, Node.GRAY);
 		
 		this.stopExecutionUntilSignal();
-		startNode.status = Node.BLACK;
+		setStatus(startNode, Node.BLACK);
 		
 		List<Edge> edges = startNode.getIncidentEdges();
 		Random ran = new Random();
@@ -232,7 +310,7 @@ public class DiGraph implements Graph {
 			//white and gray neighbor nodes will add to nodes-list
 			for(Edge e: edges){
 				if(e.endnode.status != Node.BLACK){
-					e.endnode.status = Node.GRAY;
+					setStatus(e.endnode, Node.GRAY);
 					nodes.add(e.endnode);
 				}
 			}
@@ -241,7 +319,7 @@ public class DiGraph implements Graph {
 			
 			startNode= nodes.get(ran.nextInt(nodes.size()));
 			edges = startNode.getIncidentEdges();
-			startNode.status = Node.BLACK;
+			setStatus(startNode, Node.BLACK);
 		}
 	}
 	
@@ -352,6 +430,7 @@ public class DiGraph implements Graph {
 				if(w.distance > v.distance + getWeight(v, w)){
 					w.predecessor = v;
 					w.distance = v.distance + getWeight(v, w);
+					stepListener.edgeRelaxed(v.id, w.id, w.distance);
 					if(!distanceQueue.contains(w)){
 
 						distanceQueue.add(w);
@@ -402,6 +481,7 @@ List<Node> distanceQueue = new LinkedList<Node>();
 					if(w.distance > v.distance + getWeight(v, w)){
 						w.predecessor = v;
 						w.distance = v.distance + getWeight(v, w);
+						stepListener.edgeRelaxed(v.id, w.id, w.distance);
 					}
 				}
 			}
@@ -422,6 +502,236 @@ List<Node> distanceQueue = new LinkedList<Node>();
 
 
 
+	/**
+	 * Calculates the shortest paths from startNode to all Nodes in the Graph
+	 * with Dijkstra's algorithm on a bucket queue, see
+	 * CsrGraph.populateDialDijkstraFrom(). All edge weights have to be
+	 * non-negative integers. The results are stored in the distance and
+	 * predecessor fields of the nodes.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @throws IllegalArgumentException
+	 *             if a weight is not a non-negative integer
+	 */
+	public void populateDialDijkstraFrom(int startNodeID) {
+		CsrGraph g = freeze();
+		int[] predecessors = new int[g.getNodeCount()];
+		double[] distance = g.populateDialDijkstraFrom(startNodeID, predecessors);
+		writeToNodes(distance, predecessors);
+	}
+
+	/**
+	 * Calculates the shortest paths from startNode to all Nodes in the Graph
+	 * with the queue based Bellman-Ford algorithm of
+	 * CsrGraph.populateQueueBellmanFordFrom(), which only rescans nodes whose
+	 * distance changed. The results are stored in the distance and
+	 * predecessor fields of the nodes.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public void populateQueueBellmanFordFrom(int startNodeID) {
+		populateQueueBellmanFordFrom(nodes.get(startNodeID));
+	}
+
+	public void populateQueueBellmanFordFrom(Node startNode) {
+		CsrGraph g = freeze();
+		int[] predecessors = new int[g.getNodeCount()];
+		double[] distance = g.populateQueueBellmanFordFrom(startNode.id, predecessors);
+		writeToNodes(distance, predecessors);
+	}
+
+	/**
+	 * Calculates the shortest paths from startNode to all Nodes in the Graph
+	 * with the queue based Bellman-Ford and Tarjan's subtree disassembly, see
+	 * CsrGraph.populateTarjanBellmanFordFrom(). A negative cycle is reported
+	 * as soon as it forms. The results are stored in the distance and
+	 * predecessor fields of the nodes.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @throws NegativeCycleException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public void populateTarjanBellmanFordFrom(int startNodeID) {
+		CsrGraph g = freeze();
+		int[] predecessors = new int[g.getNodeCount()];
+		double[] distance = g.populateTarjanBellmanFordFrom(startNodeID, predecessors);
+		writeToNodes(distance, predecessors);
+	}
+
+	/**
+	 * Searches a negative cycle that can be reached from the start node. The
+	 * Node fields are not changed.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @return the nodes of the cycle in the order of its edges, the last node
+	 *         has an edge back to the first one, or null if there is no
+	 *         negative cycle
+	 */
+	public List<Node> findNegativeCycle(int startNodeID) {
+		return toNodeList(freeze().findNegativeCycle(startNodeID));
+	}
+
+	/**
+	 * Calculates the shortest paths from startNode to all Nodes in the Graph
+	 * with the edge centric, parallel Bellman-Ford of ParallelBellmanFord.
+	 * The distances are the same as the ones of populateBellmanFordFrom(),
+	 * they are stored in the distance and predecessor fields of the nodes.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param parallelism
+	 *            number of threads to use
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public void populateParallelBellmanFordFrom(int startNodeID, int parallelism) {
+		CsrGraph g = freeze();
+		ParallelBellmanFord engine = new ParallelBellmanFord(g, parallelism);
+		try {
+			int[] predecessors = new int[g.getNodeCount()];
+			double[] distance = engine.populateBellmanFordFrom(startNodeID, predecessors);
+			writeToNodes(distance, predecessors);
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Calculates the shortest paths from startNode to all Nodes in the Graph
+	 * with the parallel delta-stepping algorithm of DeltaStepping. All edge
+	 * weights have to be non-negative. The distances are the same as the
+	 * ones of Dijkstra's algorithm, they are stored in the distance and
+	 * predecessor fields of the nodes.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param parallelism
+	 *            number of threads to use
+	 */
+	public void populateDeltaSteppingFrom(int startNodeID, int parallelism) {
+		CsrGraph g = freeze();
+		DeltaStepping engine = new DeltaStepping(g, parallelism);
+		try {
+			int[] predecessors = new int[g.getNodeCount()];
+			double[] distance = engine.populateDeltaSteppingFrom(startNodeID, predecessors);
+			writeToNodes(distance, predecessors);
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Calculates the distances from every source to every target with one
+	 * early stopping Dijkstra search per source, see DistanceTable. The
+	 * fields of the nodes are not changed. The engine, its pool and the
+	 * search workspaces of its threads are kept for the next call as long as
+	 * the graph and the parallelism stay the same; concurrent calls are
+	 * answered one after the other.
+	 *
+	 * @param sources
+	 *            the indices of the source nodes
+	 * @param targets
+	 *            the indices of the target nodes
+	 * @param parallelism
+	 *            number of threads to use
+	 * @return table with one row per source and one column per target,
+	 *         infinity where a target is not reachable
+	 */
+	public double[][] distanceTable(int[] sources, int[] targets, int parallelism) {
+		CsrGraph g = freeze();
+		synchronized (distanceTableLock) {
+			if (distanceTable == null || distanceTable.getGraph() != g || distanceTable.getParallelism() != parallelism) {
+				if (distanceTable != null) {
+					distanceTable.shutdown();
+				}
+				distanceTable = new DistanceTable(g, parallelism);
+			}
+			return distanceTable.distanceTable(sources, targets);
+		}
+	}
+
+	/**
+	 * Calculates the k shortest loopless paths from start node to target node
+	 * with Yen's algorithm, see KShortestPaths. The fields of the nodes are
+	 * not changed. The engine, its pool and the search workspaces of its
+	 * threads are kept for the next call as long as the graph and the
+	 * parallelism stay the same; concurrent calls are answered one after the
+	 * other.
+	 *
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param targetNodeID
+	 *            the index of the target node, as returned by addNode().id.
+	 * @param k
+	 *            number of paths wanted
+	 * @param parallelism
+	 *            number of threads to use for the spur searches
+	 * @return the paths in the order of their length, fewer than k if there
+	 *         are no more loopless paths
+	 */
+	public List<List<Node>> getKShortestPathsDijkstra(int startNodeID, int targetNodeID, int k, int parallelism) {
+		CsrGraph g = freeze();
+		int[][] found;
+		synchronized (kShortestPathsLock) {
+			if (kShortestPaths == null || kShortestPaths.getGraph() != g || kShortestPaths.getParallelism() != parallelism) {
+				if (kShortestPaths != null) {
+					kShortestPaths.shutdown();
+				}
+				kShortestPaths = new KShortestPaths(g, parallelism);
+			}
+			found = kShortestPaths.findPaths(startNodeID, targetNodeID, k, null);
+		}
+		List<List<Node>> paths = new ArrayList<List<Node>>();
+		for (int[] path : found) {
+			paths.add(toNodeList(path));
+		}
+		return paths;
+	}
+
+	/**
+	 * Calculates the distances between all pairs of nodes with Johnson's
+	 * algorithm, see Johnson. Edge weights may be negative. The fields of the
+	 * nodes are not changed.
+	 * 
+	 * @param parallelism
+	 *            number of threads to use
+	 * @return the distance from node u to node v at index u * n + v, infinity
+	 *         if v is not reachable from u
+	 * @throws RuntimeException
+	 *             if the graph contains a negative cycle
+	 */
+	public double[] allPairsJohnson(int parallelism) {
+		Johnson engine = new Johnson(freeze(), parallelism);
+		try {
+			return engine.allPairs();
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Copies the result of an array based search into the distance and
+	 * predecessor fields of the nodes.
+	 * 
+	 * @param distance
+	 *            distance of every node, indexed by id
+	 * @param predecessors
+	 *            predecessor id of every node, -1 if there is none
+	 */
+	void writeToNodes(double[] distance, int[] predecessors) {
+		for (Node n : nodes.values()) {
+			n.distance = distance[n.id];
+			n.predecessor = predecessors[n.id] == -1 ? null : nodes.get(predecessors[n.id]);
+		}
+	}
+
+
 	@Override
 	public List<Node> getShortestPathDijkstra(int startNodeID, int targetNodeID) {
 		return getShortestPathDijkstra(nodes.get(startNodeID), nodes.get(targetNodeID));
@@ -432,19 +742,168 @@ List<Node> distanceQueue = new LinkedList<Node>();
 	 * start node to target node. The Dijkstra-Algorithmn is used for
 	 * calculation.
 	 * 
+	 * A bidirectional search is run on the frozen copy of the graph, so only
+	 * the nodes around start and target are settled. The Node fields
+	 * distance and predecessor are not changed and every thread uses its own
+	 * search engine, so several threads may query at the same time.
+	 * 
 	 * @param targetNodeIndex
 	 *            the index of the target node, as returned by addNode()
 	 * @return the list of nodes, or null if no path exists
 	 */
 	@Override
 	public List<Node> getShortestPathDijkstra(Node startNode, Node targetNode) {
+		if (startNode == null || targetNode == null) {
+			return null;
+		}
 
+		ShortestPathCache cache = queryCache;
+		if (cache != null) {
+			return cache.getShortestPath(startNode.id, targetNode.id);
+		}
+		return toNodeList(bidirectionalEngine().findPath(startNode.id, targetNode.id));
+	}
 
-		//This line stops program execution until a key is pressed
-		stopExecutionUntilSignal();
+	/**
+	 * @return the point-to-point engine of the calling thread for the current
+	 *         state of the graph
+	 */
+	BidirectionalDijkstra bidirectionalEngine() {
+		CsrGraph g = freeze();
+		BidirectionalDijkstra engine = bidirectionalDijkstra.get();
+		if (engine == null || engine.getGraph() != g) {
+			engine = new BidirectionalDijkstra(g);
+			bidirectionalDijkstra.set(engine);
+		}
+		return engine;
+	}
 
-		//Return an empty list. Replace this line by the shortest path!
+	/**
+	 * Selects landmarks for getShortestPathALT() and calculates their
+	 * distances. They stay valid until the graph is changed.
+	 * 
+	 * @param count
+	 *            number of landmarks, 8 to 16 work well for road networks
+	 * @return the landmarks
+	 */
+	public Landmarks computeLandmarks(int count) {
+		return new Landmarks(freeze(), count);
+	}
+
+	/**
+	 * Calculates the shortest path from start node to target node with A*,
+	 * using the lower bounds of the landmarks as heuristic. As
+	 * getShortestPathDijkstra(), the Node fields are not changed and several
+	 * threads may query at the same time.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param targetNodeID
+	 *            the index of the target node, as returned by addNode().id.
+	 * @param landmarks
+	 *            landmarks of the current state of the graph, from
+	 *            computeLandmarks() or GraphIO.loadLandmarks(freeze(), ...)
+	 * @return the list of nodes, or null if no path exists
+	 * @throws IllegalArgumentException
+	 *             if the graph was changed since the landmarks were calculated
+	 */
+	public List<Node> getShortestPathALT(int startNodeID, int targetNodeID, Landmarks landmarks) {
+		if (landmarks.getGraph() != freeze()) {
+			throw new IllegalArgumentException("the landmarks belong to another state of the graph");
+		}
+		AltSearch engine = altSearch.get();
+		if (engine == null || engine.getLandmarks() != landmarks) {
+			engine = new AltSearch(landmarks);
+			altSearch.set(engine);
+		}
+		return toNodeList(engine.findPath(startNodeID, targetNodeID));
+	}
+
+	/**
+	 * Puts a cache in front of getShortestPathDijkstra(), so that repeated
+	 * queries for the same pair of nodes are answered without a search. The
+	 * cache is emptied automatically whenever the graph changes.
+	 * 
+	 * @param maxCachedNodes
+	 *            how many nodes all cached paths may have together
+	 * @return the new cache, for its hit and miss counters
+	 */
+	public ShortestPathCache enableQueryCache(int maxCachedNodes) {
+		ShortestPathCache cache = new ShortestPathCache(this, maxCachedNodes);
+		queryCache = cache;
+		return cache;
+	}
+
+	/**
+	 * Removes the cache of getShortestPathDijkstra(), every query runs a
+	 * search again.
+	 */
+	public void disableQueryCache() {
+		queryCache = null;
+	}
+
+	/**
+	 * @return the cache of getShortestPathDijkstra(), or null if it is
+	 *         disabled
+	 */
+	public ShortestPathCache getQueryCache() {
+		return queryCache;
+	}
+
+	/**
+	 * Calculates the shortest paths from startNode to all Nodes in the Graph
+	 * with Dijkstra's algorithm. In contrast to populateDijkstraFrom() the
+	 * Node fields are not changed: the result is returned as a separate
+	 * object, so several threads may run searches on one graph at the same
+	 * time.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @return distances and predecessors of all nodes
+	 */
+	public ShortestPathTree getShortestPathTreeDijkstra(int startNodeID) {
+		return freeze().shortestPathTreeDijkstra(startNodeID);
+	}
+
+	/**
+	 * Calculates the shortest paths from startNode to all Nodes in the Graph
+	 * with the queue based Bellman-Ford. In contrast to
+	 * populateBellmanFordFrom() the Node fields are not changed: the result is
+	 * returned as a separate object, so several threads may run searches on
+	 * one graph at the same time.
+	 * 
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @return distances and predecessors of all nodes
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public ShortestPathTree getShortestPathTreeBellmanFord(int startNodeID) {
+		return freeze().shortestPathTreeBellmanFord(startNodeID);
+	}
+
+	/**
+	 * Extracts the path to the target node from a search result.
+	 * 
+	 * @param tree
+	 *            the result of a search on this graph
+	 * @param targetNodeID
+	 *            the index of the target node, as returned by addNode().id.
+	 * @return the list of nodes, or null if no path exists
+	 */
+	public List<Node> getPath(ShortestPathTree tree, int targetNodeID) {
+		return toNodeList(tree.getPathTo(targetNodeID));
+	}
+
+	// the nodes to the ids of a path, null for no path
+	List<Node> toNodeList(int[] path) {
+		if (path == null) {
+			return null;
+		}
 		LinkedList<Node> l = new LinkedList<Node>();
+		for (int id : path) {
+			l.add(nodes.get(id));
+		}
 		return l;
 	}
 
@@ -540,6 +999,11 @@ List<Node> distanceQueue = new LinkedList<Node>();
 	// synchronization variable used to stop and resume processing
 	private boolean isStopped = false;
 
+	// receives the steps of the algorithms, does nothing by default
+	private StepListener stepListener = StepListener.NONE;
+	// receives the color changes for the visualization
+	private StepListener colorListener = StepListener.NONE;
+
 	/**
 	 * Tests if the current execution of a graph-algorithm was stopped
 	 * @return true if the processing is stopped, false otherwise. 
@@ -556,40 +1020,85 @@ List<Node> distanceQueue = new LinkedList<Node>();
 	@Override
 	synchronized public void setStopped(boolean status) {
 		this.isStopped = status;
+		notifyAll();
+	}
+
+	/**
+	 * Sets the listener that receives the steps of the algorithms, e.g. a
+	 * TraceRecorder.
+	 * @param listener the listener, null for none
+	 */
+	public void setStepListener(StepListener listener) {
+		this.stepListener = listener == null ? StepListener.NONE : listener;
 	}
 
 	/**
-	 * Stops the execution of an algorithm until the visualization signals that
-	 * he can be resumed. This feature can be used to visualize the steps of the
+	 * @return the listener that receives the steps of the algorithms
+	 */
+	public StepListener getStepListener() {
+		return stepListener;
+	}
+
+	@Override
+	public void setColorListener(StepListener listener) {
+		this.colorListener = listener == null ? StepListener.NONE : listener;
+	}
+
+	/**
+	 * Sets the color of a node and reports it to the listeners.
+	 * @param node the node
+	 * @param status the new color
+	 */
+	private void setStatus(Node node, int status) {
+		node.status = status;
+		stepListener.nodeColored(node.id, status);
+		colorListener.nodeColored(node.id, status);
+	}
+
+	/**
+	 * Sets the color of an edge and reports it to the listeners.
+	 * @param startNode the node the edge starts at
+	 * @param edge the edge
+	 * @param status the new color
+	 */
+	private void setStatus(Node startNode, Edge edge, int status) {
+		edge.status = status;
+		stepListener.edgeColored(startNode.id, edge.endnode.id, status);
+		colorListener.edgeColored(startNode.id, edge.endnode.id, status);
+	}
+
+	/**
+	 * Reports the end of a step to the step listener. If showSteps is set,
+	 * the execution then waits until the visualization signals that it can
+	 * be resumed. This feature can be used to visualize the steps of the
 	 * algorithms.
 	 */
 	private void stopExecutionUntilSignal() {
+		stepListener.step();
 		if (showSteps) {
-			System.out.print(".");
-			this.setStopped(true);
-			while (this.isStopped()) {
-				this.sleep(100);
-			}
+			waitForSignal();
 		}
 	}
 
-	/**
-	 * Stops the execution for a given time
-	 * 
-	 * @param milliseconds
-	 *            time the execution will stop in milliseconds
-	 */
-	private void sleep(int milliseconds) {
-		try {
-			Thread.sleep(milliseconds);
-		} catch (InterruptedException e) {
-			// the VM doesn't want us to sleep anymore,
-			// so get back to work
+	// blocks until setStopped(false) is called
+	private synchronized void waitForSignal() {
+		System.out.print(".");
+		this.isStopped = true;
+		while (this.isStopped) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// stop waiting, but keep the interrupt for the caller
+				Thread.currentThread().interrupt();
+				this.isStopped = false;
+			}
 		}
 	}
 
 	/**
-	 * Sets the showSteps flag.
+	 * Sets the showSteps flag. If it is set, the algorithms wait after every
+	 * step until the visualization signals that they can go on. It is not
+	 * set by default.
 	 * @param show the flag
 	 */
 	@Override
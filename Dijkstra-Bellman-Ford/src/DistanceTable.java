@@ -0,0 +1,249 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Many-to-many shortest path distances between a set of sources and a set of
+ * targets.
+ *
+ * Every source gets its own Dijkstra search, the searches of different
+ * sources run in parallel on a ForkJoinPool. A search stops as soon as all
+ * targets are settled, so for targets close to the sources only a small part
+ * of the graph is explored. Each worker thread keeps one workspace that is
+ * reused for all of its searches; only the entries touched by the previous
+ * search are reset.
+ *
+ * All edge weights have to be non-negative. The distances equal the ones of
+ * CsrGraph.populateDijkstraFrom().
+ */
+public class DistanceTable {
+
+	/** sources per task below which a range is not split any further */
+	private static final int MIN_CHUNK = 4;
+
+	private final CsrGraph graph;
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+	private final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace(graph.getNodeCount());
+		}
+	};
+
+	/**
+	 * Creates an engine that runs on its own pool.
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 * @param parallelism
+	 *            number of worker threads
+	 */
+	public DistanceTable(CsrGraph graph, int parallelism) {
+		this(graph, new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates an engine that runs on the given pool.
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 * @param pool
+	 *            the pool to run the searches on
+	 */
+	public DistanceTable(CsrGraph graph, ForkJoinPool pool) {
+		this(graph, pool, false);
+	}
+
+	private DistanceTable(CsrGraph graph, ForkJoinPool pool, boolean ownsPool) {
+		this.graph = graph;
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	/**
+	 * Calculates the distance from every source to every target.
+	 *
+	 * @param sources
+	 *            ids of the source nodes
+	 * @param targets
+	 *            ids of the target nodes, may contain duplicates
+	 * @return table with one row per source and one column per target,
+	 *         infinity where a target is not reachable
+	 */
+	public double[][] distanceTable(int[] sources, int[] targets) {
+		double[][] table = new double[sources.length][targets.length];
+		pool.invoke(new Rows(sources, targets, table, 0, sources.length));
+		return table;
+	}
+
+	/**
+	 * Calculates the distance from every source to every target into one
+	 * flat array.
+	 *
+	 * @param sources
+	 *            ids of the source nodes
+	 * @param targets
+	 *            ids of the target nodes, may contain duplicates
+	 * @return the distance from sources[i] to targets[j] at index
+	 *         i * targets.length + j, infinity where a target is not reachable
+	 */
+	public double[] flatDistanceTable(int[] sources, int[] targets) {
+		double[][] table = distanceTable(sources, targets);
+		double[] flat = new double[sources.length * targets.length];
+		for (int i = 0; i < sources.length; i++) {
+			System.arraycopy(table[i], 0, flat, i * targets.length, targets.length);
+		}
+		return flat;
+	}
+
+	/**
+	 * Calculates one row of a table with the workspace of the calling thread.
+	 *
+	 * @param source
+	 *            id of the source node
+	 * @param targets
+	 *            ids of the target nodes
+	 * @param row
+	 *            receives the distance to every target
+	 */
+	void searchRow(int source, int[] targets, double[] row) {
+		workspaces.get().search(graph, source, targets, row);
+	}
+
+	/** Fills the rows from begin to end of the table, split into subtasks. */
+	private class Rows extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int[] sources;
+		private final int[] targets;
+		private final double[][] table;
+		private final int begin;
+		private final int end;
+
+		Rows(int[] sources, int[] targets, double[][] table, int begin, int end) {
+			this.sources = sources;
+			this.targets = targets;
+			this.table = table;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin > MIN_CHUNK) {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new Rows(sources, targets, table, begin, middle),
+						new Rows(sources, targets, table, middle, end));
+				return;
+			}
+			for (int i = begin; i < end; i++) {
+				searchRow(sources[i], targets, table[i]);
+			}
+		}
+	}
+
+	/** Distances, queue and target marks of one thread. */
+	private static class Workspace {
+		private final double[] distance;
+		private final IndexMinPQ<Double> queue;
+		/** search number for which a node is a target that is not settled yet */
+		private final int[] targetStamp;
+		private int stamp;
+
+		/** nodes with a finite distance, to reset them */
+		private int[] touched = new int[16];
+		private int touchedCount;
+
+		Workspace(int nodeCount) {
+			distance = new double[nodeCount];
+			Arrays.fill(distance, Double.POSITIVE_INFINITY);
+			queue = new IndexMinPQ<Double>(nodeCount);
+			targetStamp = new int[nodeCount];
+		}
+
+		void search(CsrGraph graph, int start, int[] targets, double[] row) {
+			stamp++;
+			int open = 0;
+			for (int t : targets) {
+				if (targetStamp[t] != stamp) {
+					targetStamp[t] = stamp;
+					open++;
+				}
+			}
+
+			distance[start] = 0.0;
+			touch(start);
+			queue.insert(start, 0.0);
+			while (open > 0 && !queue.isEmpty()) {
+				int v = queue.delMin();
+				if (targetStamp[v] == stamp) {
+					// the last target settled ends the search
+					targetStamp[v] = 0;
+					open--;
+				}
+				for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+					int w = graph.targets[e];
+					double d = distance[v] + graph.weights[e];
+					if (d < distance[w]) {
+						if (distance[w] == Double.POSITIVE_INFINITY) {
+							touch(w);
+							queue.insert(w, d);
+						} else {
+							queue.decreaseKey(w, d);
+						}
+						distance[w] = d;
+					}
+				}
+			}
+
+			for (int j = 0; j < targets.length; j++) {
+				row[j] = distance[targets[j]];
+			}
+			reset();
+		}
+
+		private void touch(int v) {
+			if (touchedCount == touched.length) {
+				touched = Arrays.copyOf(touched, 2 * touchedCount);
+			}
+			touched[touchedCount++] = v;
+		}
+
+		// restores the state of a fresh workspace for the touched nodes only
+		private void reset() {
+			for (int i = 0; i < touchedCount; i++) {
+				int v = touched[i];
+				distance[v] = Double.POSITIVE_INFINITY;
+				if (queue.contains(v)) {
+					queue.delete(v);
+				}
+			}
+			touchedCount = 0;
+		}
+	}
+
+	/**
+	 * @return the graph this engine searches
+	 */
+	public CsrGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return number of worker threads of the pool of this engine
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Shuts down the pool of the engine if it was created by the engine. A
+	 * pool passed in by the caller is left running.
+	 */
+	public void shutdown() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,281 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Shortest paths from one fixed source that are kept up to date while edges
+ * are added or get cheaper, in the style of Ramalingam and Reps.
+ *
+ * A new edge u->v, or a lower weight of it, can only shorten paths that use
+ * it. If dist(u) + w is not smaller than dist(v), nothing changes at all.
+ * Otherwise v gets its new distance and a Dijkstra search starts from v that
+ * only follows edges whose relaxation improves a distance. Exactly the nodes
+ * whose distance drops are visited, so a repair costs time proportional to
+ * the changed part of the shortest path tree and its outgoing edges, not to
+ * the size of the graph.
+ *
+ * Changes have to be made through addEdge() and decreaseWeight() of this
+ * class. If the graph is changed in any other way, for instance a weight is
+ * raised, the next query recomputes everything from scratch. All weights
+ * have to be non-negative. An instance must not be used by several threads
+ * at once.
+ */
+public class DynamicDijkstra {
+
+	private final DiGraph graph;
+	private final int sourceNodeID;
+
+	// distance, parent and queue have room for more nodes than nodeCount
+	private double[] distance;
+	private int[] parent;
+	private IndexMinPQ<Double> queue;
+	private int nodeCount;
+
+	/** modification count of the graph the distances belong to */
+	private int modCount;
+	/** nodes whose distance changed in the last update */
+	private int updateCount;
+
+	/**
+	 * Computes the shortest paths from the source with Dijkstra's algorithm.
+	 *
+	 * @param graph
+	 *            the graph, all edge weights have to be non-negative
+	 * @param sourceNodeID
+	 *            the index of the source node, as returned by addNode().id.
+	 * @throws IllegalArgumentException
+	 *             if there is a negative edge weight
+	 */
+	public DynamicDijkstra(DiGraph graph, int sourceNodeID) {
+		this.graph = graph;
+		this.sourceNodeID = sourceNodeID;
+		recompute();
+	}
+
+	/**
+	 * Computes all distances from scratch. This is done automatically when
+	 * the graph was changed without this class.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if there is a negative edge weight
+	 */
+	public void recompute() {
+		CsrGraph g = graph.freeze();
+		for (double w : g.weights) {
+			if (w < 0) {
+				throw new IllegalArgumentException("Dijkstra needs non-negative edge weights");
+			}
+		}
+		int n = g.getNodeCount();
+		parent = new int[n];
+		distance = g.populateDijkstraFrom(sourceNodeID, parent);
+		queue = new IndexMinPQ<Double>(Math.max(1, n));
+		nodeCount = n;
+		modCount = graph.getModificationCount();
+		updateCount = n;
+	}
+
+	/**
+	 * Adds a node to the graph. It is unreachable until an edge leads to it.
+	 * The arrays grow by half their size when they are full, so adding many
+	 * nodes one by one takes amortized constant time per node.
+	 *
+	 * @return the added node
+	 */
+	public Node addNode() {
+		validate();
+		Node node = graph.addNode();
+		if (nodeCount == distance.length) {
+			int capacity = Math.max(nodeCount + 1, nodeCount + (nodeCount >> 1));
+			distance = Arrays.copyOf(distance, capacity);
+			parent = Arrays.copyOf(parent, capacity);
+			// the queue is empty between updates
+			queue = new IndexMinPQ<Double>(capacity);
+		}
+		distance[nodeCount] = Double.POSITIVE_INFINITY;
+		parent[nodeCount] = -1;
+		nodeCount++;
+		modCount = graph.getModificationCount();
+		return node;
+	}
+
+	/**
+	 * Adds an edge to the graph and repairs the shortest paths that get
+	 * shorter through it.
+	 *
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param targetNodeID
+	 *            the index of the target node, as returned by addNode().id.
+	 * @param weight
+	 *            a non-negative weight
+	 * @throws IllegalArgumentException
+	 *             if one of the nodes does not exist
+	 */
+	public void addEdge(int startNodeID, int targetNodeID, double weight) {
+		checkWeight(weight);
+		validate();
+		if (!graph.nodes.containsKey(startNodeID) || !graph.nodes.containsKey(targetNodeID)) {
+			throw new IllegalArgumentException("there is no node " + startNodeID + " or " + targetNodeID);
+		}
+		graph.addEdge(startNodeID, targetNodeID, weight);
+		modCount = graph.getModificationCount();
+		repair(startNodeID, targetNodeID, weight);
+	}
+
+	/**
+	 * Lowers the weight of an existing edge and repairs the shortest paths
+	 * that get shorter through it.
+	 *
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param targetNodeID
+	 *            the index of the target node, as returned by addNode().id.
+	 * @param weight
+	 *            the new weight, non-negative and not larger than the old one
+	 * @throws IllegalArgumentException
+	 *             if there is no such edge or the weight would increase
+	 */
+	public void decreaseWeight(int startNodeID, int targetNodeID, double weight) {
+		checkWeight(weight);
+		validate();
+		// WEIGHT_NO_EDGE is 0, so look at the edge itself
+		Node start = graph.nodes.get(startNodeID);
+		Edge edge = null;
+		if (start != null) {
+			for (Edge e : start.edges) {
+				if (e.endnode.id == targetNodeID) {
+					edge = e;
+					break;
+				}
+			}
+		}
+		if (edge == null) {
+			throw new IllegalArgumentException("there is no edge " + startNodeID + "->" + targetNodeID);
+		}
+		if (weight > edge.weight) {
+			throw new IllegalArgumentException("the weight of " + startNodeID + "->" + targetNodeID
+					+ " would increase from " + edge.weight + " to " + weight);
+		}
+		graph.setWeight(startNodeID, targetNodeID, weight);
+		modCount = graph.getModificationCount();
+		repair(startNodeID, targetNodeID, weight);
+	}
+
+	private static void checkWeight(double weight) {
+		if (!(weight >= 0)) {
+			throw new IllegalArgumentException("Dijkstra needs non-negative edge weights");
+		}
+	}
+
+	// the arrays are longer than the number of nodes
+	private void checkNode(int nodeID) {
+		if (nodeID < 0 || nodeID >= nodeCount) {
+			throw new ArrayIndexOutOfBoundsException(nodeID);
+		}
+	}
+
+	// recomputes if the graph was changed behind our back
+	private void validate() {
+		if (modCount != graph.getModificationCount()) {
+			recompute();
+		}
+	}
+
+	// Dijkstra search from the target of the cheaper edge over the improved nodes only
+	private void repair(int u, int v, double weight) {
+		updateCount = 0;
+		double d = distance[u] + weight;
+		if (!(d < distance[v])) {
+			return;
+		}
+		distance[v] = d;
+		parent[v] = u;
+		queue.insert(v, d);
+
+		while (!queue.isEmpty()) {
+			int x = queue.delMin();
+			updateCount++;
+			for (Edge e : graph.nodes.get(x).edges) {
+				int y = e.endnode.id;
+				double dy = distance[x] + e.weight;
+				if (dy < distance[y]) {
+					distance[y] = dy;
+					parent[y] = x;
+					if (queue.contains(y)) {
+						queue.decreaseKey(y, dy);
+					} else {
+						queue.insert(y, dy);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the index of the source node
+	 */
+	public int getSourceNodeID() {
+		return sourceNodeID;
+	}
+
+	/**
+	 * @param nodeID
+	 *            the index of a node
+	 * @return length of the shortest path from the source, infinity if the
+	 *         node is not reachable
+	 */
+	public double getDistance(int nodeID) {
+		validate();
+		checkNode(nodeID);
+		return distance[nodeID];
+	}
+
+	/**
+	 * @param nodeID
+	 *            the index of a node
+	 * @return the predecessor of the node on its shortest path, -1 for the
+	 *         source and unreachable nodes
+	 */
+	public int getParent(int nodeID) {
+		validate();
+		checkNode(nodeID);
+		return parent[nodeID];
+	}
+
+	/**
+	 * @param targetNodeID
+	 *            the index of the target node
+	 * @return the list of nodes from the source to the target, or null if no
+	 *         path exists
+	 */
+	public List<Node> getShortestPath(int targetNodeID) {
+		validate();
+		checkNode(targetNodeID);
+		if (distance[targetNodeID] == Double.POSITIVE_INFINITY) {
+			return null;
+		}
+		LinkedList<Node> path = new LinkedList<Node>();
+		for (int v = targetNodeID; v != -1; v = parent[v]) {
+			path.addFirst(graph.nodes.get(v));
+		}
+		return path;
+	}
+
+	/**
+	 * @return a copy of the current distances and parents, which is not
+	 *         changed by later updates
+	 */
+	public ShortestPathTree toShortestPathTree() {
+		validate();
+		return new ShortestPathTree(sourceNodeID, Arrays.copyOf(distance, nodeCount), Arrays.copyOf(parent, nodeCount));
+	}
+
+	/**
+	 * @return number of nodes whose distance changed in the last update, the
+	 *         number of all nodes after a full recomputation
+	 */
+	public int getUpdateCount() {
+		return updateCount;
+	}
+}
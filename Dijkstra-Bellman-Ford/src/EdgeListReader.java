@@ -0,0 +1,272 @@
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the numbers of a sparse edge list file.
+ *
+ * The file starts with the number of nodes, followed by one edge per line:
+ * the id of the start node, the id of the end node and the weight, separated
+ * by blanks or tabs. Everything from a '#' to the end of the line is a
+ * comment. The reader only splits the file into numbers; hasNextOnLine()
+ * tells whether the current line has more of them.
+ *
+ * <pre>
+ * 4
+ * 0 1 2
+ * 1 3 0.5
+ * # comment
+ * 2 3 -1
+ * </pre>
+ *
+ * The bytes are read from a FileChannel into one reused buffer and the
+ * numbers are parsed straight from there, so no Strings or boxed values are
+ * created per number.
+ */
+public class EdgeListReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** the powers of ten that are exact doubles */
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+		}
+	}
+
+	private final String filename;
+	private final FileChannel channel;
+	private final byte[] bytes = new byte[BUFFER_SIZE];
+	private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+	/** next unread byte and end of the valid bytes in the buffer */
+	private int position;
+	private int limit;
+	private int line = 1;
+
+	/** characters of a number that is too long for the fast path */
+	private final StringBuilder slowNumber = new StringBuilder();
+
+	/**
+	 * Opens the file for reading.
+	 *
+	 * @param filename
+	 *            URL to file
+	 * @throws IOException
+	 *             if the file can not be opened
+	 */
+	public EdgeListReader(String filename) throws IOException {
+		this.filename = filename;
+		this.channel = new FileInputStream(filename).getChannel();
+	}
+
+	/**
+	 * Skips blanks, line breaks and comments.
+	 *
+	 * @return true if there is another number in the file
+	 * @throws IOException
+	 */
+	public boolean hasNext() throws IOException {
+		while (true) {
+			int c = peek();
+			if (c == -1) {
+				return false;
+			} else if (c == '#') {
+				while (c != -1 && c != '\n') {
+					position++;
+					c = peek();
+				}
+			} else if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+				if (c == '\n') {
+					line++;
+				}
+				position++;
+			} else {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Skips blanks, but no line breaks.
+	 *
+	 * @return true if there is another number in the current line
+	 * @throws IOException
+	 */
+	public boolean hasNextOnLine() throws IOException {
+		int c = peek();
+		while (c == ' ' || c == '\t' || c == '\r') {
+			position++;
+			c = peek();
+		}
+		return c != -1 && c != '\n' && c != '#';
+	}
+
+	/**
+	 * Reads the next number, which has to be an integer.
+	 *
+	 * @return the number
+	 * @throws IOException
+	 *             if there is no next number or it is not an integer
+	 */
+	public int nextInt() throws IOException {
+		if (!hasNext()) {
+			throw error("unexpected end of file");
+		}
+		boolean negative = peek() == '-';
+		if (negative) {
+			position++;
+		}
+		long value = 0;
+		int digits = 0;
+		int c = peek();
+		while (c >= '0' && c <= '9') {
+			value = 10 * value + (c - '0');
+			if (value > Integer.MAX_VALUE + 1L) {
+				throw error("number too large");
+			}
+			digits++;
+			position++;
+			c = peek();
+		}
+		if (digits == 0 || !isSeparator(c)) {
+			throw error("integer expected");
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			throw error("number too large");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads the next number, with an optional fraction and exponent.
+	 *
+	 * @return the number
+	 * @throws IOException
+	 *             if there is no next number or it is malformed
+	 */
+	public double nextDouble() throws IOException {
+		if (!hasNext()) {
+			throw error("unexpected end of file");
+		}
+		slowNumber.setLength(0);
+		boolean negative = peek() == '-';
+		if (negative || peek() == '+') {
+			slowNumber.append((char) bytes[position++]);
+		}
+
+		// decimal digits in mantissa, the value is mantissa * 10^scale
+		long mantissa = 0;
+		int mantissaDigits = 0;
+		int scale = 0;
+		int digits = 0;
+		int c = peek();
+		while (c >= '0' && c <= '9') {
+			mantissaDigits = appendDigit(c, mantissaDigits);
+			mantissa = mantissaDigits <= 18 ? 10 * mantissa + (c - '0') : mantissa;
+			digits++;
+			c = peek();
+		}
+		if (c == '.') {
+			slowNumber.append((char) bytes[position++]);
+			c = peek();
+			while (c >= '0' && c <= '9') {
+				mantissaDigits = appendDigit(c, mantissaDigits);
+				mantissa = mantissaDigits <= 18 ? 10 * mantissa + (c - '0') : mantissa;
+				scale--;
+				digits++;
+				c = peek();
+			}
+		}
+		if (digits == 0) {
+			throw error("number expected");
+		}
+		if (c == 'e' || c == 'E') {
+			slowNumber.append((char) bytes[position++]);
+			boolean negativeExponent = peek() == '-';
+			if (negativeExponent || peek() == '+') {
+				slowNumber.append((char) bytes[position++]);
+			}
+			int exponent = 0;
+			int exponentDigits = 0;
+			c = peek();
+			while (c >= '0' && c <= '9') {
+				slowNumber.append((char) bytes[position++]);
+				exponent = Math.min(10 * exponent + (c - '0'), 100000);
+				exponentDigits++;
+				c = peek();
+			}
+			if (exponentDigits == 0) {
+				throw error("exponent expected");
+			}
+			scale += negativeExponent ? -exponent : exponent;
+		}
+		if (!isSeparator(c)) {
+			throw error("number expected");
+		}
+
+		// mantissa and power of ten are exact doubles, so one division or
+		// multiplication rounds correctly; anything else is left to the JDK
+		if (mantissaDigits <= 15 && scale >= -22 && scale <= 22) {
+			double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+			return negative ? -value : value;
+		}
+		return Double.parseDouble(slowNumber.toString());
+	}
+
+	// consumes a digit; leading zeros do not count as digits of the mantissa
+	private int appendDigit(int c, int mantissaDigits) {
+		slowNumber.append((char) bytes[position++]);
+		return mantissaDigits == 0 && c == '0' ? 0 : mantissaDigits + 1;
+	}
+
+	/**
+	 * @return the line the reader is in, starting at 1
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Creates an exception that names the file and the current line.
+	 *
+	 * @param message
+	 *            what is wrong
+	 * @return the exception to throw
+	 */
+	public IOException error(String message) {
+		return new IOException(filename + ":" + line + ": " + message);
+	}
+
+	private boolean isSeparator(int c) {
+		return c == -1 || c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '#';
+	}
+
+	// the next byte as 0 to 255 without consuming it, -1 at the end of the file
+	private int peek() throws IOException {
+		if (position == limit) {
+			return fill();
+		}
+		return bytes[position] & 0xFF;
+	}
+
+	private int fill() throws IOException {
+		buffer.clear();
+		int read;
+		do {
+			read = channel.read(buffer);
+		} while (read == 0);
+		position = 0;
+		limit = Math.max(read, 0);
+		return read == -1 ? -1 : bytes[0] & 0xFF;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -266,6 +266,23 @@ public interface Graph {
 	 */
 	public void setShowSteps(boolean show);
 
+	/**
+	 * Returns a counter that changes with every change of the nodes, edges
+	 * or weights. The visualization redraws everything only when it changes.
+	 * 
+	 * @return the modification counter
+	 */
+	public int getModificationCount();
+
+	/**
+	 * Sets the listener the visualization learns about changed colors from.
+	 * It is called in addition to the listener of setStepListener(), only
+	 * its nodeColored() and edgeColored() methods are used.
+	 * 
+	 * @param listener the listener, null for none
+	 */
+	public void setColorListener(StepListener listener);
+
 	/**
 	 * travels randomly in the graph.
 	 * used to demonstrate visualization class
@@ -2,10 +2,30 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.List;
 
 public class GraphIO{
 
+	/** first four bytes of a binary graph file, "CSRG" */
+	static final int BINARY_MAGIC = 0x43535247;
+	/** version of the binary format written by saveBinaryGraph() */
+	static final int BINARY_VERSION = 1;
+	/** magic, version, node count and edge count */
+	private static final int BINARY_HEADER_BYTES = 16;
+	/** largest part of a file that is mapped at once */
+	private static final int MAX_MAPPED_BYTES = 1 << 30;
+	/** first four bytes of a landmark file, "ALTL" */
+	static final int LANDMARK_MAGIC = 0x414c544c;
+	/** version of the landmark format written by saveLandmarks() */
+	static final int LANDMARK_VERSION = 1;
+	/** magic, version, node count, edge count and landmark count */
+	private static final int LANDMARK_HEADER_BYTES = 20;
 
 /**
 	 * loads a Graph from given file
@@ -58,6 +78,153 @@ public static DiGraph loadGraph(String filename) throws IOException {
 		return m;
 	}
 
+	/**
+	 * loads a Graph from given file directly into a CsrGraph, without
+	 * creating Node and Edge objects
+	 * 
+	 * @param filename
+	 *            URL to file, same format as for loadGraph()
+	 * @return the frozen graph stored in file
+	 * @throws IOException
+	 */
+	public static CsrGraph loadCsrGraph(String filename) throws IOException {
+		BufferedReader br = new BufferedReader(new FileReader(filename));
+
+		int cNodes = Integer.parseInt(br.readLine().trim());
+		int[] offsets = new int[cNodes + 1];
+		int[] targets = new int[cNodes];
+		double[] weights = new double[cNodes];
+		int cEdges = 0;
+
+		// the rows of the adjacency matrix are already ordered by start node
+		int currNode = 0;
+		String line = br.readLine();
+		while (line != null && currNode < cNodes) {
+			String[] lineAsArray = line.split(" ");
+			for (int i = 0; i < lineAsArray.length; i++) {
+				int weight = Integer.parseInt(lineAsArray[i]);
+				if (weight != 0) {
+					if (cEdges == targets.length) {
+						targets = Arrays.copyOf(targets, 2 * cEdges);
+						weights = Arrays.copyOf(weights, 2 * cEdges);
+					}
+					targets[cEdges] = i;
+					weights[cEdges] = weight;
+					cEdges++;
+				}
+			}
+			offsets[++currNode] = cEdges;
+			line = br.readLine();
+		}
+		br.close();
+
+		// rows missing at the end of the file have no edges
+		while (currNode < cNodes) {
+			offsets[++currNode] = cEdges;
+		}
+
+		return new CsrGraph(offsets, Arrays.copyOf(targets, cEdges), Arrays.copyOf(weights, cEdges));
+	}
+
+	/**
+	 * loads a Graph from a sparse edge list file, see EdgeListReader for the
+	 * format. Nodes and edges are added while the file is read, in one pass.
+	 * 
+	 * @param filename
+	 *            URL to file
+	 * @return the graph stored in file
+	 * @throws IOException
+	 *             if the file can not be read or is malformed
+	 */
+	public static DiGraph loadEdgeList(String filename) throws IOException {
+		EdgeListReader reader = new EdgeListReader(filename);
+		try {
+			DiGraph m = new DiGraph();
+			int cNodes = readNodeCount(reader);
+			Node[] nodes = new Node[cNodes];
+			for (int i = 0; i < cNodes; i++) {
+				nodes[i] = m.addNode();
+			}
+			while (reader.hasNext()) {
+				int start = readNodeID(reader, cNodes);
+				int end = readNodeID(nextOnLine(reader), cNodes);
+				m.addEdge(nodes[start], nodes[end], nextOnLine(reader).nextDouble());
+				endOfLine(reader);
+			}
+			return m;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * loads a Graph from a sparse edge list file directly into a CsrGraph,
+	 * without creating Node and Edge objects. The edges are collected in
+	 * primitive arrays in one pass over the file and then grouped by start
+	 * node.
+	 * 
+	 * @param filename
+	 *            URL to file, same format as for loadEdgeList()
+	 * @return the frozen graph stored in file
+	 * @throws IOException
+	 *             if the file can not be read or is malformed
+	 */
+	public static CsrGraph loadCsrGraphFromEdgeList(String filename) throws IOException {
+		EdgeListReader reader = new EdgeListReader(filename);
+		try {
+			int cNodes = readNodeCount(reader);
+			int[] sources = new int[Math.max(16, cNodes)];
+			int[] targets = new int[sources.length];
+			double[] weights = new double[sources.length];
+			int cEdges = 0;
+			while (reader.hasNext()) {
+				if (cEdges == sources.length) {
+					sources = Arrays.copyOf(sources, 2 * cEdges);
+					targets = Arrays.copyOf(targets, 2 * cEdges);
+					weights = Arrays.copyOf(weights, 2 * cEdges);
+				}
+				sources[cEdges] = readNodeID(reader, cNodes);
+				targets[cEdges] = readNodeID(nextOnLine(reader), cNodes);
+				weights[cEdges] = nextOnLine(reader).nextDouble();
+				endOfLine(reader);
+				cEdges++;
+			}
+			return CsrGraph.fromEdges(cNodes, sources, targets, weights, cEdges);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static int readNodeCount(EdgeListReader reader) throws IOException {
+		int cNodes = reader.nextInt();
+		if (cNodes < 0) {
+			throw reader.error("negative number of nodes");
+		}
+		return cNodes;
+	}
+
+	private static int readNodeID(EdgeListReader reader, int cNodes) throws IOException {
+		int id = reader.nextInt();
+		if (id < 0 || id >= cNodes) {
+			throw reader.error("node " + id + " does not exist");
+		}
+		return id;
+	}
+
+	// an edge has to be on one line
+	private static EdgeListReader nextOnLine(EdgeListReader reader) throws IOException {
+		if (!reader.hasNextOnLine()) {
+			throw reader.error("incomplete edge");
+		}
+		return reader;
+	}
+
+	private static void endOfLine(EdgeListReader reader) throws IOException {
+		if (reader.hasNextOnLine()) {
+			throw reader.error("more than three numbers for an edge");
+		}
+	}
+
 	/**
 	 * saves a Graph to given file
 	 * 
@@ -99,5 +266,295 @@ public static DiGraph loadGraph(String filename) throws IOException {
 
 	}
 
+	/**
+	 * saves a frozen graph in the binary CSR format, which is read by
+	 * loadBinaryGraph().
+	 * 
+	 * The file starts with the four bytes "CSRG", followed by three little
+	 * endian ints: the format version, the number of nodes n and the number
+	 * of edges m. Then come the arrays of the graph: n+1 ints offsets,
+	 * m ints targets and m doubles weights, all little endian. The size of
+	 * the file grows with the number of edges, not with n*n like the text
+	 * format.
+	 * 
+	 * @param g the graph, has to be saved
+	 * @param file url to file
+	 * @throws IOException
+	 */
+	public static void saveBinaryGraph(CsrGraph g, String file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(0);
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+			putMagic(buffer, BINARY_MAGIC);
+			buffer.putInt(BINARY_VERSION);
+			buffer.putInt(g.getNodeCount());
+			buffer.putInt(g.getEdgeCount());
+			for (int offset : g.offsets) {
+				if (buffer.remaining() < 4) {
+					write(channel, buffer);
+				}
+				buffer.putInt(offset);
+			}
+			for (int target : g.targets) {
+				if (buffer.remaining() < 4) {
+					write(channel, buffer);
+				}
+				buffer.putInt(target);
+			}
+			for (double weight : g.weights) {
+				if (buffer.remaining() < 8) {
+					write(channel, buffer);
+				}
+				buffer.putDouble(weight);
+			}
+			write(channel, buffer);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * saves a Graph in the binary CSR format, see saveBinaryGraph(CsrGraph,
+	 * String)
+	 * 
+	 * @param g the graph, has to be saved
+	 * @param file url to file
+	 * @throws IOException
+	 */
+	public static void saveBinaryGraph(DiGraph g, String file) throws IOException {
+		saveBinaryGraph(g.freeze(), file);
+	}
+
+	// puts the magic number in reading order, so "CSRG" is not stored as "GRSC"
+	private static void putMagic(ByteBuffer buffer, int magic) {
+		buffer.order(ByteOrder.BIG_ENDIAN).putInt(magic).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static int getMagic(ByteBuffer buffer) {
+		int magic = buffer.order(ByteOrder.BIG_ENDIAN).getInt();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return magic;
+	}
+
+	// writes the content of the buffer and empties it
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * loads a graph written by saveBinaryGraph(). The file is memory mapped
+	 * and the arrays are copied in bulk, nothing is parsed.
+	 * 
+	 * @param filename
+	 *            URL to file
+	 * @return the frozen graph stored in file
+	 * @throws IOException
+	 *             if the file can not be read, is not a binary graph file
+	 *             of a supported version or is corrupt
+	 */
+	public static CsrGraph loadBinaryGraph(String filename) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(filename, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() < BINARY_HEADER_BYTES) {
+				throw new IOException(filename + " is not a binary graph file");
+			}
+			ByteBuffer header = map(channel, 0, BINARY_HEADER_BYTES);
+			if (getMagic(header) != BINARY_MAGIC) {
+				throw new IOException(filename + " is not a binary graph file");
+			}
+			int version = header.getInt();
+			if (version != BINARY_VERSION) {
+				throw new IOException("unsupported version " + version + " of binary graph file " + filename);
+			}
+			int cNodes = header.getInt();
+			int cEdges = header.getInt();
+			long expectedSize = BINARY_HEADER_BYTES + 4L * (cNodes + 1) + 12L * cEdges;
+			if (cNodes < 0 || cEdges < 0 || channel.size() != expectedSize) {
+				throw new IOException("binary graph file " + filename + " has a wrong size");
+			}
+
+			int[] offsets = new int[cNodes + 1];
+			int[] targets = new int[cEdges];
+			double[] weights = new double[cEdges];
+			long position = BINARY_HEADER_BYTES;
+			position = readInts(channel, position, offsets);
+			position = readInts(channel, position, targets);
+			readDoubles(channel, position, weights);
+
+			// a corrupt file must not fail later inside a search
+			if (offsets[0] != 0 || offsets[cNodes] != cEdges) {
+				throw new IOException("binary graph file " + filename + " has inconsistent offsets");
+			}
+			for (int v = 0; v < cNodes; v++) {
+				if (offsets[v] > offsets[v + 1]) {
+					throw new IOException("binary graph file " + filename + " has inconsistent offsets");
+				}
+			}
+			for (int target : targets) {
+				if (target < 0 || target >= cNodes) {
+					throw new IOException("binary graph file " + filename + " has an edge to the unknown node "
+							+ target);
+				}
+			}
+			return new CsrGraph(offsets, targets, weights);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Returns the name under which the landmarks of a graph file are saved
+	 * next to it.
+	 * 
+	 * @param graphFile
+	 *            URL to the graph file
+	 * @return URL to the landmark file
+	 */
+	public static String landmarkFileFor(String graphFile) {
+		return graphFile + ".landmarks";
+	}
+
+	/**
+	 * saves the distance tables of landmarks, so they do not have to be
+	 * calculated again. The file starts with the four bytes "ALTL", followed
+	 * by the version, the number of nodes, of edges and of landmarks, the
+	 * landmark ids and both distance tables, all little endian.
+	 * 
+	 * @param landmarks the landmarks, have to be saved
+	 * @param file url to file, usually landmarkFileFor(graph file)
+	 * @throws IOException
+	 */
+	public static void saveLandmarks(Landmarks landmarks, String file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(0);
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+			putMagic(buffer, LANDMARK_MAGIC);
+			buffer.putInt(LANDMARK_VERSION);
+			buffer.putInt(landmarks.getGraph().getNodeCount());
+			buffer.putInt(landmarks.getGraph().getEdgeCount());
+			buffer.putInt(landmarks.getCount());
+			for (int landmark : landmarks.landmarks) {
+				if (buffer.remaining() < 4) {
+					write(channel, buffer);
+				}
+				buffer.putInt(landmark);
+			}
+			for (double d : landmarks.fromLandmark) {
+				if (buffer.remaining() < 8) {
+					write(channel, buffer);
+				}
+				buffer.putDouble(d);
+			}
+			for (double d : landmarks.toLandmark) {
+				if (buffer.remaining() < 8) {
+					write(channel, buffer);
+				}
+				buffer.putDouble(d);
+			}
+			write(channel, buffer);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * loads landmarks written by saveLandmarks(). Only the number of nodes
+	 * and edges is compared with the graph, the file has to be written for
+	 * the same graph.
+	 * 
+	 * @param graph
+	 *            the graph the landmarks were calculated for
+	 * @param filename
+	 *            URL to file
+	 * @return the landmarks stored in file
+	 * @throws IOException
+	 *             if the file can not be read, is not a landmark file of a
+	 *             supported version or belongs to a graph of another size
+	 */
+	public static Landmarks loadLandmarks(CsrGraph graph, String filename) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(filename, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() < LANDMARK_HEADER_BYTES) {
+				throw new IOException(filename + " is not a landmark file");
+			}
+			ByteBuffer header = map(channel, 0, LANDMARK_HEADER_BYTES);
+			if (getMagic(header) != LANDMARK_MAGIC) {
+				throw new IOException(filename + " is not a landmark file");
+			}
+			int version = header.getInt();
+			if (version != LANDMARK_VERSION) {
+				throw new IOException("unsupported version " + version + " of landmark file " + filename);
+			}
+			int cNodes = header.getInt();
+			int cEdges = header.getInt();
+			int cLandmarks = header.getInt();
+			if (cNodes != graph.getNodeCount() || cEdges != graph.getEdgeCount()) {
+				throw new IOException("landmark file " + filename + " belongs to another graph");
+			}
+			long tableSize = (long) cNodes * cLandmarks;
+			if (cLandmarks < 0 || cLandmarks > cNodes || tableSize > Integer.MAX_VALUE
+					|| channel.size() != LANDMARK_HEADER_BYTES + 4L * cLandmarks + 16L * tableSize) {
+				throw new IOException("landmark file " + filename + " has a wrong size");
+			}
+
+			int[] landmarks = new int[cLandmarks];
+			double[] fromLandmark = new double[(int) tableSize];
+			double[] toLandmark = new double[(int) tableSize];
+			long position = LANDMARK_HEADER_BYTES;
+			position = readInts(channel, position, landmarks);
+			position = readDoubles(channel, position, fromLandmark);
+			readDoubles(channel, position, toLandmark);
+			for (int landmark : landmarks) {
+				if (landmark < 0 || landmark >= cNodes) {
+					throw new IOException("landmark file " + filename + " contains the unknown node " + landmark);
+				}
+			}
+			return new Landmarks(graph, landmarks, fromLandmark, toLandmark);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	// fills the array from the file, mapping at most MAX_MAPPED_BYTES at once
+	private static long readInts(FileChannel channel, long position, int[] array) throws IOException {
+		int done = 0;
+		while (done < array.length) {
+			int count = Math.min(array.length - done, MAX_MAPPED_BYTES / 4);
+			map(channel, position, 4L * count).asIntBuffer().get(array, done, count);
+			position += 4L * count;
+			done += count;
+		}
+		return position;
+	}
+
+	private static long readDoubles(FileChannel channel, long position, double[] array) throws IOException {
+		int done = 0;
+		while (done < array.length) {
+			int count = Math.min(array.length - done, MAX_MAPPED_BYTES / 8);
+			map(channel, position, 8L * count).asDoubleBuffer().get(array, done, count);
+			position += 8L * count;
+			done += count;
+		}
+		return position;
+	}
+
 }
 
@@ -1,17 +1,24 @@
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.Image;
+import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Polygon;
+import java.awt.Rectangle;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
 
 import javax.swing.JPanel;
@@ -19,6 +26,19 @@ import javax.swing.JPanel;
 /**
  * This class provides the methods to draw nodes and edges on the screen. Use
  * the class VisualGraph to display your graph data structure.
+ *
+ * The image is kept between two calls of update(). The graph reports every
+ * changed color to a color listener, and update() draws only the nodes and
+ * edges whose color changed and repaints the area they cover. The whole image
+ * is drawn again only if the graph, the size of the area or the view changed,
+ * so an update costs nothing while the graph stays the same.
+ *
+ * The view can be zoomed and moved. Only the nodes inside the view are looked
+ * at, they are found with a SpatialGrid. The more nodes are visible, the less
+ * detail is drawn: up to FULL_DETAIL_LIMIT nodes with labels and weights, up
+ * to SIMPLE_DETAIL_LIMIT nodes as small squares with edges as plain lines,
+ * and beyond that the area is divided into cells of a few pixels, each
+ * showing the most frequent highlight color of the nodes inside it.
  * 
  * @author Ilya Shabanov, modified by MPGI2-Tutoren
  */
@@ -61,14 +81,53 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 //	private final Color LABEL_COLOR = new Color(0x00aa00);
 	private final Color LABEL_COLOR = new Color(0x000000);
 
+	/** detail levels, see getDetailLevel() */
+	static final int FULL_DETAIL = 0;
+	static final int SIMPLE_DETAIL = 1;
+	static final int AGGREGATED = 2;
+
+	/** most visible nodes that are drawn with labels */
+	static final int FULL_DETAIL_LIMIT = 500;
+
+	/** most visible nodes that are drawn one by one */
+	static final int SIMPLE_DETAIL_LIMIT = 20000;
+
+	/** size of a node without label, in pixels */
+	private static final int SIMPLE_NODE_SIZE = 6;
+
+	/** size of a cell of an aggregated image, in pixels */
+	private static final int CELL_SIZE = 4;
+
+	/** most lines between cells drawn in an aggregated image */
+	private static final int MAX_CELL_EDGES = 50000;
+
+	/** most nodes that are placed on a circle, more are placed in rows */
+	private static final int CIRCLE_LIMIT = 1000;
+
+	/** changed colors above which the whole image is drawn again */
+	private static final int MAX_CHANGES = 5000;
+
+	/** changed colors that are kept until an update, more are read from the graph */
+	private static final int MAX_PENDING_CHANGES = 1 << 20;
+
+	/** limits of the zoom factor */
+	private static final double MIN_ZOOM = 0.1;
+	private static final double MAX_ZOOM = 10000;
+
+	/** color of edges without highlight when drawn as plain lines */
+	private static final Color LINE_COLOR = new Color(128, 128, 128);
+
+	/** color of the lines between the cells of an aggregated image */
+	private static final Color CELL_EDGE_COLOR = new Color(200, 200, 200);
+
 	/** size of the paintable area */
-	private Dimension canvasSize;
+	private volatile Dimension canvasSize;
 
 	/** main buffer for drawing */
-	private Image imgMain;
+	private BufferedImage imgMain;
 
 	/** object to perform the draw operation on */
-	private Graphics graphicsMain;
+	private Graphics2D graphicsMain;
 
 	/** Node positions and node marks */
 	private Vector<VisualNode> nodes = new Vector<VisualNode>();
@@ -76,6 +135,45 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 	/** Edges with adjacent nodes and labels */
 	private Map<VisualNode, Map<VisualNode, VisualEdge>> edges = new HashMap<VisualNode, Map<VisualNode, VisualEdge>>();
 
+	/** The visual nodes by their id */
+	private Map<Integer, VisualNode> nodesByID = new HashMap<Integer, VisualNode>();
+
+	/** Index of the node positions, the nodes in the order of the index */
+	private SpatialGrid grid;
+	private VisualNode[] gridNodes;
+
+	/** set if the nodes have to be placed again */
+	private volatile boolean layoutChanged = true;
+
+	/** set if the whole image has to be drawn again */
+	private volatile boolean redrawAll = true;
+
+	/** the current view, and the view the image was drawn with */
+	private volatile View view = new View(1.0, 0.0, 0.0);
+	private View drawnView;
+
+	/** modification count of the graph the image belongs to */
+	private int drawnModCount;
+
+	/** number of the current image, incremented by every full drawing */
+	private int frame;
+
+	/** detail level of the current image */
+	private int detailLevel;
+
+	/** number of nodes inside the current view */
+	private int visibleCount;
+
+	/** per cell of an aggregated image the number of nodes of every color */
+	private int[] cellColors;
+	private int cellColumns;
+
+	/** colors reported by the graph or a replay, not drawn yet */
+	private final ColorChanges changes = new ColorChanges();
+
+	/** set while a trace is replayed, the colors of the graph are ignored then */
+	private volatile boolean replaying;
+
 	/**
 	 * create an area to paint the graph on.
 	 * 
@@ -86,17 +184,40 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 	public GraphVisualizer(Graph theGraph, Dimension d) {
 		this.graph = theGraph;
 		canvasSize = d;
+		drawnModCount = graph.getModificationCount();
+		// learn about changed colors
+		graph.setColorListener(new StepListener() {
+			@Override
+			public void nodeColored(int nodeID, int color) {
+				if (!replaying) {
+					changes.node(nodeID, color);
+				}
+			}
+
+			@Override
+			public void edgeColored(int startNodeID, int targetNodeID, int color) {
+				if (!replaying) {
+					changes.edge(startNodeID, targetNodeID, color);
+				}
+			}
+
+			@Override
+			public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+			}
+
+			@Override
+			public void step() {
+			}
+		});
 		// react on resizing
 		addComponentListener(this);
 	}
 
 	public void componentResized(ComponentEvent event) {
 		canvasSize = getSize();
-
-		if (!nodes.isEmpty()) {
-			calculateNodePositions();
-			drawGraphImage();
-		}
+		// drawn by the next update
+		layoutChanged = true;
+		redrawAll = true;
 	}
 
 	public void componentMoved(ComponentEvent arg0) {
@@ -111,42 +232,129 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 		// do nothing
 	}
 
+	/** A zoom factor and an offset in pixels, not changed once created. */
+	private static final class View {
+		final double zoom;
+		final double offsetX;
+		final double offsetY;
+
+		View(double zoom, double offsetX, double offsetY) {
+			this.zoom = zoom;
+			this.offsetX = offsetX;
+			this.offsetY = offsetY;
+		}
+
+		Point toScreen(Point2D.Double p) {
+			return new Point((int) Math.round(p.x * zoom + offsetX), (int) Math.round(p.y * zoom + offsetY));
+		}
+	}
+
 	/**
-	 * Calculates the position of the nodes.
+	 * Zooms the view, keeping the point under the given pixel in place.
+	 *
+	 * @param factor
+	 *            more than 1 to zoom in, less than 1 to zoom out
+	 * @param x
+	 *            x coordinate of the pixel
+	 * @param y
+	 *            y coordinate of the pixel
 	 */
-	private void calculateNodePositions() {
+	public synchronized void zoom(double factor, int x, int y) {
+		View v = view;
+		double zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, v.zoom * factor));
+		double f = zoom / v.zoom;
+		view = new View(zoom, x - (x - v.offsetX) * f, y - (y - v.offsetY) * f);
+	}
 
-		double maxRadius = canvasSize.width < canvasSize.height ? canvasSize.width
-				: canvasSize.height;
-		maxRadius /= 2;
+	/**
+	 * Moves the view. Not called move(), which would override
+	 * Component.move() and so change what setLocation() does.
+	 *
+	 * @param dx
+	 *            pixels to move to the right
+	 * @param dy
+	 *            pixels to move down
+	 */
+	public synchronized void pan(int dx, int dy) {
+		View v = view;
+		view = new View(v.zoom, v.offsetX + dx, v.offsetY + dy);
+	}
 
-		double angle = 2 * Math.PI / nodes.size();
-		double radius = 0.9 * maxRadius;
+	/**
+	 * Shows the whole graph again.
+	 */
+	public void resetView() {
+		view = new View(1.0, 0.0, 0.0);
+	}
 
-		int i = 0;
-		for (VisualNode node : nodes) {
-			node.position = new Point(canvasSize.width / 2
-					+ (int) (Math.cos(angle * i) * radius), canvasSize.height
-					/ 2 + (int) (Math.sin(angle * i) * radius));
-			i++;
+	/**
+	 * Calculates the position of the nodes. Up to CIRCLE_LIMIT nodes are
+	 * placed on a circle, more nodes in rows that fill the area.
+	 */
+	private void calculateNodePositions() {
+		Dimension size = canvasSize;
+		int n = nodes.size();
+		if (n <= CIRCLE_LIMIT) {
+			double maxRadius = size.width < size.height ? size.width
+					: size.height;
+			maxRadius /= 2;
+
+			double angle = 2 * Math.PI / n;
+			double radius = 0.9 * maxRadius;
+
+			int i = 0;
+			for (VisualNode node : nodes) {
+				node.position = new Point2D.Double(size.width / 2
+						+ (int) (Math.cos(angle * i) * radius), size.height
+						/ 2 + (int) (Math.sin(angle * i) * radius));
+				i++;
+			}
+		} else {
+			double margin = 0.05 * Math.min(size.width, size.height);
+			double width = Math.max(1, size.width - 2 * margin);
+			double height = Math.max(1, size.height - 2 * margin);
+			int columns = (int) Math.ceil(Math.sqrt(n * width / height));
+			int rows = (n + columns - 1) / columns;
+			double step = Math.min(width / columns, height / rows);
+
+			int i = 0;
+			for (VisualNode node : nodes) {
+				node.position = new Point2D.Double(margin + (i % columns + 0.5) * step,
+						margin + (i / columns + 0.5) * step);
+				i++;
+			}
 		}
+
+		gridNodes = nodes.toArray(new VisualNode[n]);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = gridNodes[i].position.x;
+			y[i] = gridNodes[i].position.y;
+		}
+		grid = new SpatialGrid(x, y);
 	}
 
-	/** Add a node with the given label */
-	public VisualNode addNode(int label) {
+	/**
+	 * Add a node with the given label. It is drawn by the next update().
+	 */
+	public synchronized VisualNode addNode(int label) {
 		VisualNode node = new VisualNode(label);
+		node.color = graph.getColorOfNode(label);
 		nodes.add(node);
+		nodesByID.put(label, node);
 
-		calculateNodePositions();
-
-		drawGraphImage();
+		layoutChanged = true;
+		redrawAll = true;
 
 		return node;
 	}
 
 
-	/** Adds an edge between the given nodes */
-	public void addEdge(VisualNode start, VisualNode target, double weight) {
+	/**
+	 * Adds an edge between the given nodes. It is drawn by the next update().
+	 */
+	public synchronized void addEdge(VisualNode start, VisualNode target, double weight) {
 		Map<VisualNode, VisualEdge> targetNodes = edges.get(start);
 		if (targetNodes == null) {
 			targetNodes = new HashMap<VisualNode, VisualEdge>();
@@ -156,82 +364,78 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 		if (edge == null) {
 			edge = new VisualEdge(start, target, weight);
 			targetNodes.put(target, edge);
+			target.incoming.add(edge);
 		} else {
 			edge.weight = weight;
 		}
+		edge.color = graph.getColorOfEdge(start, target);
 
-		drawGraphImage();
+		redrawAll = true;
 	}
 
 	/**
 	 * Removes the node from the graph. All edges from and to the node will be
 	 * removed, too.
 	 */
-	public void deleteNode(VisualNode node) {
+	public synchronized void deleteNode(VisualNode node) {
 		nodes.remove(node);
-		edges.remove(node);
-		for (VisualNode actNode : nodes) {
-			Map<VisualNode, VisualEdge> targetNodes = edges.get(actNode);
-			if (targetNodes != null) {
-				targetNodes.remove(node);
+		nodesByID.remove(node.getID());
+		Map<VisualNode, VisualEdge> targetNodes = edges.remove(node);
+		if (targetNodes != null) {
+			for (VisualEdge edge : targetNodes.values()) {
+				edge.target.incoming.remove(edge);
 			}
 		}
+		for (VisualEdge edge : node.incoming) {
+			Map<VisualNode, VisualEdge> startNodes = edges.get(edge.start);
+			if (startNodes != null) {
+				startNodes.remove(node);
+			}
+		}
+		node.incoming.clear();
 
-		calculateNodePositions();
-
-		drawGraphImage();
+		layoutChanged = true;
+		redrawAll = true;
 	}
 
 	/** Removes the edge between the given nodes. */
-	public void deleteEdge(VisualNode start, VisualNode target) {
+	public synchronized void deleteEdge(VisualNode start, VisualNode target) {
 		Map<VisualNode, VisualEdge> targetNodes = edges.get(start);
 		if (targetNodes != null) {
-			targetNodes.remove(target);
+			VisualEdge edge = targetNodes.remove(target);
+			if (edge != null) {
+				target.incoming.remove(edge);
+			}
 		}
 
-		drawGraphImage();
+		redrawAll = true;
 	}
 
 	/**
-	 * Do the drawing of all nodes and edges and store it in a buffer. This
-	 * method is called each time the graph changes.
+	 * Removes the nodes and edges that are no longer part of the graph.
 	 */
-	synchronized private void drawGraphImage() {
-		// Main Gfx buffer
-		imgMain = new BufferedImage(canvasSize.width, canvasSize.height,
-				BufferedImage.TYPE_INT_ARGB);
-		graphicsMain = imgMain.getGraphics();
+	private void removeDeleted() {
+		Set<Integer> ids = new HashSet<Integer>();
+		for (Node node : graph.getNodes()) {
+			ids.add(node.getID());
+		}
 		List<VisualEdge> edgesToDelete = new LinkedList<VisualEdge>();
 		List<VisualNode> nodesToDelete = new LinkedList<VisualNode>();
-		// set background
-//		graphicsMain.setColor(new Color(0x000000));
-//		graphicsMain.fillRect(0, 0, this.getWidth(), this.getHeight());
-		
 		for (VisualNode node : nodes) {
-			
-			if(graph.getNodes().contains(node)){
-			// draw current Node
-				drawNode(graphicsMain, node.position, "" + node.getLabel(), this.graph.getColorOfNode(node.getLabel()));
-			
-				Map<VisualNode, VisualEdge> adjacentNodes = edges.get(node);
-				if (adjacentNodes != null) {
-					for (VisualEdge edge : adjacentNodes.values()) {
-						// draw edge and it's weight
-						if(this.graph.isConnected(node.getID(), edge.target.getID())){
-							drawEdge(graphicsMain, edge.start.position,
-									edge.target.position, this.graph.getColorOfEdge(edge.start, edge.target), "" + edge.weight);
-						}else{
-							edgesToDelete.add(edge);
-						}
+			if (!ids.contains(node.getID())) {
+				nodesToDelete.add(node);
+				continue;
+			}
+			Map<VisualNode, VisualEdge> adjacentNodes = edges.get(node);
+			if (adjacentNodes != null) {
+				for (VisualEdge edge : adjacentNodes.values()) {
+					if (!this.graph.isConnected(node.getID(), edge.target.getID())) {
+						edgesToDelete.add(edge);
 					}
 				}
-			}else{
-				nodesToDelete.add(node);
 			}
-
 		}
 
-		repaint();
 		for(VisualEdge e:edgesToDelete){
 			deleteEdge(e.start, e.target);
 		}
@@ -241,6 +445,289 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 		}
 	}
 
+	/**
+	 * Do the drawing of all nodes and edges inside the view and store it in
+	 * a buffer. This method is called if the graph or the view changed.
+	 */
+	synchronized private void drawGraphImage() {
+		redrawAll = false;
+		View v = view;
+		drawnView = v;
+		Dimension size = canvasSize;
+		int width = Math.max(1, size.width);
+		int height = Math.max(1, size.height);
+
+		// Main Gfx buffer, kept while the size stays the same
+		if (imgMain == null || imgMain.getWidth() != width || imgMain.getHeight() != height) {
+			imgMain = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			graphicsMain = imgMain.createGraphics();
+		} else {
+			graphicsMain.setComposite(AlphaComposite.Clear);
+			graphicsMain.fillRect(0, 0, width, height);
+			graphicsMain.setComposite(AlphaComposite.SrcOver);
+		}
+		if (layoutChanged) {
+			layoutChanged = false;
+			calculateNodePositions();
+		}
+		frame++;
+
+		// nodes next to the view may reach into it
+		double margin = NODE_GFX_SIZE / v.zoom;
+		int[] visible = grid.query(-v.offsetX / v.zoom - margin, -v.offsetY / v.zoom - margin,
+				(width - v.offsetX) / v.zoom + margin, (height - v.offsetY) / v.zoom + margin);
+		visibleCount = visible.length;
+		for (int i : visible) {
+			gridNodes[i].drawnFrame = frame;
+			gridNodes[i].drawnColor = gridNodes[i].color;
+		}
+
+		if (visibleCount <= FULL_DETAIL_LIMIT) {
+			detailLevel = FULL_DETAIL;
+			for (int i : visible) {
+				VisualNode node = gridNodes[i];
+				// draw current Node
+				drawNode(graphicsMain, v.toScreen(node.position), "" + node.getLabel(), node.color);
+
+				// draw edges and their weights, entering edges only if their start is not drawn
+				Map<VisualNode, VisualEdge> adjacentNodes = edges.get(node);
+				if (adjacentNodes != null) {
+					for (VisualEdge edge : adjacentNodes.values()) {
+						drawVisualEdge(v, edge);
+					}
+				}
+				for (VisualEdge edge : node.incoming) {
+					if (edge.start.drawnFrame != frame) {
+						drawVisualEdge(v, edge);
+					}
+				}
+			}
+		} else if (visibleCount <= SIMPLE_DETAIL_LIMIT) {
+			detailLevel = SIMPLE_DETAIL;
+			// lines first, so the nodes are on top
+			for (int i : visible) {
+				VisualNode node = gridNodes[i];
+				Map<VisualNode, VisualEdge> adjacentNodes = edges.get(node);
+				if (adjacentNodes != null) {
+					for (VisualEdge edge : adjacentNodes.values()) {
+						drawLine(v, edge);
+					}
+				}
+				for (VisualEdge edge : node.incoming) {
+					if (edge.start.drawnFrame != frame) {
+						drawLine(v, edge);
+					}
+				}
+			}
+			for (int i : visible) {
+				drawSmallNode(v, gridNodes[i]);
+			}
+		} else {
+			detailLevel = AGGREGATED;
+			drawCells(v, visible, width, height);
+		}
+
+		repaint();
+	}
+
+	/**
+	 * Draws the visible nodes aggregated into cells, with one line between
+	 * two cells if there is an edge between their nodes.
+	 */
+	private void drawCells(View v, int[] visible, int width, int height) {
+		cellColumns = (width + CELL_SIZE - 1) / CELL_SIZE;
+		int cellRows = (height + CELL_SIZE - 1) / CELL_SIZE;
+		cellColors = new int[cellColumns * cellRows * COLORS.length];
+		for (int i : visible) {
+			VisualNode node = gridNodes[i];
+			Point p = v.toScreen(node.position);
+			if (p.x >= 0 && p.y >= 0 && p.x < width && p.y < height) {
+				node.cell = (p.y / CELL_SIZE) * cellColumns + p.x / CELL_SIZE;
+				cellColors[node.cell * COLORS.length + node.color]++;
+			} else {
+				node.cell = -1;
+			}
+		}
+
+		graphicsMain.setColor(CELL_EDGE_COLOR);
+		// pairs of cells with a line, open addressing with 0 for free slots
+		long[] drawn = new long[Integer.highestOneBit(4 * MAX_CELL_EDGES - 1) << 1];
+		int drawnCount = 0;
+		lines:
+		for (int i : visible) {
+			VisualNode node = gridNodes[i];
+			Map<VisualNode, VisualEdge> adjacentNodes = edges.get(node);
+			if (node.cell < 0 || adjacentNodes == null) {
+				continue;
+			}
+			for (VisualNode target : adjacentNodes.keySet()) {
+				if (target.drawnFrame != frame || target.cell < 0 || target.cell == node.cell) {
+					continue;
+				}
+				int a = Math.min(node.cell, target.cell);
+				int b = Math.max(node.cell, target.cell);
+				long key = ((long) (a + 1) << 32) | (b + 1);
+				int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & (drawn.length - 1);
+				while (drawn[slot] != 0 && drawn[slot] != key) {
+					slot = (slot + 1) & (drawn.length - 1);
+				}
+				if (drawn[slot] == 0) {
+					drawn[slot] = key;
+					graphicsMain.drawLine(cellCenterX(a), cellCenterY(a), cellCenterX(b), cellCenterY(b));
+					if (++drawnCount >= MAX_CELL_EDGES) {
+						break lines;
+					}
+				}
+			}
+		}
+
+		for (int cell = 0; cell < cellColors.length / COLORS.length; cell++) {
+			drawCell(cell);
+		}
+	}
+
+	private int cellCenterX(int cell) {
+		return (cell % cellColumns) * CELL_SIZE + CELL_SIZE / 2;
+	}
+
+	private int cellCenterY(int cell) {
+		return (cell / cellColumns) * CELL_SIZE + CELL_SIZE / 2;
+	}
+
+	/**
+	 * Draws a cell of an aggregated image in the most frequent color of its
+	 * nodes, where highlighted nodes win over nodes in the default color.
+	 *
+	 * @return the area drawn
+	 */
+	private Rectangle drawCell(int cell) {
+		int base = cell * COLORS.length;
+		int color = -1;
+		for (int c = 0; c < COLORS.length; c++) {
+			if (cellColors[base + c] > 0
+					&& (color <= DEFAULT_COLOR || (c != DEFAULT_COLOR && cellColors[base + c] > cellColors[base + color]))) {
+				color = c;
+			}
+		}
+		int x = (cell % cellColumns) * CELL_SIZE;
+		int y = (cell / cellColumns) * CELL_SIZE;
+		if (color >= 0) {
+			graphicsMain.setColor(COLORS[2]);
+			graphicsMain.fillRect(x, y, CELL_SIZE, CELL_SIZE);
+			graphicsMain.setColor(COLORS[color]);
+			graphicsMain.fillRect(x + 1, y + 1, CELL_SIZE - 2, CELL_SIZE - 2);
+		}
+		return new Rectangle(x, y, CELL_SIZE, CELL_SIZE);
+	}
+
+	/**
+	 * Draws the nodes and edges whose color changed since they were drawn
+	 * over the current image and repaints the area they cover.
+	 */
+	synchronized private void drawChanges(List<VisualNode> changedNodes, List<VisualEdge> changedEdges) {
+		View v = drawnView;
+		Rectangle dirty = null;
+		for (VisualEdge edge : changedEdges) {
+			if (edge.color == edge.drawnColor) {
+				continue;
+			}
+			boolean shown = edge.start.drawnFrame == frame || edge.target.drawnFrame == frame;
+			if (shown && detailLevel == FULL_DETAIL) {
+				dirty = union(dirty, drawVisualEdge(v, edge));
+			} else if (shown && detailLevel == SIMPLE_DETAIL) {
+				dirty = union(dirty, drawLine(v, edge));
+				// keep the nodes on top of the line
+				for (VisualNode end : new VisualNode[] { edge.start, edge.target }) {
+					if (end.drawnFrame == frame) {
+						dirty = union(dirty, drawSmallNode(v, end));
+					}
+				}
+			} else {
+				edge.drawnColor = edge.color;
+			}
+		}
+		for (VisualNode node : changedNodes) {
+			if (node.color == node.drawnColor || node.drawnFrame != frame) {
+				continue;
+			}
+			if (detailLevel == FULL_DETAIL) {
+				node.drawnColor = node.color;
+				Point p = v.toScreen(node.position);
+				drawNode(graphicsMain, p, "" + node.getLabel(), node.color);
+				int half = (int) (NODE_GFX_SIZE / 2);
+				dirty = union(dirty, new Rectangle(p.x - half, p.y - half, 2 * half, 2 * half));
+			} else if (detailLevel == SIMPLE_DETAIL) {
+				dirty = union(dirty, drawSmallNode(v, node));
+			} else if (node.cell >= 0) {
+				cellColors[node.cell * COLORS.length + node.drawnColor]--;
+				cellColors[node.cell * COLORS.length + node.color]++;
+				node.drawnColor = node.color;
+				dirty = union(dirty, drawCell(node.cell));
+			}
+		}
+		if (dirty != null) {
+			repaint(dirty.x, dirty.y, dirty.width + 1, dirty.height + 1);
+		}
+	}
+
+	private static Rectangle union(Rectangle a, Rectangle b) {
+		if (a == null) {
+			return b;
+		}
+		a.add(b);
+		return a;
+	}
+
+	/**
+	 * Draws an edge with its weight.
+	 *
+	 * @return an area that contains the drawing
+	 */
+	private Rectangle drawVisualEdge(View v, VisualEdge edge) {
+		edge.drawnColor = edge.color;
+		Point s = v.toScreen(edge.start.position);
+		Point e = v.toScreen(edge.target.position);
+		drawEdge(graphicsMain, s, e, edge.color, "" + edge.weight);
+		// the label starts at the bow point and is about 80 pixels wide
+		Rectangle bounds = new Rectangle(s);
+		bounds.add(e);
+		bounds.grow(EDGE_BOW + 90, EDGE_BOW + 30);
+		return bounds;
+	}
+
+	/**
+	 * Draws an edge as a plain line, colored if it is highlighted.
+	 *
+	 * @return an area that contains the drawing
+	 */
+	private Rectangle drawLine(View v, VisualEdge edge) {
+		edge.drawnColor = edge.color;
+		Point s = v.toScreen(edge.start.position);
+		Point e = v.toScreen(edge.target.position);
+		graphicsMain.setColor(edge.color == DEFAULT_COLOR ? LINE_COLOR : COLORS[edge.color]);
+		graphicsMain.drawLine(s.x, s.y, e.x, e.y);
+		Rectangle bounds = new Rectangle(s);
+		bounds.add(e);
+		return bounds;
+	}
+
+	/**
+	 * Draws a node as a small square without label.
+	 *
+	 * @return the area drawn
+	 */
+	private Rectangle drawSmallNode(View v, VisualNode node) {
+		node.drawnColor = node.color;
+		Point p = v.toScreen(node.position);
+		int x = p.x - SIMPLE_NODE_SIZE / 2;
+		int y = p.y - SIMPLE_NODE_SIZE / 2;
+		graphicsMain.setColor(COLORS[2]);
+		graphicsMain.fillRect(x, y, SIMPLE_NODE_SIZE, SIMPLE_NODE_SIZE);
+		graphicsMain.setColor(COLORS[node.color]);
+		graphicsMain.fillRect(x + 1, y + 1, SIMPLE_NODE_SIZE - 2, SIMPLE_NODE_SIZE - 2);
+		return new Rectangle(x, y, SIMPLE_NODE_SIZE, SIMPLE_NODE_SIZE);
+	}
+
 	/** draw a bowed line with an arrow head and a label. */
 	private void drawEdge(Graphics g, Point sIn, Point eIn, int color, String label) {
 		
@@ -387,16 +874,239 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 	}
 	
 	/**
-	 * repaints the graph
+	 * repaints the parts of the graph that changed. Does nothing if nothing
+	 * changed since the last call.
 	 */
-	public void update(){
-		this.drawGraphImage();
+	public synchronized void update(){
+		int modCount = graph.getModificationCount();
+		if (modCount != drawnModCount) {
+			drawnModCount = modCount;
+			removeDeleted();
+			redrawAll = true;
+		}
+
+		List<VisualNode> changedNodes = new ArrayList<VisualNode>();
+		List<VisualEdge> changedEdges = new ArrayList<VisualEdge>();
+		if (!changes.drainInto(this, changedNodes, changedEdges)) {
+			// too many changes were reported, read all colors again
+			readColors();
+			redrawAll = true;
+		}
+
+		if (redrawAll || imgMain == null || view != drawnView
+				|| changedNodes.size() + changedEdges.size() > MAX_CHANGES) {
+			drawGraphImage();
+		} else if (!changedNodes.isEmpty() || !changedEdges.isEmpty()) {
+			drawChanges(changedNodes, changedEdges);
+		}
+	}
+
+	/**
+	 * Sets the cached colors of all nodes and edges to the colors of the
+	 * graph, or to the default color during a replay.
+	 */
+	private void readColors() {
+		for (VisualNode node : nodes) {
+			node.color = replaying ? DEFAULT_COLOR : graph.getColorOfNode(node.getID());
+		}
+		for (Map<VisualNode, VisualEdge> targetNodes : edges.values()) {
+			for (VisualEdge edge : targetNodes.values()) {
+				edge.color = replaying ? DEFAULT_COLOR : graph.getColorOfEdge(edge.start, edge.target);
+			}
+		}
+	}
+
+	// caches a reported node color, collects the node if it has to be drawn again
+	private void nodeChanged(int nodeID, int color, List<VisualNode> changedNodes) {
+		VisualNode node = nodesByID.get(nodeID);
+		if (node != null && color >= 0 && color < COLORS.length && node.color != color) {
+			node.color = color;
+			changedNodes.add(node);
+		}
+	}
+
+	// caches a reported edge color, collects the edge if it has to be drawn again
+	private void edgeChanged(int startNodeID, int targetNodeID, int color, List<VisualEdge> changedEdges) {
+		VisualNode start = nodesByID.get(startNodeID);
+		Map<VisualNode, VisualEdge> targetNodes = start == null ? null : edges.get(start);
+		VisualNode target = nodesByID.get(targetNodeID);
+		VisualEdge edge = targetNodes == null || target == null ? null : targetNodes.get(target);
+		if (edge != null && color >= 0 && color < COLORS.length && edge.color != color) {
+			edge.color = color;
+			changedEdges.add(edge);
+		}
+	}
+
+	/**
+	 * Colors reported from any thread, kept until the next update in the
+	 * order they were reported.
+	 */
+	private static class ColorChanges {
+		private int[] nodes = new int[64];
+		private int nodeCount;
+		private int[] edges = new int[96];
+		private int edgeCount;
+		/** set if more than MAX_PENDING_CHANGES were reported */
+		private boolean overflow;
+
+		synchronized void node(int nodeID, int color) {
+			if (nodeCount + edgeCount >= 3 * MAX_PENDING_CHANGES) {
+				overflow = true;
+				return;
+			}
+			if (nodeCount + 2 > nodes.length) {
+				nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+			}
+			nodes[nodeCount++] = nodeID;
+			nodes[nodeCount++] = color;
+		}
+
+		synchronized void edge(int startNodeID, int targetNodeID, int color) {
+			if (nodeCount + edgeCount >= 3 * MAX_PENDING_CHANGES) {
+				overflow = true;
+				return;
+			}
+			if (edgeCount + 3 > edges.length) {
+				edges = Arrays.copyOf(edges, 2 * edges.length);
+			}
+			edges[edgeCount++] = startNodeID;
+			edges[edgeCount++] = targetNodeID;
+			edges[edgeCount++] = color;
+		}
+
+		synchronized void clear() {
+			nodeCount = 0;
+			edgeCount = 0;
+			overflow = false;
+		}
+
+		/**
+		 * Hands all colors to the visualizer and forgets them.
+		 *
+		 * @return false if colors were lost because there were too many
+		 */
+		boolean drainInto(GraphVisualizer visualizer, List<VisualNode> changedNodes, List<VisualEdge> changedEdges) {
+			int[] n;
+			int nCount;
+			int[] e;
+			int eCount;
+			boolean lost;
+			synchronized (this) {
+				n = nodes;
+				nCount = nodeCount;
+				e = edges;
+				eCount = edgeCount;
+				lost = overflow;
+				nodes = new int[64];
+				edges = new int[96];
+				clear();
+			}
+			if (lost) {
+				return false;
+			}
+			for (int i = 0; i < nCount; i += 2) {
+				visualizer.nodeChanged(n[i], n[i + 1], changedNodes);
+			}
+			for (int i = 0; i < eCount; i += 3) {
+				visualizer.edgeChanged(e[i], e[i + 1], e[i + 2], changedEdges);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Shows the colors set by setReplayNodeColor() and setReplayEdgeColor()
+	 * instead of the colors of the graph, until stopReplay() is called.
+	 * Nodes and edges without a replayed color get the color index 0.
+	 */
+	public synchronized void startReplay() {
+		replaying = true;
+		changes.clear();
+		readColors();
+		redrawAll = true;
+	}
+
+	/** Shows the colors of the graph again. */
+	public synchronized void stopReplay() {
+		replaying = false;
+		changes.clear();
+		readColors();
+		redrawAll = true;
+	}
+
+	/**
+	 * Sets the color of a node during a replay.
+	 * 
+	 * @param nodeID the id of the node
+	 * @param color the color index, see Graph.getColorOfNode()
+	 */
+	public void setReplayNodeColor(int nodeID, int color) {
+		if (replaying) {
+			changes.node(nodeID, color);
+		}
+	}
+
+	/**
+	 * Sets the color of an edge during a replay.
+	 * 
+	 * @param startNodeID the id of the node where the edge starts
+	 * @param targetNodeID the id of the node where the edge ends
+	 * @param color the color index, see Graph.getColorOfEdge()
+	 */
+	public void setReplayEdgeColor(int startNodeID, int targetNodeID, int color) {
+		if (replaying) {
+			changes.edge(startNodeID, targetNodeID, color);
+		}
+	}
+
+	/**
+	 * @return detail level of the current image, FULL_DETAIL, SIMPLE_DETAIL
+	 *         or AGGREGATED
+	 */
+	synchronized int getDetailLevel() {
+		return detailLevel;
+	}
+
+	/**
+	 * @return number of nodes inside the view of the current image
+	 */
+	synchronized int getVisibleNodeCount() {
+		return visibleCount;
+	}
+
+	/**
+	 * @return how often the whole image was drawn
+	 */
+	synchronized int getFullDrawCount() {
+		return frame;
+	}
+
+	/**
+	 * @return the image shown, null before the first update
+	 */
+	synchronized BufferedImage getImage() {
+		return imgMain;
+	}
+
+	/**
+	 * @return the position of a node in the current image, null if there is
+	 *         no such node
+	 */
+	synchronized Point getScreenPosition(int nodeID) {
+		VisualNode node = nodesByID.get(nodeID);
+		if (node == null || node.position == null) {
+			return null;
+		}
+		return (drawnView != null ? drawnView : view).toScreen(node.position);
 	}
 
 	/** deletes all nodes and edges */
-	public void clear(){
+	public synchronized void clear(){
 		this.edges.clear();
 		this.nodes.clear();
+		this.nodesByID.clear();
+		layoutChanged = true;
+		redrawAll = true;
 	}
 
 
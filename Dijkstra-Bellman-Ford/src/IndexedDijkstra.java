@@ -0,0 +1,112 @@
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm on a DiGraph, driven by the indexed priority queue
+ * IndexMinPQ.
+ *
+ * Every node is in the queue at most once. If the distance of a queued node
+ * shrinks, its key is lowered with decreaseKey() instead of searching the
+ * queue with contains(). Distances and predecessors are kept in primitive
+ * arrays indexed by node id; the Node fields are only written on request by
+ * writeToNodes().
+ *
+ * An engine can be run several times. The arrays and the queue are reused
+ * as long as the number of nodes of the graph does not change.
+ */
+public class IndexedDijkstra {
+
+	private final DiGraph graph;
+
+	/** node objects by id, refreshed on every run */
+	private Node[] nodeById;
+	/** distance of every node from the start node of the last run */
+	private double[] distance;
+	/** predecessor of every node on its shortest path, -1 if there is none */
+	private int[] predecessor;
+	private IndexMinPQ<Double> queue;
+
+	/**
+	 * Creates an engine for the given graph.
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 */
+	public IndexedDijkstra(DiGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes.
+	 *
+	 * @param startNodeID
+	 *            the id of the start node, as returned by addNode().id
+	 */
+	public void run(int startNodeID) {
+		prepare();
+		distance[startNodeID] = 0.0;
+		queue.insert(startNodeID, 0.0);
+
+		while (!queue.isEmpty()) {
+			int v = queue.delMin();
+			double dv = distance[v];
+			for (Edge e : nodeById[v].edges) {
+				int w = e.endnode.id;
+				double d = dv + e.weight;
+				if (d < distance[w]) {
+					distance[w] = d;
+					predecessor[w] = v;
+					if (queue.contains(w)) {
+						queue.decreaseKey(w, d);
+					} else {
+						queue.insert(w, d);
+					}
+				}
+			}
+		}
+	}
+
+	// (re-)allocates the workspace if the graph has grown and resets it
+	private void prepare() {
+		int n = graph.nodes.size();
+		if (distance == null || distance.length != n) {
+			nodeById = new Node[n];
+			distance = new double[n];
+			predecessor = new int[n];
+			queue = new IndexMinPQ<Double>(n);
+		}
+		for (int v = 0; v < n; v++) {
+			nodeById[v] = graph.nodes.get(v);
+		}
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		Arrays.fill(predecessor, -1);
+	}
+
+	/**
+	 * @return distance of every node from the start node of the last run,
+	 *         infinity for unreachable nodes. The array is reused by the
+	 *         next run.
+	 */
+	public double[] getDistances() {
+		return distance;
+	}
+
+	/**
+	 * @return predecessor of every node on its shortest path, -1 for the
+	 *         start node and unreachable nodes. The array is reused by the
+	 *         next run.
+	 */
+	public int[] getPredecessors() {
+		return predecessor;
+	}
+
+	/**
+	 * Copies the result of the last run into Node.distance and
+	 * Node.predecessor, as populateDijkstraFrom() would have done.
+	 */
+	public void writeToNodes() {
+		for (int v = 0; v < nodeById.length; v++) {
+			nodeById[v].distance = distance[v];
+			nodeById[v].predecessor = predecessor[v] == -1 ? null : nodeById[predecessor[v]];
+		}
+	}
+}
@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * All-pairs shortest paths with Johnson's algorithm, for graphs that may have
+ * negative edges but no negative cycles.
+ *
+ * One queue based Bellman-Ford from an extra node with an edge of weight 0 to
+ * every node gives a potential h for every node. The edge weights
+ * w(u,v) + h(u) - h(v) are non-negative and every path between two nodes
+ * changes its length by the same amount, so shortest paths stay shortest.
+ * Then one Dijkstra search per source runs on the reweighted graph, the
+ * searches of different sources in parallel on a ForkJoinPool with a reused
+ * workspace per thread, see DistanceTable.
+ *
+ * The result is an n*n table of doubles in row-major order: the distance
+ * from u to v is at index u * n + v, infinity if v is not reachable from u.
+ * It is either returned as an array or written to a memory mapped file, for
+ * graphs where n*n doubles do not fit into the heap.
+ */
+public class Johnson {
+
+	/** rows per task below which a range is not split any further */
+	private static final int MIN_CHUNK = 4;
+	/** largest part of the output file that is mapped at once */
+	private static final long MAX_MAPPED_BYTES = 1 << 30;
+
+	private final double[] potential;
+	private final DistanceTable dijkstra;
+	private final int[] allNodes;
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	/**
+	 * Creates an engine that runs on its own pool.
+	 *
+	 * @param graph
+	 *            the graph to search, edge weights may be negative
+	 * @param parallelism
+	 *            number of worker threads
+	 * @throws RuntimeException
+	 *             if the graph contains a negative cycle
+	 */
+	public Johnson(CsrGraph graph, int parallelism) {
+		this(graph, new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates an engine that runs on the given pool.
+	 *
+	 * @param graph
+	 *            the graph to search, edge weights may be negative
+	 * @param pool
+	 *            the pool to run the searches on
+	 * @throws RuntimeException
+	 *             if the graph contains a negative cycle
+	 */
+	public Johnson(CsrGraph graph, ForkJoinPool pool) {
+		this(graph, pool, false);
+	}
+
+	private Johnson(CsrGraph graph, ForkJoinPool pool, boolean ownsPool) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		int n = graph.getNodeCount();
+		int m = graph.getEdgeCount();
+
+		// the extra node n reaches every node with weight 0, so every cycle is reachable
+		int[] sources = new int[m + n];
+		int[] targets = new int[m + n];
+		double[] weights = new double[m + n];
+		for (int v = 0; v < n; v++) {
+			for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+				sources[e] = v;
+				targets[e] = graph.targets[e];
+				weights[e] = graph.weights[e];
+			}
+			sources[m + v] = n;
+			targets[m + v] = v;
+		}
+		double[] h = CsrGraph.fromEdges(n + 1, sources, targets, weights, m + n).populateQueueBellmanFordFrom(n, null);
+		potential = new double[n];
+		System.arraycopy(h, 0, potential, 0, n);
+
+		// rounding may leave tiny negative weights for tight edges
+		double[] reweights = new double[m];
+		for (int v = 0; v < n; v++) {
+			for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+				reweights[e] = Math.max(0.0, graph.weights[e] + potential[v] - potential[graph.targets[e]]);
+			}
+		}
+		dijkstra = new DistanceTable(new CsrGraph(graph.offsets, graph.targets, reweights), pool);
+
+		allNodes = new int[n];
+		for (int v = 0; v < n; v++) {
+			allNodes[v] = v;
+		}
+	}
+
+	/**
+	 * @return the potential of every node, its distance from the extra node
+	 */
+	public double[] getPotentials() {
+		return potential.clone();
+	}
+
+	/**
+	 * Calculates the distances between all pairs of nodes.
+	 *
+	 * @return the distance from u to v at index u * n + v
+	 * @throws IllegalArgumentException
+	 *             if n*n is too large for an array, use allPairsToFile()
+	 *             instead
+	 */
+	public double[] allPairs() {
+		int n = allNodes.length;
+		if ((long) n * n > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("too many nodes for an array, write the table to a file");
+		}
+		final double[] table = new double[n * n];
+		pool.invoke(new Rows(0, n, new RowSink() {
+			@Override
+			public void store(int source, double[] row) {
+				System.arraycopy(row, 0, table, source * row.length, row.length);
+			}
+		}));
+		return table;
+	}
+
+	/**
+	 * Calculates the distances between all pairs of nodes into a file. The
+	 * file is memory mapped in blocks of rows, which are filled in parallel,
+	 * so the table never has to fit into the heap.
+	 *
+	 * The file contains the n*n distances as little endian doubles in
+	 * row-major order, the distance from u to v starts at byte 8 * (u * n +
+	 * v). An existing file is overwritten.
+	 *
+	 * @param file
+	 *            url to file
+	 * @throws IOException
+	 */
+	public void allPairsToFile(String file) throws IOException {
+		int n = allNodes.length;
+		long rowBytes = 8L * n;
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(0);
+			raf.setLength(rowBytes * n);
+			FileChannel channel = raf.getChannel();
+			int rowsPerBlock = (int) Math.max(1, Math.min(n, MAX_MAPPED_BYTES / Math.max(1, rowBytes)));
+			for (int first = 0; first < n; first += rowsPerBlock) {
+				final int blockStart = first;
+				int blockEnd = Math.min(n, first + rowsPerBlock);
+				final DoubleBuffer block = channel
+						.map(FileChannel.MapMode.READ_WRITE, rowBytes * first, rowBytes * (blockEnd - first))
+						.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+				pool.invoke(new Rows(blockStart, blockEnd, new RowSink() {
+					@Override
+					public void store(int source, double[] row) {
+						// every task writes its own rows through its own view of the block
+						DoubleBuffer target = block.duplicate();
+						target.position((source - blockStart) * row.length);
+						target.put(row);
+					}
+				}));
+			}
+		} finally {
+			raf.close();
+		}
+	}
+
+	/** Receives the finished rows, from several threads at once. */
+	private interface RowSink {
+		void store(int source, double[] row);
+	}
+
+	/**
+	 * Calculates the rows from begin to end, split into subtasks, and hands
+	 * them to the sink. The row array is reused, so the sink has to copy it.
+	 */
+	private class Rows extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int begin;
+		private final int end;
+		private final RowSink sink;
+
+		Rows(int begin, int end, RowSink sink) {
+			this.begin = begin;
+			this.end = end;
+			this.sink = sink;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin > MIN_CHUNK) {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new Rows(begin, middle, sink), new Rows(middle, end, sink));
+				return;
+			}
+
+			double[] row = new double[allNodes.length];
+			for (int source = begin; source < end; source++) {
+				dijkstra.searchRow(source, allNodes, row);
+				// undo the reweighting: d(u,v) = d'(u,v) - h(u) + h(v)
+				for (int v = 0; v < row.length; v++) {
+					if (row[v] != Double.POSITIVE_INFINITY) {
+						row[v] += potential[v] - potential[source];
+					}
+				}
+				sink.store(source, row);
+			}
+		}
+	}
+
+	/**
+	 * Shuts down the pool of the engine if it was created by the engine. A
+	 * pool passed in by the caller is left running.
+	 */
+	public void shutdown() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,368 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The k shortest loopless paths between two nodes with Yen's algorithm.
+ *
+ * The first path is a plain shortest path. Every further path deviates from
+ * an earlier one: for every spur node on the last path found, the nodes of
+ * the root path before the spur node are blocked, as well as the next hop
+ * of every found path that shares the same root, and a shortest spur path
+ * from the spur node to the target is searched. Root plus spur path is a
+ * candidate. All candidates go into one heap keyed by their cost, duplicates
+ * are dropped, and the cheapest candidate becomes the next path. Following
+ * Lawler, the spur nodes before the node where the last path deviated from
+ * its parent are skipped, their candidates are already known.
+ *
+ * The spur searches of one iteration do not depend on each other and run in
+ * parallel on a ForkJoinPool. Each worker thread keeps one workspace that is
+ * reused for all of its searches. Blocked nodes and edges are marked with a
+ * stamp in the workspace, so the graph itself is never copied or changed.
+ *
+ * Paths are sequences of nodes; of several parallel edges only the cheapest
+ * one is used. All edge weights have to be non-negative.
+ */
+public class KShortestPaths {
+
+	/** spur nodes per task below which a range is not split any further */
+	private static final int MIN_CHUNK = 2;
+
+	private final CsrGraph graph;
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+	private final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace(graph.getNodeCount());
+		}
+	};
+
+	/**
+	 * Creates an engine that runs on its own pool.
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 * @param parallelism
+	 *            number of worker threads
+	 */
+	public KShortestPaths(CsrGraph graph, int parallelism) {
+		this(graph, new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates an engine that runs on the given pool.
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 * @param pool
+	 *            the pool to run the searches on
+	 */
+	public KShortestPaths(CsrGraph graph, ForkJoinPool pool) {
+		this(graph, pool, false);
+	}
+
+	private KShortestPaths(CsrGraph graph, ForkJoinPool pool, boolean ownsPool) {
+		this.graph = graph;
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	/** A found path or a candidate, with the cost of reaching each of its nodes. */
+	private static class Path {
+		final int[] nodes;
+		final double[] prefixCost;
+		/** index of the spur node at which it left the path it was derived from */
+		final int deviation;
+
+		Path(int[] nodes, double[] prefixCost, int deviation) {
+			this.nodes = nodes;
+			this.prefixCost = prefixCost;
+			this.deviation = deviation;
+		}
+
+		double cost() {
+			return prefixCost[prefixCost.length - 1];
+		}
+	}
+
+	/** Candidates by cost, ties broken by length and then by the nodes. */
+	private static final Comparator<Path> BY_COST = new Comparator<Path>() {
+		@Override
+		public int compare(Path a, Path b) {
+			int c = Double.compare(a.cost(), b.cost());
+			if (c != 0) {
+				return c;
+			}
+			if (a.nodes.length != b.nodes.length) {
+				return a.nodes.length - b.nodes.length;
+			}
+			for (int i = 0; i < a.nodes.length; i++) {
+				if (a.nodes[i] != b.nodes[i]) {
+					return a.nodes[i] - b.nodes[i];
+				}
+			}
+			return 0;
+		}
+	};
+
+	/**
+	 * Calculates up to k shortest loopless paths from the start node to the
+	 * target node.
+	 *
+	 * @param startNodeID
+	 *            the id of the start node
+	 * @param targetNodeID
+	 *            the id of the target node
+	 * @param k
+	 *            number of paths wanted
+	 * @param costs
+	 *            if not null, receives the cost of every returned path
+	 * @return the ids of the nodes of the paths in the order of their cost,
+	 *         fewer than k if there are no more loopless paths
+	 */
+	public int[][] findPaths(int startNodeID, int targetNodeID, int k, double[] costs) {
+		List<Path> found = new ArrayList<Path>();
+		Path first = workspaces.get().spurPath(graph, null, 0, startNodeID, targetNodeID, new int[0], 0);
+		if (first != null && k > 0) {
+			found.add(first);
+		}
+
+		PriorityQueue<Path> candidates = new PriorityQueue<Path>(16, BY_COST);
+		Set<List<Integer>> seen = new HashSet<List<Integer>>();
+		if (first != null) {
+			seen.add(asList(first.nodes));
+		}
+		while (found.size() > 0 && found.size() < k) {
+			Path last = found.get(found.size() - 1);
+			int spurs = last.nodes.length - 1;
+			Path[] spurResults = new Path[spurs];
+			if (spurs > last.deviation) {
+				pool.invoke(new Spurs(found, last, targetNodeID, spurResults, last.deviation, spurs));
+			}
+			for (Path candidate : spurResults) {
+				if (candidate != null && seen.add(asList(candidate.nodes))) {
+					candidates.add(candidate);
+				}
+			}
+			if (candidates.isEmpty()) {
+				break;
+			}
+			found.add(candidates.poll());
+		}
+
+		int[][] paths = new int[found.size()][];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = found.get(i).nodes;
+			if (costs != null) {
+				costs[i] = found.get(i).cost();
+			}
+		}
+		return paths;
+	}
+
+	private static List<Integer> asList(int[] nodes) {
+		List<Integer> list = new ArrayList<Integer>(nodes.length);
+		for (int v : nodes) {
+			list.add(v);
+		}
+		return list;
+	}
+
+	/** Runs the spur searches at the spur indices from begin to end, split into subtasks. */
+	private class Spurs extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final List<Path> found;
+		private final Path last;
+		private final int target;
+		private final Path[] results;
+		private final int begin;
+		private final int end;
+
+		Spurs(List<Path> found, Path last, int target, Path[] results, int begin, int end) {
+			this.found = found;
+			this.last = last;
+			this.target = target;
+			this.results = results;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin > MIN_CHUNK) {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new Spurs(found, last, target, results, begin, middle),
+						new Spurs(found, last, target, results, middle, end));
+				return;
+			}
+			Workspace workspace = workspaces.get();
+			int[] banned = new int[found.size()];
+			for (int i = begin; i < end; i++) {
+				// next hops of all found paths with the same root
+				int bannedCount = 0;
+				for (Path p : found) {
+					if (p.nodes.length > i + 1 && sameRoot(p.nodes, last.nodes, i)) {
+						banned[bannedCount++] = p.nodes[i + 1];
+					}
+				}
+				results[i] = workspace.spurPath(graph, last, i, last.nodes[i], target, banned, bannedCount);
+			}
+		}
+	}
+
+	// true if both paths agree up to and including index i
+	private static boolean sameRoot(int[] a, int[] b, int i) {
+		for (int j = i; j >= 0; j--) {
+			if (a[j] != b[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Distances, queue and marks of one thread. */
+	private static class Workspace {
+		private final double[] distance;
+		private final int[] parent;
+		private final IndexMinPQ<Double> queue;
+		/** search number for which a node is blocked or a banned next hop */
+		private final int[] blockedStamp;
+		private final int[] bannedStamp;
+		private int stamp;
+
+		/** nodes with a finite distance, to reset them */
+		private int[] touched = new int[16];
+		private int touchedCount;
+
+		Workspace(int nodeCount) {
+			distance = new double[nodeCount];
+			Arrays.fill(distance, Double.POSITIVE_INFINITY);
+			parent = new int[nodeCount];
+			queue = new IndexMinPQ<Double>(Math.max(1, nodeCount));
+			blockedStamp = new int[nodeCount];
+			bannedStamp = new int[nodeCount];
+		}
+
+		/**
+		 * Searches the shortest path from the spur node to the target that
+		 * avoids the root nodes before the spur node and does not leave the
+		 * spur node to a banned next hop.
+		 *
+		 * @return root plus spur path, or null if there is none
+		 */
+		Path spurPath(CsrGraph graph, Path root, int spurIndex, int spur, int target, int[] banned,
+				int bannedCount) {
+			stamp++;
+			for (int j = 0; j < spurIndex; j++) {
+				blockedStamp[root.nodes[j]] = stamp;
+			}
+			for (int j = 0; j < bannedCount; j++) {
+				bannedStamp[banned[j]] = stamp;
+			}
+
+			distance[spur] = 0.0;
+			parent[spur] = -1;
+			touch(spur);
+			queue.insert(spur, 0.0);
+			while (!queue.isEmpty()) {
+				int v = queue.delMin();
+				if (v == target) {
+					break;
+				}
+				for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+					int w = graph.targets[e];
+					if (blockedStamp[w] == stamp || (v == spur && bannedStamp[w] == stamp)) {
+						continue;
+					}
+					double d = distance[v] + graph.weights[e];
+					if (d < distance[w]) {
+						if (distance[w] == Double.POSITIVE_INFINITY) {
+							touch(w);
+							queue.insert(w, d);
+						} else {
+							queue.decreaseKey(w, d);
+						}
+						distance[w] = d;
+						parent[w] = v;
+					}
+				}
+			}
+
+			Path path = null;
+			if (distance[target] != Double.POSITIVE_INFINITY) {
+				int spurLength = 0;
+				for (int v = target; v != -1; v = parent[v]) {
+					spurLength++;
+				}
+				int[] nodes = new int[spurIndex + spurLength];
+				double[] prefixCost = new double[nodes.length];
+				double rootCost = 0.0;
+				if (root != null) {
+					System.arraycopy(root.nodes, 0, nodes, 0, spurIndex);
+					System.arraycopy(root.prefixCost, 0, prefixCost, 0, spurIndex);
+					rootCost = root.prefixCost[spurIndex];
+				}
+				int pos = nodes.length;
+				for (int v = target; v != -1; v = parent[v]) {
+					pos--;
+					nodes[pos] = v;
+					prefixCost[pos] = rootCost + distance[v];
+				}
+				path = new Path(nodes, prefixCost, spurIndex);
+			}
+			reset();
+			return path;
+		}
+
+		private void touch(int v) {
+			if (touchedCount == touched.length) {
+				touched = Arrays.copyOf(touched, 2 * touchedCount);
+			}
+			touched[touchedCount++] = v;
+		}
+
+		// restores the state of a fresh workspace for the touched nodes only
+		private void reset() {
+			for (int i = 0; i < touchedCount; i++) {
+				int v = touched[i];
+				distance[v] = Double.POSITIVE_INFINITY;
+				if (queue.contains(v)) {
+					queue.delete(v);
+				}
+			}
+			touchedCount = 0;
+		}
+	}
+
+	/**
+	 * @return the graph this engine searches
+	 */
+	public CsrGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return number of worker threads of the pool of this engine
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Shuts down the pool of the engine if it was created by the engine. A
+	 * pool passed in by the caller is left running.
+	 */
+	public void shutdown() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+}
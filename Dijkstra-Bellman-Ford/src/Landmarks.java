@@ -0,0 +1,151 @@
+/**
+ * Landmarks for goal-directed search with A* on graphs without coordinates,
+ * known as ALT (A*, landmarks, triangle inequality).
+ *
+ * For every landmark L the distances d(L,v) from L and d(v,L) to L are
+ * stored for every node v. By the triangle inequality
+ * d(v,t) >= d(L,t) - d(L,v) and d(v,t) >= d(v,L) - d(t,L), so the largest of
+ * these differences over all landmarks is a lower bound of the distance from
+ * v to t, which AltSearch uses as the heuristic of A*.
+ *
+ * The landmarks are selected with the farthest heuristic: the first one is
+ * the node farthest away from node 0, every further one the node farthest
+ * away from all landmarks chosen so far, measured by d(L,v) + d(v,L). Nodes
+ * in parts of the graph the landmarks do not reach come first. Each landmark
+ * costs one Dijkstra search on the graph and one on the reverse graph.
+ *
+ * The distances are kept in two flat arrays with the k values of a node next
+ * to each other, so computing a bound reads two short runs of memory. The
+ * tables are not changed after construction and may be shared by any number
+ * of threads. They can be saved next to the graph file with
+ * GraphIO.saveLandmarks().
+ */
+public class Landmarks {
+
+	private final CsrGraph graph;
+	final int[] landmarks;
+	/** d(L_i, v) at index v * k + i */
+	final double[] fromLandmark;
+	/** d(v, L_i) at index v * k + i */
+	final double[] toLandmark;
+
+	/**
+	 * Selects the landmarks and calculates their distances. All edge weights
+	 * have to be non-negative.
+	 *
+	 * @param graph
+	 *            the graph
+	 * @param count
+	 *            number of landmarks, at most the number of nodes are used
+	 */
+	public Landmarks(CsrGraph graph, int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("at least one landmark is needed");
+		}
+		this.graph = graph;
+		int n = graph.getNodeCount();
+		int k = Math.min(count, n);
+		landmarks = new int[k];
+		fromLandmark = new double[k * n];
+		toLandmark = new double[k * n];
+		if (k == 0) {
+			return;
+		}
+
+		CsrGraph reverse = graph.reverse();
+		boolean[] chosen = new boolean[n];
+		// distance of every node to the landmarks so far, at first to node 0
+		double[] separation = new double[n];
+		double[] from = graph.populateDijkstraFrom(0);
+		double[] to = reverse.populateDijkstraFrom(0);
+		for (int v = 0; v < n; v++) {
+			separation[v] = from[v] + to[v];
+		}
+
+		for (int i = 0; i < k; i++) {
+			int landmark = farthest(separation, chosen);
+			landmarks[i] = landmark;
+			chosen[landmark] = true;
+			from = graph.populateDijkstraFrom(landmark);
+			to = reverse.populateDijkstraFrom(landmark);
+			for (int v = 0; v < n; v++) {
+				fromLandmark[v * k + i] = from[v];
+				toLandmark[v * k + i] = to[v];
+				double d = from[v] + to[v];
+				separation[v] = i == 0 ? d : Math.min(separation[v], d);
+			}
+		}
+	}
+
+	/**
+	 * Creates landmarks from tables calculated earlier, see
+	 * GraphIO.loadLandmarks().
+	 */
+	Landmarks(CsrGraph graph, int[] landmarks, double[] fromLandmark, double[] toLandmark) {
+		this.graph = graph;
+		this.landmarks = landmarks;
+		this.fromLandmark = fromLandmark;
+		this.toLandmark = toLandmark;
+	}
+
+	// the node with the largest separation that is not a landmark yet
+	private static int farthest(double[] separation, boolean[] chosen) {
+		int best = -1;
+		for (int v = 0; v < separation.length; v++) {
+			if (!chosen[v] && (best == -1 || separation[v] > separation[best])) {
+				best = v;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Calculates a lower bound of the distance between two nodes.
+	 *
+	 * @param nodeID
+	 *            the id of the node
+	 * @param targetNodeID
+	 *            the id of the target node
+	 * @return a lower bound of d(node, target), infinity if the landmarks
+	 *         show that there is no path
+	 */
+	public double lowerBound(int nodeID, int targetNodeID) {
+		int k = landmarks.length;
+		int v = nodeID * k;
+		int t = targetNodeID * k;
+		double bound = 0.0;
+		for (int i = 0; i < k; i++) {
+			// a difference of two infinities is NaN and fails both comparisons
+			double d = fromLandmark[t + i] - fromLandmark[v + i];
+			if (d > bound) {
+				bound = d;
+			}
+			d = toLandmark[v + i] - toLandmark[t + i];
+			if (d > bound) {
+				bound = d;
+			}
+		}
+		return bound;
+	}
+
+	/**
+	 * @return the graph the distances belong to
+	 */
+	public CsrGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return number of landmarks
+	 */
+	public int getCount() {
+		return landmarks.length;
+	}
+
+	/**
+	 * @return the ids of the landmarks in the order of their selection
+	 */
+	public int[] getLandmarks() {
+		return landmarks.clone();
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ * Thrown by the Bellman-Ford variants that can name the negative cycle they
+ * found. It is a RuntimeException with the same message as the one thrown by
+ * the other variants, so existing handlers keep working.
+ */
+public class NegativeCycleException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int[] cycle;
+
+	/**
+	 * @param cycle
+	 *            ids of the nodes on the cycle
+	 */
+	public NegativeCycleException(int[] cycle) {
+		super("There is a negative cycle.");
+		this.cycle = cycle;
+	}
+
+	/**
+	 * @return the ids of the nodes on the cycle in the order of its edges,
+	 *         the last node has an edge back to the first one
+	 */
+	public int[] getCycle() {
+		return cycle.clone();
+	}
+}
@@ -0,0 +1,171 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Edge centric Bellman-Ford that relaxes the edges of every pass in parallel.
+ *
+ * The edges of the CsrGraph are swept as one flat array which is split into
+ * chunks on a ForkJoinPool. All threads share one distance array and lower
+ * entries with a compare-and-set loop, so an update is never lost. A pass
+ * ends when all chunks are done; the search stops after the first pass
+ * without any change. If there is still a change in pass n, a negative cycle
+ * is reachable from the start node.
+ *
+ * The distances are the same as the ones of the sequential
+ * populateBellmanFordFrom(). The predecessors are chosen after the last pass
+ * by a search over the edges whose relaxation is tight, so they always form
+ * a tree rooted at the start node.
+ */
+public class ParallelBellmanFord {
+
+	/** edges per task below which a chunk is not split any further */
+	private static final int MIN_CHUNK = 1024;
+
+	private final CsrGraph graph;
+	/** start node of every edge, parallel to graph.targets */
+	private final int[] sources;
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+	private final int chunkSize;
+
+	/**
+	 * Creates an engine that runs on its own pool.
+	 *
+	 * @param graph
+	 *            the graph to search
+	 * @param parallelism
+	 *            number of worker threads
+	 */
+	public ParallelBellmanFord(CsrGraph graph, int parallelism) {
+		this(graph, new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates an engine that runs on the given pool.
+	 *
+	 * @param graph
+	 *            the graph to search
+	 * @param pool
+	 *            the pool to run the passes on
+	 */
+	public ParallelBellmanFord(CsrGraph graph, ForkJoinPool pool) {
+		this(graph, pool, false);
+	}
+
+	private ParallelBellmanFord(CsrGraph graph, ForkJoinPool pool, boolean ownsPool) {
+		this.graph = graph;
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		this.sources = new int[graph.getEdgeCount()];
+		for (int v = 0; v < graph.getNodeCount(); v++) {
+			for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+				sources[e] = v;
+			}
+		}
+		// a few chunks per thread to balance uneven edge costs
+		this.chunkSize = Math.max(MIN_CHUNK, graph.getEdgeCount() / (8 * pool.getParallelism()) + 1);
+	}
+
+	/**
+	 * Calculates the shortest paths from the start node to all nodes. Edge
+	 * weights may be negative.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param predecessors
+	 *            if not null, receives the predecessor of every node on its
+	 *            shortest path, -1 for the start node and unreachable nodes
+	 * @return distance of every node, infinity for unreachable nodes
+	 * @throws RuntimeException
+	 *             if a negative cycle is reachable from the start node
+	 */
+	public double[] populateBellmanFordFrom(int startNodeID, int[] predecessors) {
+		int n = graph.getNodeCount();
+		AtomicLongArray distance = new AtomicLongArray(n);
+		long infinity = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+		for (int v = 0; v < n; v++) {
+			distance.set(v, infinity);
+		}
+		distance.set(startNodeID, Double.doubleToLongBits(0.0));
+
+		boolean changed = true;
+		for (int k = 0; k < n && changed; k++) {
+			Pass pass = new Pass(distance, 0, graph.getEdgeCount());
+			pool.invoke(pass);
+			changed = pass.changed;
+		}
+		if (changed) {
+			throw new RuntimeException("There is a negative cycle.");
+		}
+
+		double[] result = new double[n];
+		for (int v = 0; v < n; v++) {
+			result[v] = Double.longBitsToDouble(distance.get(v));
+		}
+		if (predecessors != null) {
+			graph.buildShortestPathTree(startNodeID, result, predecessors);
+		}
+		return result;
+	}
+
+	/**
+	 * Relaxes the edges from begin to end, split into subtasks. The changed
+	 * flag of a task covers its subtasks after invoke() has returned.
+	 */
+	private class Pass extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final AtomicLongArray distance;
+		private final int begin;
+		private final int end;
+		boolean changed;
+
+		Pass(AtomicLongArray distance, int begin, int end) {
+			this.distance = distance;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin > chunkSize) {
+				int middle = (begin + end) >>> 1;
+				Pass left = new Pass(distance, begin, middle);
+				Pass right = new Pass(distance, middle, end);
+				invokeAll(left, right);
+				changed = left.changed || right.changed;
+				return;
+			}
+
+			for (int e = begin; e < end; e++) {
+				double du = Double.longBitsToDouble(distance.get(sources[e]));
+				if (du == Double.POSITIVE_INFINITY) {
+					continue;
+				}
+				double d = du + graph.weights[e];
+				int w = graph.targets[e];
+
+				// atomic minimum: retry until d is stored or not smaller anymore
+				long current = distance.get(w);
+				while (d < Double.longBitsToDouble(current)) {
+					if (distance.compareAndSet(w, current, Double.doubleToLongBits(d))) {
+						changed = true;
+						break;
+					}
+					current = distance.get(w);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shuts down the pool of the engine if it was created by the engine. A
+	 * pool passed in by the caller is left running.
+	 */
+	public void shutdown() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+}
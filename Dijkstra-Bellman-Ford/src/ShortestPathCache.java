@@ -0,0 +1,173 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Cache for point-to-point shortest path queries on a DiGraph.
+ *
+ * The paths are found with a bidirectional Dijkstra search and stored as
+ * arrays of node ids together with their length. When the cache is full, the
+ * least recently used entries are evicted. The size is bounded by the total
+ * number of nodes of all stored paths, not by the number of entries, because
+ * a long path takes much more memory than a short one.
+ *
+ * Every entry belongs to one modification count of the graph. As soon as
+ * the graph reports another count, all entries are dropped, so a cached
+ * answer is never older than the graph. Queries may come from several
+ * threads at once; the searches of misses run outside of the lock.
+ */
+public class ShortestPathCache {
+
+	/** memory of an entry apart from its path, counted in nodes */
+	private static final int ENTRY_OVERHEAD = 8;
+
+	private final DiGraph graph;
+	private final long maxCachedNodes;
+	/** entries in order of their last use, the least recently used first */
+	private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+
+	/** modification count of the graph the entries belong to */
+	private int version;
+	private long cachedNodes;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param graph
+	 *            the graph to search, all edge weights have to be non-negative
+	 * @param maxCachedNodes
+	 *            how many nodes all cached paths may have together, every
+	 *            entry counts as its path plus eight nodes
+	 */
+	public ShortestPathCache(DiGraph graph, int maxCachedNodes) {
+		if (maxCachedNodes < 0) {
+			throw new IllegalArgumentException("the size of the cache must not be negative");
+		}
+		this.graph = graph;
+		this.maxCachedNodes = maxCachedNodes;
+		this.version = graph.getModificationCount();
+	}
+
+	/** A path found by a search, null if there is none. */
+	private static class Entry {
+		final int[] path;
+		final double distance;
+
+		Entry(int[] path, double distance) {
+			this.path = path;
+			this.distance = distance;
+		}
+
+		long size() {
+			return ENTRY_OVERHEAD + (path == null ? 0 : path.length);
+		}
+	}
+
+	/**
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param targetNodeID
+	 *            the index of the target node, as returned by addNode().id.
+	 * @return the list of nodes, or null if no path exists
+	 */
+	public List<Node> getShortestPath(int startNodeID, int targetNodeID) {
+		return graph.toNodeList(lookup(startNodeID, targetNodeID).path);
+	}
+
+	/**
+	 * @param startNodeID
+	 *            the index of the start node, as returned by addNode().id.
+	 * @param targetNodeID
+	 *            the index of the target node, as returned by addNode().id.
+	 * @return length of the shortest path, infinity if no path exists
+	 */
+	public double getDistance(int startNodeID, int targetNodeID) {
+		return lookup(startNodeID, targetNodeID).distance;
+	}
+
+	private Entry lookup(int startNodeID, int targetNodeID) {
+		Long key = ((long) startNodeID << 32) | (targetNodeID & 0xffffffffL);
+		int current = graph.getModificationCount();
+		synchronized (this) {
+			if (current != version) {
+				clear();
+				version = current;
+			}
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				hits++;
+				return entry;
+			}
+			misses++;
+		}
+
+		BidirectionalDijkstra engine = graph.bidirectionalEngine();
+		int[] path = engine.findPath(startNodeID, targetNodeID);
+		Entry entry = new Entry(path, engine.getDistance());
+
+		synchronized (this) {
+			// a search for an older graph must not be stored
+			if (current == version && entry.size() <= maxCachedNodes && !entries.containsKey(key)) {
+				entries.put(key, entry);
+				cachedNodes += entry.size();
+				evict();
+			}
+		}
+		return entry;
+	}
+
+	// removes the least recently used entries until the cache fits
+	private void evict() {
+		Iterator<Entry> it = entries.values().iterator();
+		while (cachedNodes > maxCachedNodes) {
+			cachedNodes -= it.next().size();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Removes all entries. The counters are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		cachedNodes = 0;
+	}
+
+	/**
+	 * @return number of cached paths
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return memory used by the entries, counted in nodes
+	 */
+	public synchronized long getCachedNodeCount() {
+		return cachedNodes;
+	}
+
+	/**
+	 * @return number of queries answered from the cache
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return number of queries that needed a search
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * Sets the hit and miss counters to zero.
+	 */
+	public synchronized void resetCounters() {
+		hits = 0;
+		misses = 0;
+	}
+}
@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+/**
+ * Result of a single source shortest path search: the distance and the
+ * parent of every node on its shortest path from the start node.
+ *
+ * A tree is created by the search and not changed afterwards, so it can be
+ * shared between threads. Unlike the populate methods of DiGraph, a search
+ * that returns a ShortestPathTree keeps all of its state in local arrays and
+ * leaves the graph untouched, so any number of threads can query one graph
+ * at the same time.
+ */
+public class ShortestPathTree {
+
+	private final int startNodeID;
+	private final double[] distance;
+	private final int[] parent;
+
+	/**
+	 * Creates a tree from the arrays of a finished search. The arrays are
+	 * not copied and must not be changed afterwards.
+	 *
+	 * @param startNodeID
+	 *            id of the start node
+	 * @param distance
+	 *            distance of every node, infinity for unreachable nodes
+	 * @param parent
+	 *            predecessor of every node, -1 for the start node and
+	 *            unreachable nodes
+	 */
+	ShortestPathTree(int startNodeID, double[] distance, int[] parent) {
+		this.startNodeID = startNodeID;
+		this.distance = distance;
+		this.parent = parent;
+	}
+
+	/**
+	 * @return id of the start node
+	 */
+	public int getStartNodeID() {
+		return startNodeID;
+	}
+
+	/**
+	 * @return number of nodes of the searched graph
+	 */
+	public int getNodeCount() {
+		return distance.length;
+	}
+
+	/**
+	 * @param nodeID
+	 *            id of a node
+	 * @return length of the shortest path to the node, infinity if it is not
+	 *         reachable
+	 */
+	public double getDistance(int nodeID) {
+		return distance[nodeID];
+	}
+
+	/**
+	 * @param nodeID
+	 *            id of a node
+	 * @return id of the predecessor of the node on its shortest path, -1 for
+	 *         the start node and unreachable nodes
+	 */
+	public int getParent(int nodeID) {
+		return parent[nodeID];
+	}
+
+	/**
+	 * @param nodeID
+	 *            id of a node
+	 * @return true if there is a path from the start node to the node
+	 */
+	public boolean hasPathTo(int nodeID) {
+		return distance[nodeID] != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @return a copy of the distances of all nodes
+	 */
+	public double[] getDistances() {
+		return Arrays.copyOf(distance, distance.length);
+	}
+
+	/**
+	 * Follows the parents from the target node back to the start node.
+	 *
+	 * @param targetNodeID
+	 *            id of the target node
+	 * @return the ids of the nodes on the path, starting with the start node,
+	 *         or null if the target is not reachable
+	 */
+	public int[] getPathTo(int targetNodeID) {
+		if (!hasPathTo(targetNodeID)) {
+			return null;
+		}
+		int length = 1;
+		for (int v = targetNodeID; v != startNodeID; v = parent[v]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int v = targetNodeID, i = length - 1; i >= 0; v = parent[v], i--) {
+			path[i] = v;
+		}
+		return path;
+	}
+}
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * A uniform grid over points in the plane, to find the points inside a
+ * rectangle without looking at all of them.
+ *
+ * The points are sorted into square cells of equal size, which are stored
+ * like the rows of a CsrGraph: the indices of the points in cell c are
+ * entries[cellStart[c]] to entries[cellStart[c + 1] - 1]. The cell size is
+ * chosen so that a cell holds a few points on average, so a query costs time
+ * proportional to the area of the rectangle plus the number of points found.
+ * The grid is not changed after construction; when the points move, a new
+ * one is built.
+ */
+public class SpatialGrid {
+
+	/** points per cell on average, if they are spread evenly */
+	private static final int POINTS_PER_CELL = 4;
+
+	/** upper bound of the number of cells per row or column */
+	private static final int MAX_CELLS_PER_SIDE = 4096;
+
+	private final double[] x;
+	private final double[] y;
+	private final double minX;
+	private final double minY;
+	private final double cellSize;
+	private final int columns;
+	private final int rows;
+	private final int[] cellStart;
+	private final int[] entries;
+
+	/**
+	 * Sorts the points into the grid. The arrays are not copied and must not
+	 * be changed while the grid is used.
+	 *
+	 * @param x
+	 *            x coordinate of every point
+	 * @param y
+	 *            y coordinate of every point
+	 */
+	public SpatialGrid(double[] x, double[] y) {
+		if (x.length != y.length) {
+			throw new IllegalArgumentException("there are " + x.length + " x and " + y.length + " y coordinates");
+		}
+		this.x = x;
+		this.y = y;
+		int n = x.length;
+
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		if (n == 0) {
+			minX = minY = maxX = maxY = 0.0;
+		}
+		this.minX = minX;
+		this.minY = minY;
+
+		double width = maxX - minX;
+		double height = maxY - minY;
+		double size = Math.sqrt(Math.max(width * height, 1.0) * POINTS_PER_CELL / Math.max(n, 1));
+		// points on a line have no area, the longer side decides then
+		size = Math.max(size, Math.max(width, height) / MAX_CELLS_PER_SIDE);
+		this.cellSize = size > 0 ? size : 1.0;
+		columns = (int) (width / cellSize) + 1;
+		rows = (int) (height / cellSize) + 1;
+
+		// counting sort of the points by their cell
+		cellStart = new int[columns * rows + 1];
+		int[] cellOf = new int[n];
+		for (int i = 0; i < n; i++) {
+			cellOf[i] = column(x[i]) + row(y[i]) * columns;
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (int c = 0; c < columns * rows; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		int[] next = Arrays.copyOf(cellStart, cellStart.length - 1);
+		entries = new int[n];
+		for (int i = 0; i < n; i++) {
+			entries[next[cellOf[i]]++] = i;
+		}
+	}
+
+	private int column(double px) {
+		return clamp((int) Math.floor((px - minX) / cellSize), columns);
+	}
+
+	private int row(double py) {
+		return clamp((int) Math.floor((py - minY) / cellSize), rows);
+	}
+
+	private static int clamp(int value, int size) {
+		return value < 0 ? 0 : value >= size ? size - 1 : value;
+	}
+
+	/**
+	 * Finds the points inside a rectangle, its border included.
+	 *
+	 * @return the indices of the points, in no particular order
+	 */
+	public int[] query(double minX, double minY, double maxX, double maxY) {
+		int[] found = new int[16];
+		int count = 0;
+		if (!(minX <= maxX && minY <= maxY)) {
+			return new int[0];
+		}
+		int firstColumn = column(minX);
+		int lastColumn = column(maxX);
+		int lastRow = row(maxY);
+		for (int r = row(minY); r <= lastRow; r++) {
+			int rowStart = r * columns;
+			for (int e = cellStart[rowStart + firstColumn]; e < cellStart[rowStart + lastColumn + 1]; e++) {
+				int i = entries[e];
+				if (x[i] >= minX && x[i] <= maxX && y[i] >= minY && y[i] <= maxY) {
+					if (count == found.length) {
+						found = Arrays.copyOf(found, 2 * count);
+					}
+					found[count++] = i;
+				}
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * @return number of points in the grid
+	 */
+	public int size() {
+		return entries.length;
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * Receives the steps of a graph algorithm, e.g. to record or to show them.
+ *
+ * A graph reports to the listener set by setStepListener(). Without one it
+ * reports to NONE, whose methods are empty, so a report costs no more than
+ * a call that does nothing.
+ */
+public interface StepListener {
+
+	/** A listener that ignores all events. */
+	StepListener NONE = new StepListener() {
+		@Override
+		public void nodeColored(int nodeID, int color) {
+		}
+
+		@Override
+		public void edgeColored(int startNodeID, int targetNodeID, int color) {
+		}
+
+		@Override
+		public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+		}
+
+		@Override
+		public void step() {
+		}
+	};
+
+	/**
+	 * The color of a node changed.
+	 * 
+	 * @param nodeID
+	 *            the id of the node
+	 * @param color
+	 *            the new color, Node.WHITE, Node.GRAY or Node.BLACK
+	 */
+	void nodeColored(int nodeID, int color);
+
+	/**
+	 * The color of an edge changed.
+	 * 
+	 * @param startNodeID
+	 *            the id of the start node of the edge
+	 * @param targetNodeID
+	 *            the id of the target node of the edge
+	 * @param color
+	 *            the new color
+	 */
+	void edgeColored(int startNodeID, int targetNodeID, int color);
+
+	/**
+	 * An edge lowered the distance of its target node.
+	 * 
+	 * @param startNodeID
+	 *            the id of the start node of the edge
+	 * @param targetNodeID
+	 *            the id of the target node of the edge
+	 * @param distance
+	 *            the new distance of the target node
+	 */
+	void edgeRelaxed(int startNodeID, int targetNodeID, double distance);
+
+	/**
+	 * A step of the algorithm is complete, the state can be shown.
+	 */
+	void step();
+}
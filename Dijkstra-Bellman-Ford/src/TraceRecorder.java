@@ -0,0 +1,210 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * A StepListener that writes the events of an algorithm to a compact binary
+ * trace, which VisualGraph.replay() can show later at any speed.
+ *
+ * The file starts with the magic number "TRCE" and the version. Every event
+ * is one byte for its kind followed by its arguments: node ids as variable
+ * length integers of 7 bits per byte, colors as one byte and distances as
+ * doubles. A step is a single byte, so a trace of a search over a graph with
+ * small ids takes a few bytes per event.
+ *
+ * The listener methods do not throw: the first write error is kept and
+ * thrown by close(), which has to be called to flush the trace.
+ */
+public class TraceRecorder implements StepListener, Closeable {
+
+	/** first four bytes of a trace, "TRCE" */
+	static final int MAGIC = 0x54524345;
+	/** version of the format written by this class */
+	static final int VERSION = 1;
+
+	private static final int NODE_COLORED = 1;
+	private static final int EDGE_COLORED = 2;
+	private static final int EDGE_RELAXED = 3;
+	private static final int STEP = 4;
+
+	private final DataOutputStream out;
+	private IOException error;
+	private long eventCount;
+
+	/**
+	 * Creates a recorder that writes to the given file.
+	 * 
+	 * @param file
+	 *            url to file, an existing file is overwritten
+	 * @throws IOException
+	 */
+	public TraceRecorder(String file) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+	}
+
+	@Override
+	public void nodeColored(int nodeID, int color) {
+		try {
+			out.writeByte(NODE_COLORED);
+			writeVarInt(nodeID);
+			out.writeByte(color);
+			eventCount++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void edgeColored(int startNodeID, int targetNodeID, int color) {
+		try {
+			out.writeByte(EDGE_COLORED);
+			writeVarInt(startNodeID);
+			writeVarInt(targetNodeID);
+			out.writeByte(color);
+			eventCount++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+		try {
+			out.writeByte(EDGE_RELAXED);
+			writeVarInt(startNodeID);
+			writeVarInt(targetNodeID);
+			out.writeDouble(distance);
+			eventCount++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void step() {
+		try {
+			out.writeByte(STEP);
+			eventCount++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7f) != 0) {
+			out.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private void fail(IOException e) {
+		if (error == null) {
+			error = e;
+		}
+	}
+
+	/**
+	 * @return number of events recorded so far
+	 */
+	public long getEventCount() {
+		return eventCount;
+	}
+
+	/**
+	 * Flushes and closes the trace.
+	 * 
+	 * @throws IOException
+	 *             if writing the trace failed at any time
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Reads a trace and hands its events to a listener, in the order they
+	 * were recorded.
+	 * 
+	 * @param file
+	 *            url to the trace
+	 * @param listener
+	 *            receives the events
+	 * @param delayMillis
+	 *            time to wait after every step, 0 to replay at full speed
+	 * @return number of steps replayed
+	 * @throws IOException
+	 *             if the file can not be read or is not a trace
+	 */
+	public static long replay(String file, StepListener listener, long delayMillis) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a trace");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("unsupported version " + version + " of trace " + file);
+			}
+
+			long steps = 0;
+			int kind;
+			while ((kind = in.read()) != -1) {
+				switch (kind) {
+				case NODE_COLORED:
+					listener.nodeColored(readVarInt(in), in.readUnsignedByte());
+					break;
+				case EDGE_COLORED:
+					listener.edgeColored(readVarInt(in), readVarInt(in), in.readUnsignedByte());
+					break;
+				case EDGE_RELAXED:
+					listener.edgeRelaxed(readVarInt(in), readVarInt(in), in.readDouble());
+					break;
+				case STEP:
+					listener.step();
+					steps++;
+					if (delayMillis > 0) {
+						try {
+							Thread.sleep(delayMillis);
+						} catch (InterruptedException e) {
+							// stop the replay, but keep the interrupt for the caller
+							Thread.currentThread().interrupt();
+							return steps;
+						}
+					}
+					break;
+				default:
+					throw new IOException("unknown event " + kind + " in trace " + file);
+				}
+			}
+			return steps;
+		} catch (EOFException e) {
+			throw new IOException("trace " + file + " ends in the middle of an event");
+		} finally {
+			in.close();
+		}
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("malformed number in trace");
+	}
+}
@@ -8,6 +8,10 @@ public class VisualEdge{
 	VisualNode start;
 	VisualNode target;
 	double weight = 0;
+	/** the last color reported by the graph */
+	int color;
+	/** the color the edge is drawn with in the current image */
+	int drawnColor;
 
 	/**
 	 * Creates an edge.
@@ -19,4 +23,4 @@ public class VisualEdge{
 	}
 	
 }
-
+
@@ -1,11 +1,17 @@
 import java.awt.Dimension;
+import java.awt.Point;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.io.IOException;
 import java.util.TreeMap;
 
 import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
 
 /**
  * This Class provides a visual representation of a graph data structure.
@@ -24,15 +30,25 @@ import javax.swing.JFrame;
  * Therefore, this visualization reduces the speed of your program. Do not use this
  * class for benchmarks.
  * 
+ * Only the nodes and edges whose color changed are drawn again, and large
+ * graphs are drawn with less detail, so graphs with many thousand nodes can
+ * be watched. Turn the mouse wheel to zoom in and out, drag the mouse to
+ * move the view.
+ * 
  * 
  * @author Joerg Schneider <komm@cs.tu-berlin.de>, modified by MPGI2-Tutoren
  */
-public class VisualGraph implements KeyListener, MouseListener{
+public class VisualGraph implements KeyListener, MouseListener, MouseWheelListener, MouseMotionListener{
+
+	/** zoom factor of one step of the mouse wheel */
+	private static final double ZOOM_STEP = 1.25;
 
 	/** The visual representation of the graph */
 	private GraphVisualizer panel;
 	/** updates the visual graph every 100ms */
 	private UpdateThread updateThread;
+	/** last position of the mouse while it is dragged */
+	private Point dragPosition;
 
 	/** The underlying graph data structure */
 	private Graph graph;
@@ -91,6 +107,8 @@ public class VisualGraph implements KeyListener, MouseListener{
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		frame.addKeyListener(this);
 		frame.addMouseListener(this);
+		frame.addMouseWheelListener(this);
+		frame.addMouseMotionListener(this);
 	}
 
 	/**
@@ -155,6 +173,62 @@ public class VisualGraph implements KeyListener, MouseListener{
 	public void update(){
 		this.panel.update();
 	}
+
+	/**
+	 * shows the whole graph again after zooming or moving the view
+	 */
+	public void resetView(){
+		this.panel.resetView();
+		this.updateThread.wakeUp();
+	}
+
+	/**
+	 * Replays a trace written by a TraceRecorder, e.g. of a run on a machine
+	 * without a display. While the replay runs, the colors of the trace are
+	 * shown instead of the colors of the graph; relaxed edges are drawn in
+	 * orange until they get another color. The graph is repainted after
+	 * every step. The colors of the trace stay visible until stopReplay() is
+	 * called.
+	 * 
+	 * @param file
+	 *            url to the trace
+	 * @param delayMillis
+	 *            time to show every step, 0 to replay at full speed
+	 * @return number of steps replayed
+	 * @throws IOException
+	 *             if the file can not be read or is not a trace
+	 */
+	public long replay(String file, long delayMillis) throws IOException {
+		panel.startReplay();
+		return TraceRecorder.replay(file, new StepListener() {
+			@Override
+			public void nodeColored(int nodeID, int color) {
+				panel.setReplayNodeColor(nodeID, color);
+			}
+
+			@Override
+			public void edgeColored(int startNodeID, int targetNodeID, int color) {
+				panel.setReplayEdgeColor(startNodeID, targetNodeID, color);
+			}
+
+			@Override
+			public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+				panel.setReplayEdgeColor(startNodeID, targetNodeID, 4);
+			}
+
+			@Override
+			public void step() {
+				panel.update();
+			}
+		}, delayMillis);
+	}
+
+	/**
+	 * shows the colors of the graph again after a replay
+	 */
+	public void stopReplay(){
+		this.panel.stopReplay();
+	}
 	
 	/**
 	 * Thread used to trigger an periodic repaint of the 
@@ -169,15 +243,23 @@ public class VisualGraph implements KeyListener, MouseListener{
 		
 		public void run(){
 			while(true){				
+				// draws only what changed, nothing if nothing changed
 				this.graph.update();
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e){
-					// the VM doesn't want us to sleep anymore,
-					// so get back to work
+				synchronized (this) {
+					try {
+						wait(100);
+					} catch (InterruptedException e){
+						// the VM doesn't want us to sleep anymore,
+						// so get back to work
+					}
 				}
 			}
 		}		
+
+		/** updates at once instead of after the next 100ms */
+		synchronized void wakeUp(){
+			notify();
+		}
 	}
 
 	public void keyPressed(KeyEvent arg0) {
@@ -205,9 +287,36 @@ public class VisualGraph implements KeyListener, MouseListener{
 	}
 
 	public void mousePressed(MouseEvent e) {
+		dragPosition = toPanel(e);
 	}
 
 	public void mouseReleased(MouseEvent e) {
+		dragPosition = null;
+	}
+
+	public void mouseDragged(MouseEvent e) {
+		// move the view with the mouse
+		Point position = toPanel(e);
+		if (dragPosition != null) {
+			this.panel.pan(position.x - dragPosition.x, position.y - dragPosition.y);
+			this.updateThread.wakeUp();
+		}
+		dragPosition = position;
+	}
+
+	public void mouseMoved(MouseEvent e) {
+	}
+
+	public void mouseWheelMoved(MouseWheelEvent e) {
+		// zoom around the mouse pointer
+		Point position = toPanel(e);
+		this.panel.zoom(Math.pow(ZOOM_STEP, -e.getWheelRotation()), position.x, position.y);
+		this.updateThread.wakeUp();
+	}
+
+	/** the position of the mouse in the drawing area */
+	private Point toPanel(MouseEvent e) {
+		return SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), this.panel);
 	}
 
 }
@@ -1,4 +1,6 @@
-import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A node object. The object contains the position and the label of the
@@ -7,7 +9,17 @@ import java.awt.Point;
  * @author Joerg Schneider <komm@cs.tu-berlin.de>
  */
 public class VisualNode extends Node{
-	Point position;
+	Point2D.Double position;
+	/** edges that end at this node */
+	List<VisualEdge> incoming = new ArrayList<VisualEdge>();
+	/** the last color reported by the graph */
+	int color;
+	/** the color the node is drawn with in the current image */
+	int drawnColor;
+	/** number of the image the node is visible in, see GraphVisualizer */
+	int drawnFrame = -1;
+	/** cell of the node in an aggregated image */
+	int cell;
 	/**
 	 * Creates a new node
 	 */
@@ -29,4 +41,4 @@ public class VisualNode extends Node{
 		return super.equals(o);
 	}
 }
-
+
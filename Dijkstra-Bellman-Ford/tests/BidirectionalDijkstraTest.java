@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.Before;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BidirectionalDijkstraTest {
+
+	private DiGraph road;
+
+	@Before
+	public void setUp() throws Exception {
+		// read graph from file
+		try {
+			road = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+			road.setShowSteps(false);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	public void testAllPairsMatchFullDijkstra() {
+		CsrGraph frozen = road.freeze();
+		BidirectionalDijkstra engine = new BidirectionalDijkstra(frozen);
+
+		for (int start = 0; start < frozen.getNodeCount(); start++) {
+			double[] expected = frozen.populateDijkstraFrom(start);
+			for (int target = 0; target < frozen.getNodeCount(); target++) {
+				int[] path = engine.findPath(start, target);
+				assertEquals("wrong distance " + start + "->" + target,
+						expected[target], engine.getDistance(), 0.0);
+
+				assertEquals(start, path[0]);
+				assertEquals(target, path[path.length - 1]);
+				double length = 0;
+				for (int i = 0; i + 1 < path.length; i++) {
+					length += frozen.getWeight(path[i], path[i + 1]);
+				}
+				assertEquals("path does not have the reported length", expected[target], length, 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testShortestPathDijkstra() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		List<Node> path = g.getShortestPathDijkstra(0, 3);
+
+		assertEquals("[0, 1, 2, 3]", ids(path));
+		// the Node fields are left alone
+		assertNull(g.nodes.get(3).predecessor);
+	}
+
+	@Test
+	public void testUnreachableTarget() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		assertNull(g.getShortestPathDijkstra(3, 0));
+	}
+
+	@Test
+	public void testGraphChangesAreSeen() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+		assertEquals("[0, 1, 2, 3]", ids(g.getShortestPathDijkstra(0, 3)));
+
+		g.addEdge(0, 3, 1);
+		assertEquals("[0, 3]", ids(g.getShortestPathDijkstra(0, 3)));
+	}
+
+	@Test
+	public void testSettlesFewerNodesThanFullSearch() {
+		// 100 x 100 grid with edges in both directions
+		int size = 100;
+		DiGraph grid = new DiGraph();
+		for (int i = 0; i < size * size; i++) {
+			grid.addNode();
+		}
+		for (int r = 0; r < size; r++) {
+			for (int c = 0; c < size; c++) {
+				Node v = grid.nodes.get(r * size + c);
+				if (c + 1 < size) {
+					v.addEdge(grid.nodes.get(r * size + c + 1), 1);
+					grid.nodes.get(r * size + c + 1).addEdge(v, 1);
+				}
+				if (r + 1 < size) {
+					v.addEdge(grid.nodes.get((r + 1) * size + c), 1);
+					grid.nodes.get((r + 1) * size + c).addEdge(v, 1);
+				}
+			}
+		}
+
+		BidirectionalDijkstra engine = new BidirectionalDijkstra(grid.freeze());
+		int[] path = engine.findPath(50 * size + 45, 50 * size + 55);
+
+		assertEquals(11, path.length);
+		assertEquals(10.0, engine.getDistance(), 0.0);
+		assertTrue("settled " + engine.getSettledCount() + " nodes", engine.getSettledCount() < size * size / 10);
+	}
+
+	private static String ids(List<Node> path) {
+		StringBuilder sb = new StringBuilder("[");
+		for (Node n : path) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(n.getID());
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,133 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BinaryGraphTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("graph", ".csr");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+
+		GraphIO.saveBinaryGraph(g, file.getPath());
+		CsrGraph loaded = GraphIO.loadBinaryGraph(file.getPath());
+
+		assertEquals(16 + 4 * (g.getNodeCount() + 1) + 12 * g.getEdgeCount(), file.length());
+		assertArrayEquals(g.offsets, loaded.offsets);
+		assertArrayEquals(g.targets, loaded.targets);
+		assertArrayEquals(g.weights, loaded.weights, 0.0);
+		assertArrayEquals(g.populateDijkstraFrom(0), loaded.populateDijkstraFrom(0), 0.0);
+	}
+
+	@Test
+	public void testFileStartsWithMagic() throws IOException {
+		GraphIO.saveBinaryGraph(GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt"), file.getPath());
+		byte[] magic = new byte[4];
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		raf.readFully(magic);
+		raf.close();
+
+		assertEquals("CSRG", new String(magic, StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void testSaveDiGraph() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphBellmanFord.txt");
+		g.setShowSteps(false);
+
+		GraphIO.saveBinaryGraph(g, file.getPath());
+		CsrGraph loaded = GraphIO.loadBinaryGraph(file.getPath());
+
+		assertEquals(g.nodes.size(), loaded.getNodeCount());
+		assertEquals(3.0, loaded.populateBellmanFordFrom(0)[4], 0.0);
+	}
+
+	@Test
+	public void testEmptyGraph() throws IOException {
+		GraphIO.saveBinaryGraph(new DiGraph(), file.getPath());
+
+		assertEquals(0, GraphIO.loadBinaryGraph(file.getPath()).getNodeCount());
+	}
+
+	@Test(expected = IOException.class)
+	public void testTextFileIsRejected() throws IOException {
+		GraphIO.loadBinaryGraph("tests/testgraphen/strassennetz.txt");
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownVersionIsRejected() throws IOException {
+		GraphIO.saveBinaryGraph(GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt"), file.getPath());
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.seek(4);
+		raf.write(new byte[] { 99, 0, 0, 0 });
+		raf.close();
+
+		GraphIO.loadBinaryGraph(file.getPath());
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedFileIsRejected() throws IOException {
+		GraphIO.saveBinaryGraph(GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt"), file.getPath());
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 8);
+		raf.close();
+
+		GraphIO.loadBinaryGraph(file.getPath());
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecreasingOffsetsAreRejected() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt");
+		GraphIO.saveBinaryGraph(g, file.getPath());
+		// offsets[1] larger than offsets[2]
+		overwriteInt(16 + 4, g.offsets[2] + 1);
+
+		GraphIO.loadBinaryGraph(file.getPath());
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownTargetIsRejected() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt");
+		GraphIO.saveBinaryGraph(g, file.getPath());
+		// the first target
+		overwriteInt(16 + 4 * (g.getNodeCount() + 1), g.getNodeCount());
+
+		GraphIO.loadBinaryGraph(file.getPath());
+	}
+
+	// writes a little endian int into the file
+	private void overwriteInt(long position, int value) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.seek(position);
+		raf.writeInt(Integer.reverseBytes(value));
+		raf.close();
+	}
+
+	@Test(expected = IOException.class)
+	public void testTooShortFileIsRejected() throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(new byte[] { 'C', 'S' });
+		out.close();
+
+		GraphIO.loadBinaryGraph(file.getPath());
+	}
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.Before;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ContractionHierarchyTest {
+
+	private DiGraph road;
+
+	@Before
+	public void setUp() throws Exception {
+		// read graph from file
+		try {
+			road = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+			road.setShowSteps(false);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	public void testRoadNetworkAllPairs() {
+		ContractionHierarchy ch = new ContractionHierarchy(road);
+		assertAllPairsShortest(road, ch);
+	}
+
+	@Test
+	public void testPathMatchesDijkstra() {
+		ContractionHierarchy ch = new ContractionHierarchy(road);
+
+		for (int start = 0; start < 17; start++) {
+			for (int target = 0; target < 17; target++) {
+				List<Node> expected = road.getShortestPathDijkstra(start, target);
+				List<Node> actual = ch.getShortestPath(road.nodes.get(start), road.nodes.get(target));
+				assertEquals("wrong path " + start + "->" + target, length(expected), length(actual), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testRandomDirectedGraphs() {
+		Random r = new Random(5);
+		for (int round = 0; round < 5; round++) {
+			DiGraph g = new DiGraph();
+			int n = 150;
+			for (int i = 0; i < n; i++) {
+				g.addNode();
+			}
+			for (int e = 0; e < 600; e++) {
+				g.nodes.get(r.nextInt(n)).addEdge(g.nodes.get(r.nextInt(n)), r.nextInt(100));
+			}
+			assertAllPairsShortest(g, new ContractionHierarchy(g));
+		}
+	}
+
+	@Test
+	public void testUnreachableTarget() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		ContractionHierarchy ch = new ContractionHierarchy(g);
+
+		assertNull(ch.getShortestPath(3, 0));
+		assertEquals(Double.POSITIVE_INFINITY, ch.getDistance(3, 0), 0.0);
+		assertEquals(6.0, ch.getDistance(0, 3), 0.0);
+	}
+
+	// every path is a path of the graph and as long as the Dijkstra distance
+	private static void assertAllPairsShortest(DiGraph g, ContractionHierarchy ch) {
+		CsrGraph frozen = g.freeze();
+		for (int start = 0; start < frozen.getNodeCount(); start++) {
+			double[] expected = frozen.populateDijkstraFrom(start);
+			for (int target = 0; target < frozen.getNodeCount(); target++) {
+				int[] path = ch.findPath(start, target);
+				if (expected[target] == Double.POSITIVE_INFINITY) {
+					assertNull("found a path " + start + "->" + target, path);
+					continue;
+				}
+				assertEquals(start, path[0]);
+				assertEquals(target, path[path.length - 1]);
+				double length = 0;
+				for (int i = 0; i + 1 < path.length; i++) {
+					length += minWeight(frozen, path[i], path[i + 1]);
+				}
+				assertEquals("wrong path " + start + "->" + target, expected[target], length, 1e-9);
+				assertEquals(expected[target], ch.getDistance(start, target), 1e-9);
+			}
+		}
+	}
+
+	private static double minWeight(CsrGraph g, int u, int v) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+			if (g.targets[e] == v) {
+				min = Math.min(min, g.weights[e]);
+			}
+		}
+		return min;
+	}
+
+	private double length(List<Node> path) {
+		double length = 0;
+		for (int i = 0; i + 1 < path.size(); i++) {
+			length += road.getWeight(path.get(i), path.get(i + 1));
+		}
+		return length;
+	}
+}
@@ -0,0 +1,89 @@
+import java.io.IOException;
+
+import org.junit.Test;
+import org.junit.Before;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CsrGraphTest {
+
+	private DiGraph road;
+	private CsrGraph frozenRoad;
+
+	@Before
+	public void setUp() throws Exception {
+		// read graph from file
+		try {
+			road = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+			road.setShowSteps(false);
+			frozenRoad = road.freeze();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	public void testFreezeKeepsEdges() {
+		assertEquals("wrong number of nodes", road.getNodes().size(), frozenRoad.getNodeCount());
+		assertEquals("wrong number of edges", road.getEdges().size(), frozenRoad.getEdgeCount());
+
+		for (int u = 0; u < frozenRoad.getNodeCount(); u++) {
+			for (int v = 0; v < frozenRoad.getNodeCount(); v++) {
+				assertEquals("wrong weight for edge " + u + "->" + v,
+						road.getWeight(u, v), frozenRoad.getWeight(u, v), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testLoadCsrGraphEqualsFreeze() throws IOException {
+		CsrGraph loaded = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+
+		assertEquals("wrong number of edges", frozenRoad.getEdgeCount(), loaded.getEdgeCount());
+		for (int u = 0; u < loaded.getNodeCount(); u++) {
+			for (int v = 0; v < loaded.getNodeCount(); v++) {
+				assertEquals("wrong weight for edge " + u + "->" + v,
+						frozenRoad.getWeight(u, v), loaded.getWeight(u, v), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testDijkstraMatchesBellmanFord() {
+		for (int start = 0; start < frozenRoad.getNodeCount(); start++) {
+			double[] dijkstra = frozenRoad.populateDijkstraFrom(start);
+			double[] bellmanFord = frozenRoad.populateBellmanFordFrom(start);
+			assertArrayEquals("distances differ for start node " + start, bellmanFord, dijkstra, 0.0);
+
+			road.populateDijkstraFrom(start);
+			for (int v = 0; v < frozenRoad.getNodeCount(); v++) {
+				assertEquals("distance to " + v + " differs for start node " + start,
+						road.nodes.get(v).distance, dijkstra[v], 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testBellmanFordNegativeWeights() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/graphBellmanFord.txt");
+
+		int[] predecessors = new int[g.getNodeCount()];
+		double[] distance = g.populateBellmanFordFrom(0, predecessors);
+
+		assertArrayEquals(new double[] { 0, 4, 2, 1, 3 }, distance, 0.0);
+		assertArrayEquals(new int[] { -1, 0, 1, 2, 3 }, predecessors);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testBellmanFordNegativeCycle() {
+		DiGraph g = new DiGraph();
+		g.addNode();
+		g.addNode();
+		g.addNode();
+		g.addEdge(0, 1, 1);
+		g.addEdge(1, 2, -3);
+		g.addEdge(2, 1, 1);
+
+		g.freeze().populateBellmanFordFrom(0);
+	}
+}
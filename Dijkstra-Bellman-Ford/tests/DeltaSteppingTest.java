@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DeltaSteppingTest {
+
+	@Test
+	public void testRoadNetworkMatchesDijkstra() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+		DeltaStepping engine = new DeltaStepping(g, 4);
+		assertTrue(engine.getDelta() > 0);
+
+		for (int start = 0; start < g.getNodeCount(); start++) {
+			int[] predecessors = new int[g.getNodeCount()];
+			double[] distance = engine.populateDeltaSteppingFrom(start, predecessors);
+			assertArrayEquals("distances differ for start node " + start,
+					g.populateDijkstraFrom(start), distance, 0.0);
+			for (int v = 0; v < g.getNodeCount(); v++) {
+				if (predecessors[v] != -1) {
+					assertEquals(distance[v], distance[predecessors[v]] + g.getWeight(predecessors[v], v), 0.0);
+				}
+			}
+		}
+		engine.shutdown();
+	}
+
+	@Test
+	public void testRandomGraphsWithDifferentDeltas() {
+		Random r = new Random(3);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for (int round = 0; round < 5; round++) {
+			int n = 20000;
+			int m = 100000;
+			int[] sources = new int[m];
+			int[] targets = new int[m];
+			double[] weights = new double[m];
+			for (int e = 0; e < m; e++) {
+				sources[e] = r.nextInt(n);
+				targets[e] = r.nextInt(n);
+				// some zero weights and a wide spread
+				weights[e] = r.nextInt(10) == 0 ? 0 : r.nextInt(1000);
+			}
+			CsrGraph g = CsrGraph.fromEdges(n, sources, targets, weights, m);
+			double[] expected = g.populateDijkstraFrom(round);
+
+			for (double delta : new double[] { 1, 37, DeltaStepping.chooseDelta(g), 5000 }) {
+				DeltaStepping engine = new DeltaStepping(g, pool, delta);
+				assertArrayEquals("delta " + delta, expected, engine.populateDeltaSteppingFrom(round, null), 0.0);
+			}
+		}
+		pool.shutdown();
+	}
+
+	@Test
+	public void testDiGraphEntryPoint() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		g.populateDeltaSteppingFrom(0, 2);
+
+		assertEquals(6.0, g.nodes.get(3).distance, 0.0);
+		assertEquals(g.nodes.get(2), g.nodes.get(3).predecessor);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeWeightsAreRejected() throws IOException {
+		new DeltaStepping(GraphIO.loadCsrGraph("tests/testgraphen/graphBellmanFord.txt"), 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTinyDeltaIsRejected() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt");
+		ForkJoinPool pool = new ForkJoinPool(1);
+		try {
+			// would need billions of buckets
+			new DeltaStepping(g, pool, 1e-9);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
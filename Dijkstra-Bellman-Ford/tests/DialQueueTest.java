@@ -0,0 +1,107 @@
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DialQueueTest {
+
+	@Test
+	public void testQueueIsMonotone() {
+		Random r = new Random(4);
+		DialQueue queue = new DialQueue(10);
+		queue.add(0, 0);
+		long last = 0;
+		for (int i = 1; i < 1000; i++) {
+			queue.add(i, queue.getKey() + r.nextInt(11));
+			if (r.nextBoolean()) {
+				queue.poll();
+				assertTrue(queue.getKey() >= last);
+				last = queue.getKey();
+			}
+		}
+		int count = 0;
+		while (!queue.isEmpty()) {
+			queue.poll();
+			assertTrue(queue.getKey() >= last);
+			last = queue.getKey();
+			count++;
+		}
+		assertEquals(0, queue.size());
+		assertTrue(count > 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeyOutOfRange() {
+		DialQueue queue = new DialQueue(5);
+		queue.add(0, 6);
+	}
+
+	@Test
+	public void testRoadNetworkMatchesDijkstra() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+		assertTrue(g.getMaxIntegerWeight() > 0);
+
+		for (int start = 0; start < g.getNodeCount(); start++) {
+			int[] predecessors = new int[g.getNodeCount()];
+			double[] distance = g.populateDialDijkstraFrom(start, predecessors);
+			assertArrayEquals(g.populateDijkstraFrom(start), distance, 0.0);
+			for (int v = 0; v < g.getNodeCount(); v++) {
+				if (predecessors[v] != -1) {
+					assertEquals(distance[v], distance[predecessors[v]] + minWeight(g, predecessors[v], v), 0.0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRandomGraphsWithZeroWeights() {
+		Random r = new Random(8);
+		for (int round = 0; round < 10; round++) {
+			int n = 2000;
+			int m = 8000;
+			int[] sources = new int[m];
+			int[] targets = new int[m];
+			double[] weights = new double[m];
+			for (int e = 0; e < m; e++) {
+				sources[e] = r.nextInt(n);
+				targets[e] = r.nextInt(n);
+				weights[e] = r.nextInt(20);
+			}
+			CsrGraph g = CsrGraph.fromEdges(n, sources, targets, weights, m);
+			int start = r.nextInt(n);
+			assertArrayEquals(g.populateDijkstraFrom(start), g.populateDialDijkstraFrom(start, null), 0.0);
+			assertArrayEquals(g.populateDijkstraFrom(start), g.shortestPathTreeDijkstra(start).getDistances(), 0.0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFractionalWeightsAreRejected() {
+		CsrGraph g = CsrGraph.fromEdges(2, new int[] { 0 }, new int[] { 1 }, new double[] { 0.5 }, 1);
+		assertEquals(-1, g.getMaxIntegerWeight());
+		g.populateDialDijkstraFrom(0, null);
+	}
+
+	@Test
+	public void testDiGraphFields() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		g.populateDialDijkstraFrom(0);
+
+		assertEquals(6.0, g.nodes.get(3).distance, 0.0);
+		assertEquals(g.nodes.get(2), g.nodes.get(3).predecessor);
+	}
+
+	private static double minWeight(CsrGraph g, int u, int v) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+			if (g.targets[e] == v) {
+				min = Math.min(min, g.weights[e]);
+			}
+		}
+		return min;
+	}
+}
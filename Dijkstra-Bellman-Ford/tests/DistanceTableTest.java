@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DistanceTableTest {
+
+	@Test
+	public void testRoadNetworkAllPairs() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+		int[] all = new int[g.getNodeCount()];
+		for (int v = 0; v < all.length; v++) {
+			all[v] = v;
+		}
+
+		DistanceTable engine = new DistanceTable(g, 4);
+		try {
+			double[][] table = engine.distanceTable(all, all);
+			for (int start = 0; start < all.length; start++) {
+				assertArrayEquals(g.populateDijkstraFrom(start), table[start], 0.0);
+			}
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	@Test
+	public void testRandomSourcesAndTargets() {
+		Random r = new Random(3);
+		int n = 2000;
+		int m = 8000;
+		int[] edgeSources = new int[m];
+		int[] edgeTargets = new int[m];
+		double[] weights = new double[m];
+		for (int e = 0; e < m; e++) {
+			edgeSources[e] = r.nextInt(n);
+			edgeTargets[e] = r.nextInt(n);
+			weights[e] = r.nextInt(100);
+		}
+		CsrGraph g = CsrGraph.fromEdges(n, edgeSources, edgeTargets, weights, m);
+
+		int[] sources = new int[50];
+		int[] targets = new int[80];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = r.nextInt(n);
+		}
+		for (int j = 0; j < targets.length; j++) {
+			// duplicates and sources among the targets are allowed
+			targets[j] = j % 10 == 0 ? sources[j / 10] : r.nextInt(n);
+		}
+		targets[1] = targets[2];
+
+		DistanceTable engine = new DistanceTable(g, 3);
+		try {
+			// twice, to check that the reused workspaces are reset correctly
+			for (int round = 0; round < 2; round++) {
+				double[] flat = engine.flatDistanceTable(sources, targets);
+				for (int i = 0; i < sources.length; i++) {
+					double[] expected = g.populateDijkstraFrom(sources[i]);
+					for (int j = 0; j < targets.length; j++) {
+						assertEquals(expected[targets[j]], flat[i * targets.length + j], 0.0);
+					}
+				}
+			}
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnreachableTarget() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		double[][] table = g.distanceTable(new int[] { 0, 3 }, new int[] { 3, 0 }, 2);
+
+		assertEquals(6.0, table[0][0], 0.0);
+		assertEquals(0.0, table[0][1], 0.0);
+		assertEquals(0.0, table[1][0], 0.0);
+		assertEquals(Double.POSITIVE_INFINITY, table[1][1], 0.0);
+	}
+
+	@Test
+	public void testRepeatedCallsSeeChanges() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		double[][] before = g.distanceTable(new int[] { 3 }, new int[] { 0 }, 2);
+		g.addEdge(3, 0, 1.5);
+		double[][] after = g.distanceTable(new int[] { 3 }, new int[] { 0 }, 2);
+		double[][] fewerThreads = g.distanceTable(new int[] { 3 }, new int[] { 0 }, 1);
+
+		assertEquals(Double.POSITIVE_INFINITY, before[0][0], 0.0);
+		assertEquals(1.5, after[0][0], 0.0);
+		assertEquals(1.5, fewerThreads[0][0], 0.0);
+	}
+}
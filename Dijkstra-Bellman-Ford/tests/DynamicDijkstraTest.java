@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DynamicDijkstraTest {
+
+	@Test
+	public void testRandomUpdatesMatchRecomputation() {
+		Random r = new Random(9);
+		int n = 300;
+		DiGraph g = new DiGraph();
+		g.setShowSteps(false);
+		for (int i = 0; i < n; i++) {
+			g.addNode();
+		}
+		for (int e = 0; e < 600; e++) {
+			g.addEdge(r.nextInt(n), r.nextInt(n), 1 + r.nextInt(100));
+		}
+		DynamicDijkstra dynamic = new DynamicDijkstra(g, 0);
+
+		for (int step = 0; step < 500; step++) {
+			int u = r.nextInt(n);
+			if (r.nextBoolean() || g.nodes.get(u).edges.isEmpty()) {
+				dynamic.addEdge(u, r.nextInt(n), r.nextInt(100));
+			} else {
+				Edge e = g.nodes.get(u).edges.getFirst();
+				dynamic.decreaseWeight(u, e.endnode.id, Math.floor(e.weight * r.nextDouble()));
+			}
+
+			ShortestPathTree expected = g.freeze().shortestPathTreeDijkstra(0);
+			ShortestPathTree actual = dynamic.toShortestPathTree();
+			assertArrayEquals(expected.getDistances(), actual.getDistances(), 0.0);
+			for (int v = 1; v < n; v++) {
+				if (actual.hasPathTo(v)) {
+					// the parents have to form a shortest path tree, parallel edges included
+					int p = actual.getParent(v);
+					double best = Double.POSITIVE_INFINITY;
+					for (Edge e : g.nodes.get(p).edges) {
+						if (e.endnode.id == v) {
+							best = Math.min(best, e.weight);
+						}
+					}
+					assertEquals(actual.getDistance(v), actual.getDistance(p) + best, 0.0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRepairIsLocal() {
+		// 100 x 100 grid with edges in both directions
+		int size = 100;
+		DiGraph grid = new DiGraph();
+		grid.setShowSteps(false);
+		for (int i = 0; i < size * size; i++) {
+			grid.addNode();
+		}
+		for (int r = 0; r < size; r++) {
+			for (int c = 0; c < size; c++) {
+				if (c + 1 < size) {
+					grid.addEdge(r * size + c, r * size + c + 1, 1);
+					grid.addEdge(r * size + c + 1, r * size + c, 1);
+				}
+				if (r + 1 < size) {
+					grid.addEdge(r * size + c, (r + 1) * size + c, 1);
+					grid.addEdge((r + 1) * size + c, r * size + c, 1);
+				}
+			}
+		}
+		DynamicDijkstra dynamic = new DynamicDijkstra(grid, 0);
+		assertEquals(2 * (size - 1), dynamic.getDistance(size * size - 1), 0.0);
+
+		// a shortcut in the far corner only changes the nodes behind it
+		int from = (size - 3) * size + size - 3;
+		int to = (size - 1) * size + size - 1;
+		dynamic.addEdge(from, to, 1);
+		assertEquals(2 * (size - 3) + 1, dynamic.getDistance(to), 0.0);
+		assertTrue("updated " + dynamic.getUpdateCount(), dynamic.getUpdateCount() < 10);
+
+		// an edge that does not help changes nothing
+		dynamic.addEdge(0, 1, 5);
+		assertEquals(0, dynamic.getUpdateCount());
+	}
+
+	@Test
+	public void testNewNodesAndPaths() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+		DynamicDijkstra dynamic = new DynamicDijkstra(g, 0);
+		assertEquals(6.0, dynamic.getDistance(3), 0.0);
+
+		Node added = dynamic.addNode();
+		assertNull(dynamic.getShortestPath(added.id));
+		dynamic.addEdge(3, added.id, 1);
+		assertEquals(7.0, dynamic.getDistance(added.id), 0.0);
+
+		dynamic.addEdge(0, 3, 0.5);
+		List<Node> path = dynamic.getShortestPath(added.id);
+		assertEquals(3, path.size());
+		assertEquals(1.5, dynamic.getDistance(added.id), 0.0);
+	}
+
+	@Test
+	public void testManyNewNodes() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+		DynamicDijkstra dynamic = new DynamicDijkstra(g, 0);
+
+		int last = 3;
+		for (int i = 0; i < 100; i++) {
+			Node added = dynamic.addNode();
+			dynamic.addEdge(last, added.id, 1);
+			last = added.id;
+		}
+
+		assertEquals(106.0, dynamic.getDistance(last), 0.0);
+		ShortestPathTree expected = g.freeze().shortestPathTreeDijkstra(0);
+		ShortestPathTree actual = dynamic.toShortestPathTree();
+		assertArrayEquals(expected.getDistances(), actual.getDistances(), 0.0);
+	}
+
+	@Test
+	public void testOutsideChangesAreNoticed() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+		DynamicDijkstra dynamic = new DynamicDijkstra(g, 0);
+
+		// raising a weight can not be repaired, the distances are recomputed
+		g.setWeight(2, 3, 100);
+		assertEquals(g.freeze().populateDijkstraFrom(0)[3], dynamic.getDistance(3), 0.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIncreaseIsRejected() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+		DynamicDijkstra dynamic = new DynamicDijkstra(g, 0);
+
+		dynamic.decreaseWeight(0, 1, 1000);
+	}
+}
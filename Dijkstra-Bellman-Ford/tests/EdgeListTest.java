@@ -0,0 +1,132 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EdgeListTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("graph", ".txt");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testMatchesMatrixFormat() throws IOException {
+		CsrGraph matrix = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+		PrintWriter out = new PrintWriter(file);
+		out.println(matrix.getNodeCount());
+		for (int v = 0; v < matrix.getNodeCount(); v++) {
+			for (int e = matrix.offsets[v]; e < matrix.offsets[v + 1]; e++) {
+				out.println(v + " " + matrix.targets[e] + " " + (int) matrix.weights[e]);
+			}
+		}
+		out.close();
+
+		CsrGraph edges = GraphIO.loadCsrGraphFromEdgeList(file.getPath());
+		assertArrayEquals(matrix.offsets, edges.offsets);
+		assertArrayEquals(matrix.targets, edges.targets);
+		assertArrayEquals(matrix.weights, edges.weights, 0.0);
+
+		DiGraph g = GraphIO.loadEdgeList(file.getPath());
+		g.setShowSteps(false);
+		assertArrayEquals(matrix.populateDijkstraFrom(0), g.freeze().populateDijkstraFrom(0), 0.0);
+	}
+
+	@Test
+	public void testNumberFormats() throws IOException {
+		write("# nodes\n3\n0 1 2.5\r\n1 2\t-1e2 # comment\n\n  2 0 0.125\n0 2 +7\n1 0 1.5E-3\n"
+				+ "2 1 0.12345678901234567890\n");
+
+		CsrGraph g = GraphIO.loadCsrGraphFromEdgeList(file.getPath());
+
+		assertEquals(3, g.getNodeCount());
+		assertEquals(6, g.getEdgeCount());
+		assertEquals(2.5, g.getWeight(0, 1), 0.0);
+		assertEquals(-100.0, g.getWeight(1, 2), 0.0);
+		assertEquals(0.125, g.getWeight(2, 0), 0.0);
+		assertEquals(7.0, g.getWeight(0, 2), 0.0);
+		assertEquals(0.0015, g.getWeight(1, 0), 0.0);
+		assertEquals(Double.parseDouble("0.12345678901234567890"), g.getWeight(2, 1), 0.0);
+	}
+
+	@Test
+	public void testBytesAboveAsciiInComments() throws IOException {
+		// 0xFF is not the end of the file, also at the start of a new buffer
+		StringBuilder comment = new StringBuilder("# Gr\u00fc\u00dfe ");
+		for (int i = 0; i < 70000; i++) {
+			comment.append('\u00ff');
+		}
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.ISO_8859_1);
+		out.write(comment + "\n2\n0 1 3 # \u00ff\n1 0 4\n");
+		out.close();
+
+		CsrGraph g = GraphIO.loadCsrGraphFromEdgeList(file.getPath());
+		assertEquals(2, g.getNodeCount());
+		assertEquals(2, g.getEdgeCount());
+		assertEquals(4.0, g.getWeight(1, 0), 0.0);
+	}
+
+	@Test
+	public void testEmptyGraph() throws IOException {
+		write("0\n");
+
+		assertEquals(0, GraphIO.loadCsrGraphFromEdgeList(file.getPath()).getNodeCount());
+	}
+
+	@Test
+	public void testUnknownNodeIsReported() throws IOException {
+		write("2\n0 1 1\n1 2 1\n");
+		assertError("graph.*:3: node 2 does not exist");
+	}
+
+	@Test
+	public void testMissingWeightIsReported() throws IOException {
+		write("2\n0 1\n1 0 1\n");
+		assertError("graph.*:2: incomplete edge");
+	}
+
+	@Test
+	public void testTooManyNumbersAreReported() throws IOException {
+		write("2\n0 1 1 1\n");
+		assertError("graph.*:2: more than three numbers for an edge");
+	}
+
+	@Test
+	public void testMalformedNumberIsReported() throws IOException {
+		write("2\n0 1 1x\n");
+		assertError("graph.*:2: number expected");
+	}
+
+	private void write(String content) throws IOException {
+		PrintWriter out = new PrintWriter(file);
+		out.print(content);
+		out.close();
+	}
+
+	private void assertError(String messagePattern) {
+		try {
+			GraphIO.loadEdgeList(file.getPath());
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().matches(".*" + messagePattern));
+			return;
+		}
+		throw new AssertionError("no IOException");
+	}
+}
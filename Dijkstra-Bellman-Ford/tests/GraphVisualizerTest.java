@@ -0,0 +1,97 @@
+import java.awt.Dimension;
+import java.awt.Point;
+import java.io.IOException;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GraphVisualizerTest {
+
+	// adds the nodes and edges of the graph, as VisualGraph does
+	private static GraphVisualizer show(DiGraph g) {
+		GraphVisualizer panel = new GraphVisualizer(g, new Dimension(800, 600));
+		VisualNode[] visualNodes = new VisualNode[g.nodes.size()];
+		for (Node n : g.getNodes()) {
+			visualNodes[n.id] = panel.addNode(n.id);
+		}
+		for (Node n : g.getNodes()) {
+			for (Edge e : n.edges) {
+				panel.addEdge(visualNodes[n.id], visualNodes[e.endnode.id], e.weight);
+			}
+		}
+		panel.update();
+		return panel;
+	}
+
+	// the color inside the circle of a node, above its label
+	private static int colorAt(GraphVisualizer panel, int nodeID) {
+		Point p = panel.getScreenPosition(nodeID);
+		return panel.getImage().getRGB(p.x, p.y - 20) & 0xffffff;
+	}
+
+	@Test
+	public void testOnlyChangedColorsAreDrawn() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		GraphVisualizer panel = show(g);
+		assertEquals(GraphVisualizer.FULL_DETAIL, panel.getDetailLevel());
+		assertEquals(g.nodes.size(), panel.getVisibleNodeCount());
+		int draws = panel.getFullDrawCount();
+		assertEquals(GraphVisualizer.COLORS[0].getRGB() & 0xffffff, colorAt(panel, 1));
+
+		// nothing changed, nothing is drawn
+		panel.update();
+		assertEquals(draws, panel.getFullDrawCount());
+
+		// a changed color is drawn over the old image
+		g.showGraph(0);
+		panel.update();
+		assertEquals(draws, panel.getFullDrawCount());
+		int color = g.getColorOfNode(1);
+		assertEquals(GraphVisualizer.COLORS[color].getRGB() & 0xffffff, colorAt(panel, 1));
+
+		// a new edge changes the graph, so everything is drawn
+		g.addEdge(3, 0, 1);
+		panel.update();
+		assertEquals(draws + 1, panel.getFullDrawCount());
+	}
+
+	@Test
+	public void testLargeGraphIsAggregated() {
+		// a grid of 100000 nodes with edges to the right and downwards
+		int side = 316;
+		DiGraph g = new DiGraph();
+		for (int i = 0; i < side * side; i++) {
+			g.addNode();
+		}
+		for (int i = 0; i < side * side; i++) {
+			if (i % side + 1 < side) {
+				g.addEdge(i, i + 1, 1);
+			}
+			if (i + side < side * side) {
+				g.addEdge(i, i + side, 1);
+			}
+		}
+		GraphVisualizer panel = show(g);
+		assertEquals(GraphVisualizer.AGGREGATED, panel.getDetailLevel());
+		assertEquals(side * side, panel.getVisibleNodeCount());
+
+		// zooming in shows fewer nodes with more detail
+		panel.zoom(8, 400, 300);
+		panel.update();
+		assertEquals(GraphVisualizer.SIMPLE_DETAIL, panel.getDetailLevel());
+		panel.zoom(8, 400, 300);
+		panel.update();
+		assertEquals(GraphVisualizer.FULL_DETAIL, panel.getDetailLevel());
+		assertTrue(panel.getVisibleNodeCount() < 100);
+
+		// a walk through the graph colors some nodes, only they are drawn
+		panel.resetView();
+		panel.update();
+		int draws = panel.getFullDrawCount();
+		g.showGraph(0);
+		panel.update();
+		assertEquals(GraphVisualizer.AGGREGATED, panel.getDetailLevel());
+		assertEquals(draws, panel.getFullDrawCount());
+	}
+}
@@ -0,0 +1,58 @@
+import java.io.IOException;
+
+import org.junit.Test;
+import org.junit.Before;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class IndexedDijkstraTest {
+
+	private DiGraph road;
+
+	@Before
+	public void setUp() throws Exception {
+		// read graph from file
+		try {
+			road = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+			road.setShowSteps(false);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	public void testDistancesMatchBellmanFord() {
+		IndexedDijkstra engine = new IndexedDijkstra(road);
+		CsrGraph frozen = road.freeze();
+
+		// the same engine is reused for every start node
+		for (int start = 0; start < frozen.getNodeCount(); start++) {
+			engine.run(start);
+			assertArrayEquals("distances differ for start node " + start,
+					frozen.populateBellmanFordFrom(start), engine.getDistances(), 0.0);
+		}
+	}
+
+	@Test
+	public void testDecreaseKeyOfQueuedNode() {
+		// 2 is queued with distance 10 first and reached via 1 with distance 3 later
+		DiGraph g = new DiGraph();
+		for (int i = 0; i < 4; i++) {
+			g.addNode();
+		}
+		g.addEdge(0, 2, 10);
+		g.addEdge(0, 1, 1);
+		g.addEdge(1, 2, 2);
+		g.addEdge(2, 3, 1);
+
+		IndexedDijkstra engine = new IndexedDijkstra(g);
+		engine.run(0);
+
+		assertArrayEquals(new double[] { 0, 1, 3, 4 }, engine.getDistances(), 0.0);
+		assertArrayEquals(new int[] { -1, 0, 1, 2 }, engine.getPredecessors());
+
+		engine.writeToNodes();
+		assertEquals(4.0, g.nodes.get(3).distance, 0.0);
+		assertEquals(g.nodes.get(1), g.nodes.get(2).predecessor);
+	}
+}
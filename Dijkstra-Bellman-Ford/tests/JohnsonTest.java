@@ -0,0 +1,88 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class JohnsonTest {
+
+	@Test
+	public void testNegativeWeights() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphBellmanFord.txt");
+		g.setShowSteps(false);
+		CsrGraph frozen = g.freeze();
+		int n = frozen.getNodeCount();
+
+		double[] table = g.allPairsJohnson(2);
+
+		assertEquals(3.0, table[4], 0.0);
+		for (int start = 0; start < n; start++) {
+			double[] row = new double[n];
+			System.arraycopy(table, start * n, row, 0, n);
+			assertArrayEquals(frozen.populateBellmanFordFrom(start), row, 0.0);
+		}
+	}
+
+	@Test
+	public void testMatchesBellmanFordOnRandomGraphs() {
+		Random r = new Random(11);
+		for (int round = 0; round < 5; round++) {
+			CsrGraph g = QueueBellmanFordTest.randomGraphWithoutNegativeCycles(r, 150, 600);
+			Johnson engine = new Johnson(g, 3);
+			try {
+				double[] table = engine.allPairs();
+				for (int start = 0; start < 150; start++) {
+					double[] expected = g.populateBellmanFordFrom(start);
+					for (int target = 0; target < 150; target++) {
+						assertEquals(expected[target], table[start * 150 + target], 1e-9);
+					}
+				}
+			} finally {
+				engine.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void testFileMatchesArray() throws IOException {
+		CsrGraph g = QueueBellmanFordTest.randomGraphWithoutNegativeCycles(new Random(2), 300, 1500);
+		File file = File.createTempFile("apsp", ".bin");
+		Johnson engine = new Johnson(g, 4);
+		try {
+			double[] expected = engine.allPairs();
+			engine.allPairsToFile(file.getPath());
+
+			assertEquals(8L * 300 * 300, file.length());
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			double[] actual = new double[300 * 300];
+			DoubleBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length())
+					.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			buffer.get(actual);
+			raf.close();
+			assertArrayEquals(expected, actual, 0.0);
+		} finally {
+			engine.shutdown();
+			file.delete();
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testNegativeCycle() {
+		DiGraph g = new DiGraph();
+		for (int i = 0; i < 4; i++) {
+			g.addNode();
+		}
+		// not reachable from node 0, but still a negative cycle
+		g.addEdge(0, 1, 1);
+		g.addEdge(2, 3, -2);
+		g.addEdge(3, 2, 1);
+
+		g.allPairsJohnson(2);
+	}
+}
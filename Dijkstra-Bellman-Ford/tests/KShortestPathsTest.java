@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KShortestPathsTest {
+
+	@Test
+	public void testMatchesAllSimplePaths() {
+		Random r = new Random(4);
+		for (int round = 0; round < 10; round++) {
+			int n = 9;
+			int m = 30;
+			int[] sources = new int[m];
+			int[] targets = new int[m];
+			double[] weights = new double[m];
+			for (int e = 0; e < m; e++) {
+				sources[e] = r.nextInt(n);
+				targets[e] = r.nextInt(n);
+				weights[e] = 1 + r.nextInt(20);
+			}
+			CsrGraph g = CsrGraph.fromEdges(n, sources, targets, weights, m);
+			List<Double> expected = new ArrayList<Double>();
+			allSimplePathCosts(g, 0, n - 1, new boolean[n], 0.0, expected);
+			Collections.sort(expected);
+
+			KShortestPaths engine = new KShortestPaths(g, 3);
+			double[] costs = new double[20];
+			int[][] paths = engine.findPaths(0, n - 1, 20, costs);
+			engine.shutdown();
+
+			assertEquals(Math.min(20, expected.size()), paths.length);
+			for (int i = 0; i < paths.length; i++) {
+				assertEquals(expected.get(i), costs[i], 0.0);
+				assertEquals(costs[i], length(g, paths[i]), 0.0);
+				assertLoopless(paths[i]);
+				for (int j = 0; j < i; j++) {
+					assertTrue(!Arrays.equals(paths[i], paths[j]));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRoadNetwork() throws IOException {
+		DiGraph road = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+		road.setShowSteps(false);
+		CsrGraph g = road.freeze();
+		int target = g.getNodeCount() - 1;
+
+		List<List<Node>> paths = road.getKShortestPathsDijkstra(0, target, 10, 4);
+
+		assertEquals(g.populateDijkstraFrom(0)[target], length(g, ids(paths.get(0))), 0.0);
+		for (int i = 1; i < paths.size(); i++) {
+			assertTrue(length(g, ids(paths.get(i - 1))) <= length(g, ids(paths.get(i))));
+		}
+	}
+
+	@Test
+	public void testFewerPathsThanWanted() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt");
+		KShortestPaths engine = new KShortestPaths(g, 2);
+
+		double[] costs = new double[5];
+		int[][] paths = engine.findPaths(0, 3, 5, costs);
+		assertEquals(3, paths.length);
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, paths[0]);
+		assertArrayEquals(new int[] { 0, 1, 3 }, paths[1]);
+		assertArrayEquals(new int[] { 0, 2, 3 }, paths[2]);
+		assertArrayEquals(new double[] { 6, 10, 12, 0, 0 }, costs, 0.0);
+		assertEquals(0, engine.findPaths(3, 0, 5, null).length);
+		assertEquals(1, engine.findPaths(2, 2, 5, null).length);
+		engine.shutdown();
+	}
+
+	@Test
+	public void testRepeatedCallsSeeChanges() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		assertEquals(3, g.getKShortestPathsDijkstra(0, 3, 5, 2).size());
+		g.addEdge(0, 3, 20);
+		assertEquals(4, g.getKShortestPathsDijkstra(0, 3, 5, 2).size());
+		assertEquals(4, g.getKShortestPathsDijkstra(0, 3, 5, 1).size());
+	}
+
+	private static void allSimplePathCosts(CsrGraph g, int v, int target, boolean[] onPath, double cost,
+			List<Double> costs) {
+		if (v == target) {
+			costs.add(cost);
+			return;
+		}
+		onPath[v] = true;
+		boolean[] done = new boolean[g.getNodeCount()];
+		for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+			int w = g.targets[e];
+			if (!onPath[w] && !done[w]) {
+				done[w] = true;
+				allSimplePathCosts(g, w, target, onPath, cost + cheapestEdge(g, v, w), costs);
+			}
+		}
+		onPath[v] = false;
+	}
+
+	private static void assertLoopless(int[] path) {
+		boolean[] seen = new boolean[100];
+		for (int v : path) {
+			assertTrue(!seen[v]);
+			seen[v] = true;
+		}
+	}
+
+	private static int[] ids(List<Node> path) {
+		int[] ids = new int[path.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = path.get(i).id;
+		}
+		return ids;
+	}
+
+	private static double length(CsrGraph g, int[] path) {
+		double length = 0;
+		for (int i = 0; i + 1 < path.length; i++) {
+			length += cheapestEdge(g, path[i], path[i + 1]);
+		}
+		return length;
+	}
+
+	// the random graphs may have parallel edges
+	private static double cheapestEdge(CsrGraph g, int v, int w) {
+		double weight = Double.POSITIVE_INFINITY;
+		for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+			if (g.targets[e] == w) {
+				weight = Math.min(weight, g.weights[e]);
+			}
+		}
+		return weight;
+	}
+}
@@ -0,0 +1,180 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LandmarksTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("graph", ".landmarks");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testAllPairsMatchDijkstra() throws IOException {
+		CsrGraph road = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+		assertMatchesDijkstra(new Landmarks(road, 4));
+	}
+
+	@Test
+	public void testRandomGraphWithUnreachableParts() {
+		Random r = new Random(5);
+		int n = 200;
+		int[] sources = new int[500];
+		int[] targets = new int[500];
+		double[] weights = new double[500];
+		for (int e = 0; e < sources.length; e++) {
+			// edges only lead from smaller to larger halves in one direction
+			sources[e] = r.nextInt(n);
+			targets[e] = r.nextInt(n);
+			if (sources[e] >= n / 2 && targets[e] < n / 2) {
+				targets[e] += n / 2;
+			}
+			weights[e] = r.nextInt(50);
+		}
+		CsrGraph g = CsrGraph.fromEdges(n, sources, targets, weights, sources.length);
+		Landmarks landmarks = new Landmarks(g, 6);
+
+		for (int v = 0; v < n; v++) {
+			double[] expected = g.populateDijkstraFrom(v);
+			for (int t = 0; t < n; t++) {
+				assertTrue(landmarks.lowerBound(v, t) <= expected[t]);
+			}
+		}
+		assertMatchesDijkstra(landmarks);
+	}
+
+	@Test
+	public void testSettlesFewerNodesThanDijkstra() {
+		// 60 x 60 grid with edges in both directions
+		int size = 60;
+		DiGraph grid = new DiGraph();
+		grid.setShowSteps(false);
+		for (int i = 0; i < size * size; i++) {
+			grid.addNode();
+		}
+		Random r = new Random(1);
+		for (int row = 0; row < size; row++) {
+			for (int c = 0; c < size; c++) {
+				int v = row * size + c;
+				if (c + 1 < size) {
+					grid.addEdge(v, v + 1, 1 + r.nextInt(5));
+					grid.addEdge(v + 1, v, 1 + r.nextInt(5));
+				}
+				if (row + 1 < size) {
+					grid.addEdge(v, v + size, 1 + r.nextInt(5));
+					grid.addEdge(v + size, v, 1 + r.nextInt(5));
+				}
+			}
+		}
+		Landmarks landmarks = grid.computeLandmarks(8);
+		AltSearch search = new AltSearch(landmarks);
+
+		int start = 10 * size + 10;
+		int target = 40 * size + 45;
+		search.findPath(start, target);
+		assertEquals(grid.freeze().populateDijkstraFrom(start)[target], search.getDistance(), 0.0);
+		assertTrue("settled " + search.getSettledCount(), search.getSettledCount() < size * size / 4);
+
+		List<Node> path = grid.getShortestPathALT(start, target, landmarks);
+		assertEquals(start, path.get(0).id);
+		assertEquals(target, path.get(path.size() - 1).id);
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		String graphFile = "tests/testgraphen/strassennetz.txt";
+		DiGraph road = GraphIO.loadGraph(graphFile);
+		road.setShowSteps(false);
+		Landmarks landmarks = road.computeLandmarks(3);
+		assertEquals(graphFile + ".landmarks", GraphIO.landmarkFileFor(graphFile));
+
+		GraphIO.saveLandmarks(landmarks, file.getPath());
+		byte[] magic = new byte[4];
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		raf.readFully(magic);
+		raf.close();
+		assertEquals("ALTL", new String(magic, StandardCharsets.US_ASCII));
+		Landmarks loaded = GraphIO.loadLandmarks(road.freeze(), file.getPath());
+
+		assertArrayEquals(landmarks.getLandmarks(), loaded.getLandmarks());
+		assertArrayEquals(landmarks.fromLandmark, loaded.fromLandmark, 0.0);
+		assertArrayEquals(landmarks.toLandmark, loaded.toLandmark, 0.0);
+		assertEquals(road.getShortestPathDijkstra(0, 7).size(), road.getShortestPathALT(0, 7, loaded).size());
+	}
+
+	@Test(expected = IOException.class)
+	public void testOtherGraphIsRejected() throws IOException {
+		CsrGraph road = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+		GraphIO.saveLandmarks(new Landmarks(road, 2), file.getPath());
+
+		GraphIO.loadLandmarks(GraphIO.loadCsrGraph("tests/testgraphen/graphDijkstra.txt"), file.getPath());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testChangedGraphIsRejected() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+		Landmarks landmarks = g.computeLandmarks(2);
+		g.addEdge(0, 3, 1);
+
+		g.getShortestPathALT(0, 3, landmarks);
+	}
+
+	@Test
+	public void testNoPath() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		assertNull(g.getShortestPathALT(3, 0, g.computeLandmarks(1)));
+	}
+
+	private static void assertMatchesDijkstra(Landmarks landmarks) {
+		CsrGraph g = landmarks.getGraph();
+		AltSearch search = new AltSearch(landmarks);
+		for (int start = 0; start < g.getNodeCount(); start++) {
+			double[] expected = g.populateDijkstraFrom(start);
+			for (int target = 0; target < g.getNodeCount(); target++) {
+				int[] path = search.findPath(start, target);
+				assertEquals("wrong distance " + start + "->" + target, expected[target], search.getDistance(), 0.0);
+				if (path == null) {
+					assertEquals(Double.POSITIVE_INFINITY, expected[target], 0.0);
+					continue;
+				}
+				double length = 0;
+				for (int i = 0; i + 1 < path.length; i++) {
+					length += cheapestEdge(g, path[i], path[i + 1]);
+				}
+				assertEquals(expected[target], length, 0.0);
+			}
+		}
+	}
+
+	// the random graphs may have parallel edges
+	private static double cheapestEdge(CsrGraph g, int v, int w) {
+		double weight = Double.POSITIVE_INFINITY;
+		for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+			if (g.targets[e] == w) {
+				weight = Math.min(weight, g.weights[e]);
+			}
+		}
+		return weight;
+	}
+}
@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelBellmanFordTest {
+
+	@Test
+	public void testSameResultAsSequential() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphBellmanFord.txt");
+		g.setShowSteps(false);
+
+		g.populateBellmanFordFrom(0);
+		double[] expected = new double[5];
+		for (int v = 0; v < 5; v++) {
+			expected[v] = g.nodes.get(v).distance;
+		}
+
+		g.populateParallelBellmanFordFrom(0, 4);
+		for (int v = 0; v < 5; v++) {
+			assertEquals("wrong distance of node " + v, expected[v], g.nodes.get(v).distance, 0.0);
+		}
+		assertEquals(g.nodes.get(3), g.nodes.get(4).predecessor);
+	}
+
+	@Test
+	public void testLargeRandomGraphs() {
+		Random r = new Random(11);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for (int round = 0; round < 5; round++) {
+			// integer weights, so the sums do not depend on the order of relaxations
+			CsrGraph g = QueueBellmanFordTest.randomGraphWithoutNegativeCycles(r, 5000, 40000);
+			ParallelBellmanFord engine = new ParallelBellmanFord(g, pool);
+
+			int start = r.nextInt(5000);
+			int[] predecessors = new int[5000];
+			double[] distance = engine.populateBellmanFordFrom(start, predecessors);
+			assertArrayEquals(g.populateBellmanFordFrom(start), distance, 0.0);
+
+			// the predecessors describe shortest paths
+			for (int v = 0; v < 5000; v++) {
+				if (predecessors[v] != -1) {
+					assertEquals(distance[v], distance[predecessors[v]] + minWeight(g, predecessors[v], v), 0.0);
+				}
+			}
+		}
+		pool.shutdown();
+	}
+
+	// the random graphs may contain parallel edges
+	private static double minWeight(CsrGraph g, int u, int v) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+			if (g.targets[e] == v) {
+				min = Math.min(min, g.weights[e]);
+			}
+		}
+		return min;
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testNegativeCycle() {
+		DiGraph g = new DiGraph();
+		for (int i = 0; i < 4; i++) {
+			g.addNode();
+		}
+		g.addEdge(0, 1, 1);
+		g.addEdge(1, 2, 2);
+		g.addEdge(2, 3, -1);
+		g.addEdge(3, 1, -2);
+
+		g.populateParallelBellmanFordFrom(0, 2);
+	}
+}
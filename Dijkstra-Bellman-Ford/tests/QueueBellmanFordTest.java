@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class QueueBellmanFordTest {
+
+	@Test
+	public void testNegativeWeights() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphBellmanFord.txt");
+		g.setShowSteps(false);
+
+		g.populateQueueBellmanFordFrom(0);
+
+		assertEquals(3.0, g.nodes.get(4).distance, 0.0);
+		assertEquals(g.nodes.get(3), g.nodes.get(4).predecessor);
+		assertEquals(g.nodes.get(2), g.nodes.get(3).predecessor);
+		assertNull(g.nodes.get(0).predecessor);
+	}
+
+	@Test
+	public void testMatchesBellmanFordOnRoadNetwork() throws IOException {
+		CsrGraph g = GraphIO.loadCsrGraph("tests/testgraphen/strassennetz.txt");
+
+		for (int start = 0; start < g.getNodeCount(); start++) {
+			assertArrayEquals("distances differ for start node " + start,
+					g.populateBellmanFordFrom(start), g.populateQueueBellmanFordFrom(start, null), 0.0);
+		}
+	}
+
+	@Test
+	public void testMatchesBellmanFordOnRandomGraphs() {
+		Random r = new Random(7);
+		for (int round = 0; round < 20; round++) {
+			CsrGraph g = randomGraphWithoutNegativeCycles(r, 200, 1000);
+			int start = r.nextInt(200);
+			assertArrayEquals(g.populateBellmanFordFrom(start), g.populateQueueBellmanFordFrom(start, null), 1e-9);
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testNegativeCycle() {
+		DiGraph g = new DiGraph();
+		for (int i = 0; i < 4; i++) {
+			g.addNode();
+		}
+		g.addEdge(0, 1, 1);
+		g.addEdge(1, 2, 2);
+		g.addEdge(2, 3, -1);
+		g.addEdge(3, 1, -2);
+
+		g.populateQueueBellmanFordFrom(0);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testNegativeSelfLoop() {
+		DiGraph g = new DiGraph();
+		g.addNode();
+		g.addNode();
+		g.addEdge(0, 1, 1);
+		g.addEdge(1, 1, -1);
+
+		g.populateQueueBellmanFordFrom(0);
+	}
+
+	@Test
+	public void testUnreachableNegativeCycleIsIgnored() {
+		DiGraph g = new DiGraph();
+		for (int i = 0; i < 3; i++) {
+			g.addNode();
+		}
+		g.addEdge(1, 2, -1);
+		g.addEdge(2, 1, -1);
+
+		g.populateQueueBellmanFordFrom(0);
+		assertEquals(Double.POSITIVE_INFINITY, g.nodes.get(1).distance, 0.0);
+	}
+
+	/**
+	 * Random graph with positive weights shifted by node potentials, so there
+	 * are negative edges but every cycle keeps its positive length.
+	 */
+	static CsrGraph randomGraphWithoutNegativeCycles(Random r, int nodeCount, int edgeCount) {
+		double[] potential = new double[nodeCount];
+		for (int v = 0; v < nodeCount; v++) {
+			potential[v] = r.nextInt(100);
+		}
+		int[] sources = new int[edgeCount];
+		int[] targets = new int[edgeCount];
+		double[] weights = new double[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			sources[e] = r.nextInt(nodeCount);
+			targets[e] = r.nextInt(nodeCount);
+			weights[e] = 1 + r.nextInt(50) + potential[sources[e]] - potential[targets[e]];
+		}
+		return CsrGraph.fromEdges(nodeCount, sources, targets, weights, edgeCount);
+	}
+}
@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShortestPathCacheTest {
+
+	private DiGraph road;
+
+	@Before
+	public void setUp() throws IOException {
+		road = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+		road.setShowSteps(false);
+	}
+
+	@Test
+	public void testCachedAnswersMatchSearch() {
+		ShortestPathCache cache = road.enableQueryCache(1 << 20);
+		int n = road.nodes.size();
+
+		for (int round = 0; round < 2; round++) {
+			for (int start = 0; start < n; start++) {
+				double[] expected = road.freeze().populateDijkstraFrom(start);
+				for (int target = 0; target < n; target++) {
+					assertEquals(expected[target], cache.getDistance(start, target), 0.0);
+					List<Node> path = road.getShortestPathDijkstra(start, target);
+					assertEquals(start, path.get(0).id);
+					assertEquals(target, path.get(path.size() - 1).id);
+				}
+			}
+		}
+		assertEquals(n * n, cache.getMissCount());
+		assertEquals(3L * n * n, cache.getHitCount());
+		assertEquals(n * n, cache.size());
+	}
+
+	@Test
+	public void testChangesInvalidateEntries() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+		ShortestPathCache cache = g.enableQueryCache(100);
+		assertEquals(6.0, cache.getDistance(0, 3), 0.0);
+		assertNull(g.getShortestPathDijkstra(3, 0));
+
+		g.addEdge(0, 3, 1);
+		assertEquals(1.0, cache.getDistance(0, 3), 0.0);
+		assertEquals(2, g.getShortestPathDijkstra(0, 3).size());
+
+		Node added = g.addNode();
+		g.addEdge(3, added.id, 2);
+		assertEquals(3.0, cache.getDistance(0, added.id), 0.0);
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		// room for three paths of at most eight nodes
+		ShortestPathCache cache = new ShortestPathCache(road, 3 * 16);
+		cache.getDistance(0, 1);
+		cache.getDistance(1, 2);
+		cache.getDistance(2, 3);
+		cache.getDistance(0, 1);
+		cache.getDistance(3, 4);
+		assertTrue(cache.getCachedNodeCount() <= 3 * 16);
+		assertEquals(1, cache.getHitCount());
+
+		cache.resetCounters();
+		cache.getDistance(0, 1);
+		assertEquals(1, cache.getHitCount());
+		cache.getDistance(1, 2);
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testDisabledCacheIsNotUsed() {
+		ShortestPathCache cache = road.enableQueryCache(1000);
+		road.getShortestPathDijkstra(0, 5);
+		road.disableQueryCache();
+		road.getShortestPathDijkstra(0, 5);
+		assertNull(road.getQueryCache());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShortestPathTreeTest {
+
+	@Test
+	public void testDijkstraTree() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		ShortestPathTree tree = g.getShortestPathTreeDijkstra(0);
+
+		assertEquals(0, tree.getStartNodeID());
+		assertEquals(6.0, tree.getDistance(3), 0.0);
+		assertEquals(2, tree.getParent(3));
+		assertEquals(-1, tree.getParent(0));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, tree.getPathTo(3));
+		assertArrayEquals(new int[] { 0 }, tree.getPathTo(0));
+		assertEquals(4, g.getPath(tree, 3).size());
+
+		// the Node fields are left alone
+		assertNull(g.nodes.get(3).predecessor);
+		assertNull(g.nodes.get(3).distance);
+	}
+
+	@Test
+	public void testUnreachableTarget() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		g.setShowSteps(false);
+
+		ShortestPathTree tree = g.getShortestPathTreeDijkstra(3);
+
+		assertEquals(false, tree.hasPathTo(0));
+		assertNull(tree.getPathTo(0));
+		assertNull(g.getPath(tree, 0));
+	}
+
+	@Test
+	public void testBellmanFordTree() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphBellmanFord.txt");
+		g.setShowSteps(false);
+
+		ShortestPathTree tree = g.getShortestPathTreeBellmanFord(0);
+
+		assertEquals(3.0, tree.getDistance(4), 0.0);
+		assertEquals(3, tree.getParent(4));
+		assertEquals(2, tree.getParent(3));
+	}
+
+	@Test
+	public void testConcurrentQueries() throws Exception {
+		final DiGraph g = GraphIO.loadGraph("tests/testgraphen/strassennetz.txt");
+		g.setShowSteps(false);
+		final CsrGraph frozen = g.freeze();
+		final int n = frozen.getNodeCount();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final int offset = t;
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < 200; i++) {
+							int start = (offset * 31 + i) % n;
+							int target = (offset * 17 + 3 * i) % n;
+							ShortestPathTree tree = g.getShortestPathTreeDijkstra(start);
+							double[] expected = frozen.populateDijkstraFrom(start);
+							if (!Arrays.equals(expected, tree.getDistances())) {
+								return false;
+							}
+							List<Node> path = g.getShortestPathDijkstra(start, target);
+							double length = 0;
+							for (int k = 0; k + 1 < path.size(); k++) {
+								length += frozen.getWeight(path.get(k).getID(), path.get(k + 1).getID());
+							}
+							if (length != expected[target]) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
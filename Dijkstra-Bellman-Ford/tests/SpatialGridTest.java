@@ -0,0 +1,63 @@
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SpatialGridTest {
+
+	@Test
+	public void testQueriesMatchBruteForce() {
+		Random r = new Random(3);
+		int n = 5000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			// a dense cluster and scattered points
+			double spread = i % 2 == 0 ? 10 : 1000;
+			x[i] = r.nextDouble() * spread;
+			y[i] = r.nextDouble() * spread;
+		}
+		SpatialGrid grid = new SpatialGrid(x, y);
+		assertEquals(n, grid.size());
+
+		for (int q = 0; q < 200; q++) {
+			double x0 = r.nextDouble() * 1200 - 100;
+			double y0 = r.nextDouble() * 1200 - 100;
+			double x1 = x0 + r.nextDouble() * (q % 2 == 0 ? 20 : 600);
+			double y1 = y0 + r.nextDouble() * (q % 2 == 0 ? 20 : 600);
+
+			int[] found = grid.query(x0, y0, x1, y1);
+			Arrays.sort(found);
+			int[] expected = new int[n];
+			int count = 0;
+			for (int i = 0; i < n; i++) {
+				if (x[i] >= x0 && x[i] <= x1 && y[i] >= y0 && y[i] <= y1) {
+					expected[count++] = i;
+				}
+			}
+			assertArrayEquals(Arrays.copyOf(expected, count), found);
+		}
+	}
+
+	@Test
+	public void testPointsOnALine() {
+		int n = 1000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i;
+		}
+		SpatialGrid grid = new SpatialGrid(x, y);
+		assertEquals(11, grid.query(100, 0, 110, 0).length);
+		assertEquals(n, grid.query(-1, -1, n, 1).length);
+		assertEquals(0, grid.query(0, 1, n, 2).length);
+	}
+
+	@Test
+	public void testEmpty() {
+		SpatialGrid grid = new SpatialGrid(new double[0], new double[0]);
+		assertEquals(0, grid.query(-10, -10, 10, 10).length);
+	}
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TarjanBellmanFordTest {
+
+	@Test
+	public void testNegativeWeights() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphBellmanFord.txt");
+		g.setShowSteps(false);
+
+		g.populateTarjanBellmanFordFrom(0);
+
+		assertEquals(3.0, g.nodes.get(4).distance, 0.0);
+		assertEquals(g.nodes.get(3), g.nodes.get(4).predecessor);
+		assertNull(g.nodes.get(0).predecessor);
+	}
+
+	@Test
+	public void testMatchesBellmanFordOnRandomGraphs() {
+		Random r = new Random(11);
+		for (int round = 0; round < 20; round++) {
+			CsrGraph g = QueueBellmanFordTest.randomGraphWithoutNegativeCycles(r, 200, 1000);
+			int start = r.nextInt(200);
+			int[] parent = new int[200];
+			double[] distance = g.populateTarjanBellmanFordFrom(start, parent);
+			assertArrayEquals(g.populateBellmanFordFrom(start), distance, 1e-9);
+			for (int v = 0; v < 200; v++) {
+				if (parent[v] != -1) {
+					assertEquals(distance[v], distance[parent[v]] + cheapestEdge(g, parent[v], v), 1e-9);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCycleIsReturned() {
+		DiGraph g = new DiGraph();
+		g.setShowSteps(false);
+		for (int i = 0; i < 4; i++) {
+			g.addNode();
+		}
+		g.addEdge(0, 1, 1);
+		g.addEdge(1, 2, 2);
+		g.addEdge(2, 3, -1);
+		g.addEdge(3, 1, -2);
+
+		List<Node> cycle = g.findNegativeCycle(0);
+
+		assertEquals(3, cycle.size());
+		assertTrue(cycle.contains(g.nodes.get(1)));
+		assertTrue(cycle.contains(g.nodes.get(2)));
+		assertTrue(cycle.contains(g.nodes.get(3)));
+	}
+
+	@Test
+	public void testArbitrage() {
+		// exchange rates as weights -log(rate), a profitable round trip is a negative cycle
+		Random r = new Random(3);
+		int n = 100;
+		int m = n * 10;
+		int[] sources = new int[m + 1];
+		int[] targets = new int[m + 1];
+		double[] weights = new double[m + 1];
+		double[] value = new double[n];
+		for (int v = 0; v < n; v++) {
+			value[v] = 1 + r.nextDouble();
+		}
+		for (int e = 0; e < m; e++) {
+			sources[e] = r.nextInt(n);
+			targets[e] = r.nextInt(n);
+			// fair rates minus a fee, so no cycle pays off
+			weights[e] = -Math.log(value[sources[e]] / value[targets[e]] * 0.99);
+		}
+		CsrGraph fair = CsrGraph.fromEdges(n, sources, targets, weights, m);
+		assertNull(fair.findNegativeCycle(0));
+
+		// one mispriced rate back to the start of a long chain of trades
+		int[] path = longestTreePath(fair);
+		int u = path[path.length - 1];
+		sources[m] = u;
+		targets[m] = 0;
+		weights[m] = -Math.log(value[u] / value[0] * 1.5);
+		CsrGraph mispriced = CsrGraph.fromEdges(n, sources, targets, weights, m + 1);
+
+		int[] cycle = mispriced.findNegativeCycle(0);
+		double length = 0;
+		for (int i = 0; i < cycle.length; i++) {
+			length += cheapestEdge(mispriced, cycle[i], cycle[(i + 1) % cycle.length]);
+		}
+		assertTrue("cycle length " + length, length < 0);
+	}
+
+	@Test(expected = NegativeCycleException.class)
+	public void testNegativeSelfLoop() {
+		DiGraph g = new DiGraph();
+		g.setShowSteps(false);
+		g.addNode();
+		g.addNode();
+		g.addEdge(0, 1, 1);
+		g.addEdge(1, 1, -1);
+
+		g.populateTarjanBellmanFordFrom(0);
+	}
+
+	@Test
+	public void testUnreachableNegativeCycleIsIgnored() {
+		DiGraph g = new DiGraph();
+		g.setShowSteps(false);
+		for (int i = 0; i < 3; i++) {
+			g.addNode();
+		}
+		g.addEdge(1, 2, -1);
+		g.addEdge(2, 1, -1);
+
+		assertNull(g.findNegativeCycle(0));
+		g.populateTarjanBellmanFordFrom(0);
+		assertEquals(Double.POSITIVE_INFINITY, g.nodes.get(1).distance, 0.0);
+	}
+
+	// the tree path from node 0 to the node with the most edges on its shortest path
+	private static int[] longestTreePath(CsrGraph g) {
+		int[] parent = new int[g.getNodeCount()];
+		g.populateTarjanBellmanFordFrom(0, parent);
+		int[] best = { 0 };
+		for (int v = 0; v < g.getNodeCount(); v++) {
+			int length = 0;
+			for (int x = v; x != -1; x = parent[x]) {
+				length++;
+			}
+			if (length > best.length) {
+				best = new int[length];
+				for (int x = v; x != -1; x = parent[x]) {
+					best[--length] = x;
+				}
+			}
+		}
+		return best;
+	}
+
+	// the random graphs may have parallel edges
+	private static double cheapestEdge(CsrGraph g, int v, int w) {
+		double weight = Double.POSITIVE_INFINITY;
+		for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+			if (g.targets[e] == w) {
+				weight = Math.min(weight, g.weights[e]);
+			}
+		}
+		return weight;
+	}
+}
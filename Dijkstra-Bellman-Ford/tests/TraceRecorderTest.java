@@ -0,0 +1,146 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TraceRecorderTest {
+
+	/** Writes every event as one line, to compare runs and replays. */
+	private static class EventLog implements StepListener {
+		final List<String> events = new ArrayList<String>();
+		int steps;
+
+		@Override
+		public void nodeColored(int nodeID, int color) {
+			events.add("node " + nodeID + " " + color);
+		}
+
+		@Override
+		public void edgeColored(int startNodeID, int targetNodeID, int color) {
+			events.add("edge " + startNodeID + " " + targetNodeID + " " + color);
+		}
+
+		@Override
+		public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+			events.add("relax " + startNodeID + " " + targetNodeID + " " + distance);
+		}
+
+		@Override
+		public void step() {
+			events.add("step");
+			steps++;
+		}
+	}
+
+	/** Passes every event on to two listeners. */
+	private static StepListener both(final StepListener a, final StepListener b) {
+		return new StepListener() {
+			@Override
+			public void nodeColored(int nodeID, int color) {
+				a.nodeColored(nodeID, color);
+				b.nodeColored(nodeID, color);
+			}
+
+			@Override
+			public void edgeColored(int startNodeID, int targetNodeID, int color) {
+				a.edgeColored(startNodeID, targetNodeID, color);
+				b.edgeColored(startNodeID, targetNodeID, color);
+			}
+
+			@Override
+			public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+				a.edgeRelaxed(startNodeID, targetNodeID, distance);
+				b.edgeRelaxed(startNodeID, targetNodeID, distance);
+			}
+
+			@Override
+			public void step() {
+				a.step();
+				b.step();
+			}
+		};
+	}
+
+	@Test
+	public void testReplayReproducesTheRun() throws IOException {
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		File file = File.createTempFile("dijkstra", ".trace");
+		file.deleteOnExit();
+
+		EventLog live = new EventLog();
+		TraceRecorder recorder = new TraceRecorder(file.getPath());
+		g.setStepListener(both(live, recorder));
+		g.populateDijkstraFrom(0);
+		g.showGraph(0);
+		recorder.close();
+		assertEquals(live.events.size(), recorder.getEventCount());
+		assertTrue(live.steps > 0);
+		assertTrue(live.events.contains("relax 2 3 6.0"));
+
+		EventLog replayed = new EventLog();
+		long steps = TraceRecorder.replay(file.getPath(), replayed, 0);
+		assertEquals(live.steps, steps);
+		assertEquals(live.events, replayed.events);
+	}
+
+	@Test
+	public void testStepsDoNotWaitByDefault() throws IOException {
+		// without a visualization nobody would ever signal, so this must not block
+		DiGraph g = GraphIO.loadGraph("tests/testgraphen/graphDijkstra.txt");
+		EventLog log = new EventLog();
+		g.setStepListener(log);
+		g.showGraph(0);
+		assertTrue(log.steps > 0);
+	}
+
+	@Test
+	public void testNoListener() {
+		DiGraph g = new DiGraph();
+		assertSame(StepListener.NONE, g.getStepListener());
+		g.setStepListener(new EventLog());
+		g.setStepListener(null);
+		assertSame(StepListener.NONE, g.getStepListener());
+	}
+
+	@Test
+	public void testRejectsOtherFiles() throws IOException {
+		File file = File.createTempFile("notatrace", ".trace");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		out.write("0 1 2 3 4 5 6 7".getBytes("US-ASCII"));
+		out.close();
+		try {
+			TraceRecorder.replay(file.getPath(), new EventLog(), 0);
+			fail("a file that is not a trace was replayed");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRejectsTruncatedTrace() throws IOException {
+		File file = File.createTempFile("truncated", ".trace");
+		file.deleteOnExit();
+		TraceRecorder recorder = new TraceRecorder(file.getPath());
+		recorder.edgeRelaxed(1, 2, 3.0);
+		recorder.close();
+		// cut off the last byte of the distance
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 1);
+		raf.close();
+		try {
+			TraceRecorder.replay(file.getPath(), new EventLog(), 0);
+			fail("a truncated trace was replayed");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
@@ -27,8 +27,8 @@ public class DiGraph implements Graph {
 
 	protected HashMap<Integer, Node> nodes;
 
-	// needed for testing, where the execution of methods should not stop
-	protected boolean showSteps = true;
+	// stepping is opt-in: without setShowSteps(true) the algorithms never wait
+	protected boolean showSteps = false;
 
 	public DiGraph() {
 		nodes = new HashMap<Integer, Node>();
@@ -52,8 +52,9 @@ public class DiGraph implements Graph {
 	public void addEdge(Node startnode, Node endnode, double weight) {
 		if (startnode != null && endnode != null) {
 			
-			// only add edges between nodes which are already part of this graph 
-			if(nodes.values().contains(startnode) && nodes.values().contains(endnode)){
+			// only add edges between nodes which are already part of this graph,
+			// nodes are equal by id and stored under their id
+			if(nodes.containsKey(startnode.getID()) && nodes.containsKey(endnode.getID())){
 				startnode.addEdge(endnode, weight);
 			}
 
@@ -198,9 +199,9 @@ public class DiGraph implements Graph {
 	@Override
 	public void clearMarks() {
 		for (Node nextNode : nodes.values()) {
-			nextNode.status = Node.WHITE;
+			setStatus(nextNode, Node.WHITE);
 			for (Edge nextEdge : nextNode.getOutgoingEdges()) {
-				nextEdge.status = Edge.WHITE;
+				setStatus(nextNode, nextEdge, Edge.WHITE);
 			}
 		}
 	}
@@ -210,7 +211,7 @@ public class DiGraph implements Graph {
 	 */
 	protected void resetState() {
 		for (Node n : nodes.values()) {
-			n.status = Node.WHITE;
+			setStatus(n, Node.WHITE);
 		}
 	}
 	
@@ -228,10 +229,10 @@ public class DiGraph implements Graph {
 			System.out.println("Error! this node does not exist!");
 			return;
 		}
-		startNode.status = Node.GRAY;
+		setStatus(startNode, Node.GRAY);
 		
 		this.stopExecutionUntilSignal();
-		startNode.status = Node.BLACK;
+		setStatus(startNode, Node.BLACK);
 		
 		List<Edge> edges = startNode.getOutgoingEdges();
 		Random ran = new Random();
@@ -242,7 +243,7 @@ public class DiGraph implements Graph {
 			//white and gray neighbor nodes will add to nodes-list
 			for(Edge e: edges){
 				if(e.endNode.status != Node.BLACK){
-					e.endNode.status = Node.GRAY;
+					setStatus(e.endNode, Node.GRAY);
 					nodes.add(e.endNode);
 				}
 			}
@@ -250,7 +251,7 @@ public class DiGraph implements Graph {
 			
 			startNode= nodes.get(ran.nextInt(nodes.size()));
 			edges = startNode.getOutgoingEdges();
-			startNode.status = Node.BLACK;
+			setStatus(startNode, Node.BLACK);
 		}
 	}
 	
@@ -369,6 +370,9 @@ public class DiGraph implements Graph {
 	// synchronization variable used to stop and resume processing
 	private boolean isStopped = false;
 
+	// receives the steps of the algorithms, does nothing by default
+	protected StepListener stepListener = StepListener.NONE;
+
 	/**
 	 * Tests if the current execution of a graph-algorithm was stopped
 	 * @return true if the processing is stopped, false otherwise. 
@@ -385,40 +389,78 @@ public class DiGraph implements Graph {
 	@Override
 	synchronized public void setStopped(boolean status) {
 		this.isStopped = status;
+		notifyAll();
+	}
+
+	/**
+	 * Sets the listener that receives the steps of the algorithms, e.g. a
+	 * TraceRecorder.
+	 * @param listener the listener, null for none
+	 */
+	public void setStepListener(StepListener listener) {
+		this.stepListener = listener == null ? StepListener.NONE : listener;
 	}
 
 	/**
-	 * Stops the execution of an algorithm until the visualization signals that
-	 * he can be resumed. This feature can be used to visualize the steps of the
+	 * @return the listener that receives the steps of the algorithms
+	 */
+	public StepListener getStepListener() {
+		return stepListener;
+	}
+
+	/**
+	 * Sets the color of a node and reports it to the step listener.
+	 * @param node the node
+	 * @param status the new color
+	 */
+	protected void setStatus(Node node, int status) {
+		node.status = status;
+		stepListener.nodeColored(node.id, status);
+	}
+
+	/**
+	 * Sets the color of an edge and reports it to the step listener.
+	 * @param startNode the node the edge starts at
+	 * @param edge the edge
+	 * @param status the new color
+	 */
+	protected void setStatus(Node startNode, Edge edge, int status) {
+		edge.status = status;
+		stepListener.edgeColored(startNode.id, edge.endNode.id, status);
+	}
+
+	/**
+	 * Reports the end of a step to the step listener. If showSteps is set,
+	 * the execution then waits until the visualization signals that it can
+	 * be resumed. This feature can be used to visualize the steps of the
 	 * algorithms.
 	 */
 	protected void stopExecutionUntilSignal() {
+		stepListener.step();
 		if (showSteps) {
-			System.out.print(".");
-			this.setStopped(true);
-			while (this.isStopped()) {
-				this.sleep(100);
-			}
+			waitForSignal();
 		}
 	}
 
-	/**
-	 * Stops the execution for a given time
-	 * 
-	 * @param milliseconds
-	 *            time the execution will stop in milliseconds
-	 */
-	protected void sleep(int milliseconds) {
-		try {
-			Thread.sleep(milliseconds);
-		} catch (InterruptedException e) {
-			// the VM doesn't want us to sleep anymore,
-			// so get back to work
+	// blocks until setStopped(false) is called
+	private synchronized void waitForSignal() {
+		System.out.print(".");
+		this.isStopped = true;
+		while (this.isStopped) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// stop waiting, but keep the interrupt for the caller
+				Thread.currentThread().interrupt();
+				this.isStopped = false;
+			}
 		}
 	}
 
 	/**
-	 * Sets the showSteps flag.
+	 * Sets the showSteps flag. If it is set, the algorithms wait after every
+	 * step until the visualization signals that they can go on. It is not
+	 * set by default.
 	 * @param show the flag
 	 */
 	@Override
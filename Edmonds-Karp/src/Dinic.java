@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+/**
+ * Maximum flow with Dinic's algorithm on a ResidualNetwork.
+ *
+ * Each phase labels the nodes with their distance from the source by a
+ * breadth first search in the residual network. Then a blocking flow is sent
+ * over the level graph, the arcs that lead from one level to the next, by a
+ * depth first search that keeps a path of arcs instead of recursing. Every
+ * node has a current arc: arcs before it are known to lead nowhere in this
+ * phase and are never looked at again, which bounds a phase by O(nm). The
+ * distance of the sink grows with each phase, so there are at most n phases.
+ *
+ * The flow is left in the residual capacities of the network. All arrays are
+ * allocated with the engine, a run allocates nothing.
+ */
+public class Dinic {
+
+	private final ResidualNetwork network;
+
+	/** distance from the source in this phase, -1 if not reached or dead */
+	private final int[] level;
+	/** first arc of each node that may still lead to the sink */
+	private final int[] currentArc;
+	/** nodes in the order the breadth first search reached them */
+	private final int[] queue;
+	/** arcs of the path from the source the depth first search follows */
+	private final int[] path;
+
+	private int phaseCount;
+	private int augmentationCount;
+
+	/**
+	 * Creates an engine for the given network.
+	 *
+	 * @param network
+	 *            the network to send the flow through
+	 */
+	public Dinic(ResidualNetwork network) {
+		this.network = network;
+		int n = network.getNodeCount();
+		level = new int[n];
+		currentArc = new int[n];
+		queue = new int[n];
+		path = new int[n];
+	}
+
+	/**
+	 * Computes a maximum flow. Any flow left in the network is removed first.
+	 * Afterwards ResidualNetwork.isOnSourceSide() tells the minimum cut.
+	 *
+	 * @param source
+	 *            the id of the source
+	 * @param sink
+	 *            the id of the sink
+	 * @return value of the maximum flow
+	 */
+	public long maxFlow(int source, int sink) {
+		network.reset();
+		phaseCount = 0;
+		augmentationCount = 0;
+		long flow = 0;
+		if (source != sink) {
+			while (buildLevelGraph(source, sink)) {
+				phaseCount++;
+				System.arraycopy(network.offsets, 0, currentArc, 0, currentArc.length);
+				flow += blockingFlow(source, sink);
+			}
+		}
+		network.markSourceSide(source);
+		return flow;
+	}
+
+	// labels the nodes by breadth first search, true if the sink is reached
+	private boolean buildLevelGraph(int source, int sink) {
+		int[] offsets = network.offsets;
+		int[] heads = network.heads;
+		long[] residual = network.residual;
+		Arrays.fill(level, -1);
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = source;
+		level[source] = 0;
+		while (head < tail) {
+			int v = queue[head++];
+			if (level[v] >= level[sink] && level[sink] >= 0) {
+				// nodes this far away cannot be on a shortest path
+				break;
+			}
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				int w = heads[a];
+				if (residual[a] > 0 && level[w] < 0) {
+					level[w] = level[v] + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+		return level[sink] >= 0;
+	}
+
+	// sends flow along the level graph until every path to the sink is blocked
+	private long blockingFlow(int source, int sink) {
+		int[] offsets = network.offsets;
+		int[] heads = network.heads;
+		int[] reverse = network.reverse;
+		long[] residual = network.residual;
+		long flow = 0;
+		int depth = 0;
+		int v = source;
+		while (true) {
+			if (v == sink) {
+				long f = Long.MAX_VALUE;
+				for (int i = 0; i < depth; i++) {
+					f = Math.min(f, residual[path[i]]);
+				}
+				int retreat = -1;
+				for (int i = 0; i < depth; i++) {
+					int a = path[i];
+					residual[a] -= f;
+					residual[reverse[a]] += f;
+					if (retreat < 0 && residual[a] == 0) {
+						retreat = i;
+					}
+				}
+				flow += f;
+				augmentationCount++;
+				// continue from the start of the first saturated arc
+				depth = retreat;
+				v = heads[reverse[path[depth]]];
+				continue;
+			}
+
+			int a = currentArc[v];
+			int end = offsets[v + 1];
+			while (a < end && (residual[a] == 0 || level[heads[a]] != level[v] + 1)) {
+				a++;
+			}
+			currentArc[v] = a;
+			if (a < end) {
+				path[depth++] = a;
+				v = heads[a];
+			} else {
+				// no way to the sink from here, step back
+				level[v] = -1;
+				if (depth == 0) {
+					return flow;
+				}
+				int back = path[--depth];
+				v = heads[reverse[back]];
+				currentArc[v]++;
+			}
+		}
+	}
+
+	/**
+	 * @return number of level graphs built by the last computation
+	 */
+	public int getPhaseCount() {
+		return phaseCount;
+	}
+
+	/**
+	 * @return number of augmenting paths used by the last computation
+	 */
+	public int getAugmentationCount() {
+		return augmentationCount;
+	}
+}
@@ -61,6 +61,68 @@ public static Network loadGraph(String filename) throws IOException {
 		return m;
 	}
 
+	/**
+	 * loads a Network from a sparse edge list file, see EdgeListReader for
+	 * the format; the weight of an edge is its capacity. Nodes and edges are
+	 * added while the file is read, in one pass.
+	 * 
+	 * @param filename
+	 *            URL to file
+	 * @return the network stored in file
+	 * @throws IOException
+	 *             if the file can not be read or is malformed
+	 */
+	public static Network loadEdgeList(String filename) throws IOException {
+		EdgeListReader reader = new EdgeListReader(filename);
+		try {
+			Network m = new Network();
+			int cNodes = readNodeCount(reader);
+			Node[] nodes = new Node[cNodes];
+			for (int i = 0; i < cNodes; i++) {
+				nodes[i] = m.addNode();
+			}
+			while (reader.hasNext()) {
+				int start = readNodeID(reader, cNodes);
+				int end = readNodeID(nextOnLine(reader), cNodes);
+				m.addEdge(nodes[start], nodes[end], nextOnLine(reader).nextDouble());
+				endOfLine(reader);
+			}
+			return m;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static int readNodeCount(EdgeListReader reader) throws IOException {
+		int cNodes = reader.nextInt();
+		if (cNodes < 0) {
+			throw reader.error("negative number of nodes");
+		}
+		return cNodes;
+	}
+
+	private static int readNodeID(EdgeListReader reader, int cNodes) throws IOException {
+		int id = reader.nextInt();
+		if (id < 0 || id >= cNodes) {
+			throw reader.error("node " + id + " does not exist");
+		}
+		return id;
+	}
+
+	// an edge has to be on one line
+	private static EdgeListReader nextOnLine(EdgeListReader reader) throws IOException {
+		if (!reader.hasNextOnLine()) {
+			throw reader.error("incomplete edge");
+		}
+		return reader;
+	}
+
+	private static void endOfLine(EdgeListReader reader) throws IOException {
+		if (reader.hasNextOnLine()) {
+			throw reader.error("more than three numbers for an edge");
+		}
+	}
+
 	/**
 	 * saves a Graph to given file
 	 * 
@@ -1 +1 @@
-import java.io.IOException;import java.util.HashMap;import java.util.LinkedList;/** * @author Uwe + Damien + Arne *  */public class Network extends DiGraph {	ResidualGraph residualGraph;		// -- constructor --	public Network() {	}	/**	 * Searches for sources in the graph	 * 	 * @return All sources found in the graph	 */	public Node findSource() {		LinkedList<Node> sources = new LinkedList<Node>();		boolean isSource = true;		// source <-> no incoming edges		for (Node n : nodes.values()) {			isSource = true;			for (Node m : nodes.values()) {				if (!m.equals(n) && isConnected(m, n)) {					isSource = false;					break;				}			}			if (isSource)				sources.add(n);		}		// error handling		if (sources.size() == 0)			System.out.println("Found no source in network");		else if(sources.size() > 1)			System.out.println("Found more than one source in network");				return sources.getFirst();	}	/**	 * Searches the graph for sinks.	 * 	 * @return All sinks found in the graph	 */	public Node findSink() {		LinkedList<Node> sinks = new LinkedList<Node>();		// sink <-> no outgoing edges		for (Node n : nodes.values()) {			if (n.getOutgoingEdges().isEmpty())				sinks.add(n);		}		// error handling		if (sinks.size() == 0)			System.out.println("Found no sink in network");		else if(sinks.size() > 1)			System.out.println("Found more than one sink in network");		return sinks.getFirst();	}	/**	 * Computes the maximum flow over the network with the Edmonds-Karp	 * Algorithm	 * 	 * @returns Value of maximal flow	 */	public double edmondsKarp() {		//nicht fertig				/**		 * Edmonds-Karp Algorithmus:		 *  1. Faengt mit leerem Fluss f an. Der Fluss wird iterativ vergroessert.		 *  2. Unter allen Pfaden von s nach t im Restgraphen Gf wird ein Pfad p mit den wenigstens Kanten ausgesucht.		 *     (z.B. durch Breitensuche im Restgraphen)		 *  3. Bestimmt den kritischen Wert des Pfades p (kleinste Restkapazitaet der Kanten).		 *  4. Alle Kantengewichte des Gf entlang p werden zm diesen kritischen Wert verringert.		 *     (Der Fluss braucht dabei nicht explizit gespeichert zu werden. Alle Info sind im Gf.)		 */				/**		 * Pseudocode aus der VL:		 * Gf <- Restgraph von G fuer leeren Fluss f ≡ 0		 * while es gibt einen Pfad p von s nach t in Gf do		 * 		waehle Pfad p in Gf mit den wenigstens Kanten		 * 		cv <- min{ rc(e) | e liegt auf Pfad p }		 * 		//aktualiesiere Gf entlang p:		 * 		for all Knoten v, w mit v->w auf Pfad p in Gf		 * 			rc(v,w) <- rc(v,w) - cv		 * 			rc(w,v) <- rc(w,v) + cv		 * 		end		 * end		 */		// These methods find the source and sink in the network		Node source = findSource();		Node sink = findSink();				int startNodeId = source.getID();		int endNodeId = sink.getID();		// You can use this method to create a residual network		residualGraph = initializeResidualGraph();		// TODO: Your implementation here				LinkedList<Node> path = new LinkedList<Node>();		path = this.residualGraph.findAugmentingPath(startNodeId, endNodeId);				double flow = 0;				while(path.isEmpty() == false){			double minCap = this.residualGraph.findMinCapacity(path);			flow += minCap;			this.residualGraph.updateResidualCapacity(minCap, path);			path = this.residualGraph.findAugmentingPath(startNodeId, endNodeId);		}				return flow;	}	/**	 * Builds the residual graph to a flow graph	 * 	 * @return the residual graph to this flow graph	 */	public ResidualGraph initializeResidualGraph() {		ResidualGraph residualGraph = new ResidualGraph();		// adding nodes		for (int i = 0; i < nodes.values().size(); i++)			residualGraph.addNode();		// adding edges		for (Node n : nodes.values()) {			for (Edge e : n.getOutgoingEdges()) {				// Add forward edges with same capacity				residualGraph.addEdge(n.id, e.endNode.id, e.weight);				// Add backwards edge				residualGraph.addEdge(e.endNode.id, n.id, 0);			}		}		return residualGraph;	}}
\ No newline at end of file
+import java.io.IOException;import java.util.HashMap;import java.util.HashSet;import java.util.LinkedList;/** * @author Uwe + Damien + Arne *  */public class Network extends DiGraph {	ResidualGraph residualGraph;		// -- constructor --	public Network() {	}	/**	 * Searches for sources in the graph	 * 	 * @return All sources found in the graph	 */	public Node findSource() {		LinkedList<Node> sources = new LinkedList<Node>();		// collect the end nodes of all edges once instead of testing every pair		HashSet<Node> hasIncoming = new HashSet<Node>();		for (Node m : nodes.values()) {			for (Edge e : m.getOutgoingEdges()) {				if (!e.endNode.equals(m))					hasIncoming.add(e.endNode);			}		}		// source <-> no incoming edges		for (Node n : nodes.values()) {			if (!hasIncoming.contains(n))				sources.add(n);		}		// error handling		if (sources.size() == 0)			System.out.println("Found no source in network");		else if(sources.size() > 1)			System.out.println("Found more than one source in network");				return sources.getFirst();	}	/**	 * Searches the graph for sinks.	 * 	 * @return All sinks found in the graph	 */	public Node findSink() {		LinkedList<Node> sinks = new LinkedList<Node>();		// sink <-> no outgoing edges		for (Node n : nodes.values()) {			if (n.getOutgoingEdges().isEmpty())				sinks.add(n);		}		// error handling		if (sinks.size() == 0)			System.out.println("Found no sink in network");		else if(sinks.size() > 1)			System.out.println("Found more than one sink in network");		return sinks.getFirst();	}	/**	 * Computes the maximum flow over the network with the Edmonds-Karp	 * Algorithm	 * 	 * @returns Value of maximal flow	 */	public double edmondsKarp() {		//nicht fertig				/**		 * Edmonds-Karp Algorithmus:		 *  1. Faengt mit leerem Fluss f an. Der Fluss wird iterativ vergroessert.		 *  2. Unter allen Pfaden von s nach t im Restgraphen Gf wird ein Pfad p mit den wenigstens Kanten ausgesucht.		 *     (z.B. durch Breitensuche im Restgraphen)		 *  3. Bestimmt den kritischen Wert des Pfades p (kleinste Restkapazitaet der Kanten).		 *  4. Alle Kantengewichte des Gf entlang p werden zm diesen kritischen Wert verringert.		 *     (Der Fluss braucht dabei nicht explizit gespeichert zu werden. Alle Info sind im Gf.)		 */				/**		 * Pseudocode aus der VL:		 * Gf <- Restgraph von G fuer leeren Fluss f ≡ 0		 * while es gibt einen Pfad p von s nach t in Gf do		 * 		waehle Pfad p in Gf mit den wenigstens Kanten		 * 		cv <- min{ rc(e) | e liegt auf Pfad p }		 * 		//aktualiesiere Gf entlang p:		 * 		for all Knoten v, w mit v->w auf Pfad p in Gf		 * 			rc(v,w) <- rc(v,w) - cv		 * 			rc(w,v) <- rc(w,v) + cv		 * 		end		 * end		 */		// These methods find the source and sink in the network		Node source = findSource();		Node sink = findSink();				int startNodeId = source.getID();		int endNodeId = sink.getID();		// You can use this method to create a residual network		residualGraph = initializeResidualGraph();		// TODO: Your implementation here				LinkedList<Node> path = new LinkedList<Node>();		path = this.residualGraph.findAugmentingPath(startNodeId, endNodeId);				double flow = 0;				while(path.isEmpty() == false){			double minCap = this.residualGraph.findMinCapacity(path);			flow += minCap;			this.residualGraph.updateResidualCapacity(minCap, path);			path = this.residualGraph.findAugmentingPath(startNodeId, endNodeId);		}				return flow;	}	/**	 * Computes the maximum flow over the network with the Edmonds-Karp	 * Algorithm on a ResidualNetwork, which works on arrays and exact integer	 * capacities instead of the ResidualGraph.	 * 	 * @return Value of maximal flow	 */	public long maxFlowEdmondsKarp() {		return toResidualNetwork().edmondsKarp(findSource().getID(), findSink().getID());	}	/**	 * Computes the maximum flow over the network with Dinic's algorithm,	 * which sends blocking flows over level graphs instead of one shortest	 * path at a time.	 * 	 * @return Value of maximal flow	 */	public long maxFlowDinic() {		return new Dinic(toResidualNetwork()).maxFlow(findSource().getID(), findSink().getID());	}	/**	 * Computes the value of the maximum flow over the network with the	 * push-relabel algorithm, which suits dense networks. Only the preflow	 * phase is run, since the flow itself is not needed for the value.	 * 	 * @return Value of maximal flow	 */	public long maxFlowPushRelabel() {		return new PushRelabel(toResidualNetwork()).minCut(findSource().getID(), findSink().getID());	}	/**	 * Computes the value of the maximum flow over the network with the	 * push-relabel algorithm on several threads, see ParallelPushRelabel.	 * 	 * @param parallelism	 *            number of threads to use	 * @return Value of maximal flow	 */	public long maxFlowParallelPushRelabel(int parallelism) {		ParallelPushRelabel engine = new ParallelPushRelabel(toResidualNetwork(), parallelism);		try {			return engine.minCut(findSource().getID(), findSink().getID());		} finally {			engine.shutdown();		}	}	/**	 * Computes the maximum flow over the network with capacity scaling,	 * which sends large amounts first and suits networks with capacities of	 * very different size.	 * 	 * @return Value of maximal flow	 */	public long maxFlowCapacityScaling() {		return toResidualNetwork().capacityScaling(findSource().getID(), findSink().getID());	}	/**	 * Builds the residual network to this flow graph in flat arrays. The ids	 * of the nodes have to be 0 to n-1, as given by addNode().	 * 	 * @return the residual network without flow	 * @throws IllegalArgumentException	 *             if a capacity is negative or not an integer	 */	public ResidualNetwork toResidualNetwork() {		int m = 0;		for (Node n : nodes.values())			m += n.getOutgoingEdges().size();		int[] tails = new int[m];		int[] heads = new int[m];		long[] capacities = new long[m];		int e = 0;		for (Node n : nodes.values()) {			for (Edge edge : n.getOutgoingEdges()) {				if (edge.weight != Math.rint(edge.weight))					throw new IllegalArgumentException("edge " + n.id + "->" + edge.endNode.id							+ " has the capacity " + edge.weight + ", which is not an integer");				tails[e] = n.id;				heads[e] = edge.endNode.id;				capacities[e] = (long) edge.weight;				e++;			}		}		return ResidualNetwork.fromEdges(nodes.size(), tails, heads, capacities, m);	}	/**	 * Builds the residual graph to a flow graph	 * 	 * @return the residual graph to this flow graph	 */	public ResidualGraph initializeResidualGraph() {		ResidualGraph residualGraph = new ResidualGraph();		// the search on the residual graph reports to the listener of the network		residualGraph.setStepListener(getStepListener());		// adding nodes		for (int i = 0; i < nodes.values().size(); i++)			residualGraph.addNode();		// adding edges		for (Node n : nodes.values()) {			for (Edge e : n.getOutgoingEdges()) {				// Add forward edges with same capacity				residualGraph.addEdge(n.id, e.endNode.id, e.weight);				// Add backwards edge				residualGraph.addEdge(e.endNode.id, n.id, 0);			}		}		return residualGraph;	}}
\ No newline at end of file
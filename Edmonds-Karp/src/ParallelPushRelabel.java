@@ -0,0 +1,387 @@
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Push-relabel without locks for several threads, after the asynchronous
+ * algorithm of Hong and He.
+ *
+ * Residual capacities, excesses and heights are shared atomic arrays. A
+ * node with excess is discharged by one task at a time: the task that raises
+ * the excess of a node from 0 forks the task for it, and a task ends when it
+ * lowers the excess of its node to 0 itself. A discharge step looks for the
+ * lowest neighbour over a residual arc; if it is lower than the node, as much
+ * excess as possible is pushed there with atomic additions, otherwise the
+ * node is lifted just above it. Heights only grow during a round. The tasks
+ * run on the work-stealing deques of a ForkJoinPool. All tasks of a round
+ * are counted by a CountedCompleter at its root, so the round ends exactly
+ * when the last discharge has finished. Counters are kept per task and added
+ * up when it ends, so the threads do not share a hot counter.
+ *
+ * After a certain amount of relabel work the thread that notices it computes
+ * the distances to the sink by a backward breadth first search while the
+ * other threads go on pushing, and raises the heights that are lower. Neither
+ * this search nor a discharge sees the other threads' changes at once, so a
+ * node may be lifted to n or more although it can still reach the sink, and
+ * it then stops. So when a round has ended, all heights are set to the exact
+ * distances, and another round follows as long as a node with excess can
+ * reach the sink. Only the first round relabels concurrently; the rounds
+ * after it are short.
+ *
+ * The result equals the one of PushRelabel.minCut(). The residual
+ * capacities are written back to the network at the end, so
+ * ResidualNetwork.isOnSourceSide() tells the minimum cut.
+ */
+public class ParallelPushRelabel {
+
+	/** global relabel after ALPHA * n + m units of relabel work */
+	private static final int ALPHA = 6;
+	/** relabel work of a node besides the arcs it scans */
+	private static final int BETA = 12;
+	/** relabel work a task collects before it adds it to the shared sum */
+	private static final int WORK_BATCH = 1024;
+
+	private final ResidualNetwork network;
+	private final int n;
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	private final AtomicLongArray residual;
+	private final AtomicLongArray excess;
+	private final AtomicIntegerArray height;
+
+	/** queue and distances of the global relabel, only one runs at a time */
+	private final int[] queue;
+	private final int[] distance;
+	/** nodes with excess at the start of a round */
+	private final int[] active;
+	private int activeCount;
+	private final AtomicBoolean relabelRunning = new AtomicBoolean();
+	private final LongAdder relabelWork = new LongAdder();
+	private volatile boolean concurrentRelabel;
+
+	private int source;
+	private int sink;
+
+	private final LongAdder pushCount = new LongAdder();
+	private final LongAdder relabelCount = new LongAdder();
+	private final LongAdder globalRelabelCount = new LongAdder();
+	private int roundCount;
+
+	/**
+	 * Creates an engine that runs on its own pool.
+	 *
+	 * @param network
+	 *            the network to send the flow through
+	 * @param parallelism
+	 *            number of worker threads
+	 */
+	public ParallelPushRelabel(ResidualNetwork network, int parallelism) {
+		this(network, new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates an engine that runs on the given pool.
+	 *
+	 * @param network
+	 *            the network to send the flow through
+	 * @param pool
+	 *            the pool to run the discharges on
+	 */
+	public ParallelPushRelabel(ResidualNetwork network, ForkJoinPool pool) {
+		this(network, pool, false);
+	}
+
+	private ParallelPushRelabel(ResidualNetwork network, ForkJoinPool pool, boolean ownsPool) {
+		this.network = network;
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		n = network.getNodeCount();
+		residual = new AtomicLongArray(network.capacity.length);
+		excess = new AtomicLongArray(n);
+		height = new AtomicIntegerArray(n);
+		queue = new int[n];
+		distance = new int[n];
+		active = new int[n];
+	}
+
+	/**
+	 * Computes the value of a maximum flow. The network holds a maximum
+	 * preflow afterwards, and ResidualNetwork.isOnSourceSide() tells a
+	 * minimum cut. Any flow left in the network is removed first.
+	 *
+	 * @param source
+	 *            the id of the source
+	 * @param sink
+	 *            the id of the sink
+	 * @return value of the maximum flow
+	 */
+	public long minCut(int source, int sink) {
+		this.source = source;
+		this.sink = sink;
+		pushCount.reset();
+		relabelCount.reset();
+		globalRelabelCount.reset();
+		roundCount = 0;
+		int[] offsets = network.offsets;
+		int[] heads = network.heads;
+		int[] reverse = network.reverse;
+		long[] capacity = network.capacity;
+		for (int a = 0; a < capacity.length; a++) {
+			residual.set(a, capacity[a]);
+		}
+		for (int v = 0; v < n; v++) {
+			excess.set(v, 0);
+		}
+
+		if (source != sink) {
+			// saturate the arcs out of the source
+			for (int a = offsets[source]; a < offsets[source + 1]; a++) {
+				long f = residual.get(a);
+				if (f > 0) {
+					residual.set(a, 0);
+					residual.addAndGet(reverse[a], f);
+					excess.addAndGet(heads[a], f);
+					excess.addAndGet(source, -f);
+				}
+			}
+
+			concurrentRelabel = true;
+			while (startRound()) {
+				roundCount++;
+				// invoke() keeps all forks of the round in the pool
+				pool.invoke(new Round());
+				// heights lifted too far by a concurrent relabel must not
+				// stop the next round
+				concurrentRelabel = false;
+			}
+		}
+
+		long[] result = network.residual;
+		for (int a = 0; a < result.length; a++) {
+			result[a] = residual.get(a);
+		}
+		network.markSinkUnreachable(sink);
+		return excess.get(sink);
+	}
+
+	// sets the exact heights and collects the nodes with excess that can
+	// reach the sink, false if there is none
+	private boolean startRound() {
+		computeDistances();
+		globalRelabelCount.increment();
+		relabelWork.reset();
+		activeCount = 0;
+		for (int v = 0; v < n; v++) {
+			height.set(v, v == source ? n : distance[v]);
+			if (v != source && v != sink && distance[v] < n && excess.get(v) > 0) {
+				active[activeCount++] = v;
+			}
+		}
+		return activeCount > 0;
+	}
+
+	/**
+	 * Root of a round. Every task of the round adds itself to the pending
+	 * count of the root before it is forked, so the root completes after the
+	 * last of them. The nodes to discharge are collected before the first
+	 * task runs; a node that gets excess later gets its task from the push.
+	 */
+	private class Round extends CountedCompleter<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void compute() {
+			for (int i = 0; i < activeCount; i++) {
+				addToPendingCount(1);
+				new Discharge(this, active[i]).fork();
+			}
+			tryComplete();
+		}
+	}
+
+	// distances to the sink in the residual network, n if there is no path
+	private void computeDistances() {
+		int[] offsets = network.offsets;
+		int[] heads = network.heads;
+		int[] reverse = network.reverse;
+		Arrays.fill(distance, n);
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = sink;
+		distance[sink] = 0;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				// w -> v has residual capacity
+				int w = heads[a];
+				if (distance[w] == n && w != source && residual.get(reverse[a]) > 0) {
+					distance[w] = distance[v] + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+	}
+
+	private class Discharge extends CountedCompleter<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Round round;
+		private final int node;
+		private int pushes;
+		private int relabels;
+		private long work;
+
+		Discharge(Round round, int node) {
+			super(round);
+			this.round = round;
+			this.node = node;
+		}
+
+		@Override
+		public void compute() {
+			discharge();
+			pushCount.add(pushes);
+			relabelCount.add(relabels);
+			publishWork();
+			tryComplete();
+		}
+
+		// adds the relabel work of this task to the shared sum and starts a
+		// global relabel if there is enough of it
+		private void publishWork() {
+			relabelWork.add(work);
+			work = 0;
+			if (concurrentRelabel && relabelWork.sum() > (long) ALPHA * n + network.getEdgeCount()
+					&& relabelRunning.compareAndSet(false, true)) {
+				// run here, a forked task would wait below the discharges
+				// this thread forks
+				globalRelabel();
+			}
+		}
+
+		// pushes the excess of the node until it is gone or the node is cut off
+		private void discharge() {
+			int[] offsets = network.offsets;
+			int[] heads = network.heads;
+			int[] reverse = network.reverse;
+			int u = node;
+			while (true) {
+				int h = height.get(u);
+				if (h >= n) {
+					// cut off from the sink, the excess stays here
+					return;
+				}
+				int lowest = Integer.MAX_VALUE;
+				int lowestArc = -1;
+				for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+					if (residual.get(a) > 0) {
+						int hw = height.get(heads[a]);
+						if (hw < lowest) {
+							lowest = hw;
+							lowestArc = a;
+						}
+					}
+				}
+				if (lowestArc < 0) {
+					return;
+				}
+
+				if (h > lowest) {
+					// only this task lowers the excess of u and the residual
+					// capacities of its arcs, so both are at least what was read
+					int w = heads[lowestArc];
+					long f = Math.min(excess.get(u), residual.get(lowestArc));
+					residual.addAndGet(lowestArc, -f);
+					residual.addAndGet(reverse[lowestArc], f);
+					if (excess.getAndAdd(w, f) == 0 && w != sink && w != source) {
+						round.addToPendingCount(1);
+						new Discharge(round, w).fork();
+					}
+					pushes++;
+					if (excess.addAndGet(u, -f) == 0) {
+						return;
+					}
+				} else {
+					raise(u, lowest + 1);
+					relabels++;
+					work += BETA + offsets[u + 1] - offsets[u];
+					if (work >= WORK_BATCH) {
+						publishWork();
+					}
+				}
+			}
+		}
+	}
+
+	// lifts the height of v to at least h
+	private void raise(int v, int h) {
+		int old = height.get(v);
+		while (old < h && !height.compareAndSet(v, old, h)) {
+			old = height.get(v);
+		}
+	}
+
+	// raises the heights to the distances to the sink while the other
+	// threads go on pushing
+	private void globalRelabel() {
+		try {
+			relabelWork.reset();
+			globalRelabelCount.increment();
+			computeDistances();
+			for (int v = 0; v < n; v++) {
+				if (v != source) {
+					raise(v, distance[v]);
+				}
+			}
+		} finally {
+			relabelRunning.set(false);
+		}
+	}
+
+	/**
+	 * @return number of pushes of the last computation
+	 */
+	public long getPushCount() {
+		return pushCount.sum();
+	}
+
+	/**
+	 * @return number of single relabels of the last computation
+	 */
+	public long getRelabelCount() {
+		return relabelCount.sum();
+	}
+
+	/**
+	 * @return number of global relabels of the last computation, the exact
+	 *         ones between rounds included
+	 */
+	public long getGlobalRelabelCount() {
+		return globalRelabelCount.sum();
+	}
+
+	/**
+	 * @return number of rounds of the last computation, a round ends when
+	 *         its last discharge has finished
+	 */
+	public int getRoundCount() {
+		return roundCount;
+	}
+
+	/**
+	 * Shuts down the pool of the engine if it was created by the engine. A
+	 * pool passed in by the caller is left running.
+	 */
+	public void shutdown() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,418 @@
+import java.util.Arrays;
+
+/**
+ * Maximum flow with the push-relabel algorithm of Goldberg and Tarjan on a
+ * ResidualNetwork, for networks with many edges per node where augmenting
+ * paths are slow.
+ *
+ * The first phase computes a maximum preflow: every node has a height, and
+ * a node with excess pushes it over residual arcs to nodes one level lower,
+ * or is lifted when there is no such arc. The active node with the highest
+ * height is discharged first. Two heuristics keep the heights close to the
+ * distances to the sink:
+ * <ul>
+ * <li>Global relabeling: after a certain amount of relabel work all heights
+ * are set to the exact distance to the sink by a backward breadth first
+ * search.</li>
+ * <li>Gap heuristic: if no node is left at some height h, the nodes above h
+ * cannot reach the sink anymore and are lifted to n at once.</li>
+ * </ul>
+ * Nodes at height n or more take no part in the first phase. When no active
+ * node is left, the excess of the sink is the value of a maximum flow and the
+ * nodes that cannot reach the sink form the source side of a minimum cut.
+ *
+ * Some nodes may still hold excess then. The second phase returns it to the
+ * source, again by pushes and relabels, so that afterwards the network holds
+ * a maximum flow. This is only needed if the flow itself is of interest.
+ */
+public class PushRelabel {
+
+	/** global relabel after ALPHA * n + m units of relabel work */
+	private static final int ALPHA = 6;
+	/** relabel work of a node besides the arcs it scans */
+	private static final int BETA = 12;
+
+	private final ResidualNetwork network;
+	private final int n;
+
+	private final int[] height;
+	private final long[] excess;
+	/** first arc of each node that may still be admissible */
+	private final int[] currentArc;
+	/** queue of the breadth first search and of the second phase */
+	private final int[] queue;
+
+	/** active nodes by height, as linked stacks */
+	private final int[] activeFirst;
+	private final int[] activeNext;
+	/** all nodes below height n by height, as doubly linked lists */
+	private final int[] bucketFirst;
+	private final int[] bucketNext;
+	private final int[] bucketPrev;
+	/** no active node is higher than this */
+	private int maxActive;
+	/** no node below n is higher than this */
+	private int maxHeight;
+
+	private int source;
+	private int sink;
+	private long relabelWork;
+	private boolean preflowDone;
+
+	private int pushCount;
+	private int relabelCount;
+	private int globalRelabelCount;
+	private int gapCount;
+
+	/**
+	 * Creates an engine for the given network.
+	 *
+	 * @param network
+	 *            the network to send the flow through
+	 */
+	public PushRelabel(ResidualNetwork network) {
+		this.network = network;
+		n = network.getNodeCount();
+		height = new int[n];
+		excess = new long[n];
+		currentArc = new int[n];
+		queue = new int[n];
+		activeFirst = new int[n + 1];
+		activeNext = new int[n];
+		bucketFirst = new int[n + 1];
+		bucketNext = new int[n];
+		bucketPrev = new int[n];
+	}
+
+	/**
+	 * Computes the value of a maximum flow with the first phase only. The
+	 * network holds a maximum preflow afterwards, so getFlow() of the network
+	 * is not meaningful, but ResidualNetwork.isOnSourceSide() tells a minimum
+	 * cut. Any flow left in the network is removed first.
+	 *
+	 * @param source
+	 *            the id of the source
+	 * @param sink
+	 *            the id of the sink
+	 * @return value of the maximum flow
+	 */
+	public long minCut(int source, int sink) {
+		network.reset();
+		this.source = source;
+		this.sink = sink;
+		pushCount = 0;
+		relabelCount = 0;
+		globalRelabelCount = 0;
+		gapCount = 0;
+		Arrays.fill(excess, 0);
+		preflowDone = false;
+		if (source == sink) {
+			network.markSourceSide(source);
+			preflowDone = true;
+			return 0;
+		}
+
+		// saturate the arcs out of the source
+		int[] heads = network.heads;
+		long[] residual = network.residual;
+		int[] reverse = network.reverse;
+		for (int a = network.offsets[source]; a < network.offsets[source + 1]; a++) {
+			long f = residual[a];
+			if (f > 0) {
+				residual[a] = 0;
+				residual[reverse[a]] += f;
+				excess[heads[a]] += f;
+				excess[source] -= f;
+			}
+		}
+
+		globalRelabel();
+		while (maxActive >= 0) {
+			int v = activeFirst[maxActive];
+			if (v < 0) {
+				maxActive--;
+				continue;
+			}
+			activeFirst[maxActive] = activeNext[v];
+			if (height[v] >= n) {
+				// lifted by a gap while it was waiting on its stack
+				continue;
+			}
+			discharge(v);
+			if (relabelWork > (long) ALPHA * n + network.heads.length / 2) {
+				globalRelabel();
+			}
+		}
+
+		network.markSinkUnreachable(sink);
+		preflowDone = true;
+		return excess[sink];
+	}
+
+	/**
+	 * Computes a maximum flow with both phases. The network holds the flow
+	 * afterwards, and ResidualNetwork.isOnSourceSide() tells a minimum cut.
+	 * Any flow left in the network is removed first.
+	 *
+	 * @param source
+	 *            the id of the source
+	 * @param sink
+	 *            the id of the sink
+	 * @return value of the maximum flow
+	 */
+	public long maxFlow(int source, int sink) {
+		long flow = minCut(source, sink);
+		convertToFlow();
+		return flow;
+	}
+
+	// sets the heights to the distances to the sink and rebuilds the buckets
+	private void globalRelabel() {
+		int[] offsets = network.offsets;
+		int[] heads = network.heads;
+		int[] reverse = network.reverse;
+		long[] residual = network.residual;
+		globalRelabelCount++;
+		relabelWork = 0;
+
+		Arrays.fill(height, n);
+		Arrays.fill(activeFirst, -1);
+		Arrays.fill(bucketFirst, -1);
+		maxActive = -1;
+		maxHeight = -1;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = sink;
+		height[sink] = 0;
+		while (head < tail) {
+			int v = queue[head++];
+			int h = height[v];
+			addToBucket(v, h);
+			if (excess[v] > 0 && v != sink) {
+				addActive(v, h);
+			}
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				// w -> v has residual capacity
+				int w = heads[a];
+				if (height[w] == n && w != source && residual[reverse[a]] > 0) {
+					height[w] = h + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+		System.arraycopy(offsets, 0, currentArc, 0, n);
+	}
+
+	// pushes the excess of v until it is gone or v has to be lifted
+	private void discharge(int v) {
+		int[] heads = network.heads;
+		long[] residual = network.residual;
+		int[] reverse = network.reverse;
+		int end = network.offsets[v + 1];
+		int h = height[v];
+		for (int a = currentArc[v]; a < end; a++) {
+			int w = heads[a];
+			if (residual[a] > 0 && height[w] == h - 1) {
+				long f = Math.min(excess[v], residual[a]);
+				residual[a] -= f;
+				residual[reverse[a]] += f;
+				if (excess[w] == 0 && w != sink) {
+					addActive(w, h - 1);
+				}
+				excess[w] += f;
+				excess[v] -= f;
+				pushCount++;
+				if (excess[v] == 0) {
+					currentArc[v] = a;
+					return;
+				}
+			}
+		}
+		relabel(v);
+		if (height[v] < n) {
+			addActive(v, height[v]);
+		}
+	}
+
+	// lifts v above its lowest neighbour, or removes the gap it leaves
+	private void relabel(int v) {
+		relabelCount++;
+		int h = height[v];
+		if (bucketFirst[h] == v && bucketNext[v] < 0) {
+			// v is the only node at height h, so lifting it leaves a gap
+			gapCount++;
+			for (int g = h; g <= maxHeight; g++) {
+				for (int u = bucketFirst[g]; u >= 0; u = bucketNext[u]) {
+					height[u] = n;
+				}
+				bucketFirst[g] = -1;
+			}
+			maxHeight = h - 1;
+			return;
+		}
+
+		removeFromBucket(v, h);
+		int[] offsets = network.offsets;
+		int[] heads = network.heads;
+		long[] residual = network.residual;
+		int lowest = n;
+		int lowestArc = offsets[v];
+		for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+			if (residual[a] > 0 && height[heads[a]] < lowest) {
+				lowest = height[heads[a]];
+				lowestArc = a;
+			}
+		}
+		relabelWork += BETA + offsets[v + 1] - offsets[v];
+		if (lowest + 1 >= n) {
+			height[v] = n;
+			return;
+		}
+		height[v] = lowest + 1;
+		currentArc[v] = lowestArc;
+		addToBucket(v, lowest + 1);
+	}
+
+	private void addActive(int v, int h) {
+		activeNext[v] = activeFirst[h];
+		activeFirst[h] = v;
+		if (h > maxActive) {
+			maxActive = h;
+		}
+	}
+
+	private void addToBucket(int v, int h) {
+		int first = bucketFirst[h];
+		bucketNext[v] = first;
+		bucketPrev[v] = -1;
+		if (first >= 0) {
+			bucketPrev[first] = v;
+		}
+		bucketFirst[h] = v;
+		if (h > maxHeight) {
+			maxHeight = h;
+		}
+	}
+
+	private void removeFromBucket(int v, int h) {
+		int next = bucketNext[v];
+		int prev = bucketPrev[v];
+		if (prev >= 0) {
+			bucketNext[prev] = next;
+		} else {
+			bucketFirst[h] = next;
+		}
+		if (next >= 0) {
+			bucketPrev[next] = prev;
+		}
+	}
+
+	/**
+	 * Second phase: returns the excess left by minCut() to the source, so
+	 * that the network holds a maximum flow of the same value. The heights
+	 * start at the distances to the source and the nodes with excess are
+	 * discharged in first in, first out order; the sink is never pushed to.
+	 */
+	public void convertToFlow() {
+		if (!preflowDone) {
+			throw new IllegalStateException("there is no preflow, call minCut() first");
+		}
+		int[] offsets = network.offsets;
+		int[] heads = network.heads;
+		int[] reverse = network.reverse;
+		long[] residual = network.residual;
+
+		// distances to the source in the residual network, avoiding the sink
+		int unreached = 2 * n;
+		Arrays.fill(height, unreached);
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = source;
+		height[source] = 0;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				int w = heads[a];
+				if (height[w] == unreached && w != sink && residual[reverse[a]] > 0) {
+					height[w] = height[v] + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+		// the sink is never admissible
+		height[sink] = Integer.MAX_VALUE;
+
+		head = 0;
+		int count = 0;
+		for (int v = 0; v < n; v++) {
+			if (excess[v] > 0 && v != source && v != sink) {
+				queue[count++] = v;
+			}
+		}
+		System.arraycopy(offsets, 0, currentArc, 0, n);
+		while (count > 0) {
+			int v = queue[head];
+			head = head + 1 == n ? 0 : head + 1;
+			count--;
+			while (excess[v] > 0) {
+				int a = currentArc[v];
+				int end = offsets[v + 1];
+				while (a < end && (residual[a] == 0 || height[heads[a]] != height[v] - 1)) {
+					a++;
+				}
+				if (a < end) {
+					int w = heads[a];
+					long f = Math.min(excess[v], residual[a]);
+					residual[a] -= f;
+					residual[reverse[a]] += f;
+					if (excess[w] == 0 && w != source) {
+						queue[(head + count++) % n] = w;
+					}
+					excess[w] += f;
+					excess[v] -= f;
+					pushCount++;
+					currentArc[v] = a;
+				} else {
+					relabelCount++;
+					int lowest = Integer.MAX_VALUE;
+					for (int b = offsets[v]; b < end; b++) {
+						if (residual[b] > 0 && height[heads[b]] < lowest) {
+							lowest = height[heads[b]];
+						}
+					}
+					height[v] = lowest + 1;
+					currentArc[v] = offsets[v];
+				}
+			}
+		}
+		preflowDone = false;
+	}
+
+	/**
+	 * @return number of pushes of the last computation
+	 */
+	public int getPushCount() {
+		return pushCount;
+	}
+
+	/**
+	 * @return number of single relabels of the last computation
+	 */
+	public int getRelabelCount() {
+		return relabelCount;
+	}
+
+	/**
+	 * @return number of global relabels of the last computation
+	 */
+	public int getGlobalRelabelCount() {
+		return globalRelabelCount;
+	}
+
+	/**
+	 * @return number of gaps found by the last computation
+	 */
+	public int getGapCount() {
+		return gapCount;
+	}
+}
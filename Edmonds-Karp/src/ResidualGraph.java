@@ -78,22 +78,23 @@ public class ResidualGraph extends DiGraph {
 		
 		nodeList.add(source); //fange mit source an
 
-		source.status = 0;
+		setStatus(source, Node.WHITE);
 		//BFS
 		while (nodeList.isEmpty() == false) {
 			Node node = nodeList.removeFirst();
-			node.status = 1;
+			setStatus(node, Node.GRAY);
+			this.stopExecutionUntilSignal();
 			path.add(node);
 			if (node.equals(sink)) break;
 			for (Node kind : node.getAdjacentNodes()) {
 				Edge edge = node.getEdgeTo(kind);
-				if (kind.status == 0 && edge.weight > 0) {
-						kind.status = 1;
+				if (kind.status == Node.WHITE && edge.weight > 0) {
+						setStatus(kind, Node.GRAY);
 						kind.predecessor = node;
 						nodeList.add(kind);
 					}
 				}
-			node.status = 2;
+			setStatus(node, Node.BLACK);
 			}
 		
 		this.resetState(); //"Raeum dein Zimmer auf!" haben wir gelernt! :)
@@ -0,0 +1,336 @@
+import java.util.Arrays;
+
+/**
+ * A residual network stored in flat arrays, for maximum flow algorithms that
+ * only touch primitive arrays.
+ *
+ * Every edge of the network becomes a pair of arcs: a forward arc with the
+ * capacity of the edge and a reverse arc with capacity 0. The arcs leaving
+ * node v are stored at the positions offsets[v] .. offsets[v+1]-1, and every
+ * arc knows the position of its partner in reverse[]. Sending f units over
+ * arc a lowers residual[a] by f and raises residual[reverse[a]] by f without
+ * searching for an edge. Capacities are integers of type long, so the flow
+ * values are exact and sums of many capacities do not overflow.
+ *
+ * The search workspace is allocated once with the network, so finding,
+ * measuring and using an augmenting path allocates nothing. A network must
+ * not be used by several threads at once. Use Network.toResidualNetwork() or
+ * fromEdges() to create one.
+ */
+public class ResidualNetwork {
+
+	/** start of the arcs of each node, length n+1 */
+	final int[] offsets;
+	/** end node of each arc */
+	final int[] heads;
+	/** position of the partner of each arc */
+	final int[] reverse;
+	/** capacity of each arc without flow, 0 for reverse arcs */
+	final long[] capacity;
+	/** remaining capacity of each arc */
+	final long[] residual;
+	/** forward arc of each edge, in the order the edges were given */
+	final int[] edgeArc;
+
+	/** nodes in the order the search reached them */
+	private final int[] queue;
+	/** arc the search reached each node over */
+	private final int[] parentArc;
+	/** number of the search that last reached each node */
+	private final int[] reached;
+	private int search;
+
+	private int augmentationCount;
+
+	/**
+	 * Creates a network from arrays grouped by start node. The arrays are not
+	 * copied.
+	 */
+	ResidualNetwork(int[] offsets, int[] heads, int[] reverse, long[] capacity, int[] edgeArc) {
+		this.offsets = offsets;
+		this.heads = heads;
+		this.reverse = reverse;
+		this.capacity = capacity;
+		this.residual = capacity.clone();
+		this.edgeArc = edgeArc;
+		int n = offsets.length - 1;
+		queue = new int[n];
+		parentArc = new int[n];
+		reached = new int[n];
+	}
+
+	/**
+	 * Builds a residual network from a list of edges.
+	 *
+	 * @param nodeCount
+	 *            number of nodes, all ids have to be smaller than this
+	 * @param tails
+	 *            start node of each edge
+	 * @param heads
+	 *            end node of each edge
+	 * @param capacities
+	 *            capacity of each edge, not negative
+	 * @param edgeCount
+	 *            number of valid entries in the three arrays
+	 * @return the network without flow
+	 * @throws IllegalArgumentException
+	 *             if a node does not exist or a capacity is negative
+	 */
+	public static ResidualNetwork fromEdges(int nodeCount, int[] tails, int[] heads, long[] capacities,
+			int edgeCount) {
+		int[] offsets = new int[nodeCount + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			if (tails[e] < 0 || tails[e] >= nodeCount || heads[e] < 0 || heads[e] >= nodeCount) {
+				throw new IllegalArgumentException("edge " + tails[e] + "->" + heads[e] + " leaves the network");
+			}
+			if (capacities[e] < 0) {
+				throw new IllegalArgumentException("edge " + tails[e] + "->" + heads[e]
+						+ " has the negative capacity " + capacities[e]);
+			}
+			// the forward arc leaves the tail, the reverse arc the head
+			offsets[tails[e] + 1]++;
+			offsets[heads[e] + 1]++;
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+
+		int arcCount = offsets[nodeCount];
+		int[] next = Arrays.copyOf(offsets, nodeCount);
+		int[] arcHeads = new int[arcCount];
+		int[] reverse = new int[arcCount];
+		long[] capacity = new long[arcCount];
+		int[] edgeArc = new int[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			int forward = next[tails[e]]++;
+			int backward = next[heads[e]]++;
+			arcHeads[forward] = heads[e];
+			arcHeads[backward] = tails[e];
+			reverse[forward] = backward;
+			reverse[backward] = forward;
+			capacity[forward] = capacities[e];
+			edgeArc[e] = forward;
+		}
+		return new ResidualNetwork(offsets, arcHeads, reverse, capacity, edgeArc);
+	}
+
+	/**
+	 * Computes a maximum flow with the Edmonds-Karp algorithm: as long as a
+	 * breadth first search finds a path with residual capacity from the
+	 * source to the sink, the smallest residual capacity on it is sent along
+	 * the path. Any flow left from an earlier run is removed first.
+	 *
+	 * @param source
+	 *            the id of the source
+	 * @param sink
+	 *            the id of the sink
+	 * @return value of the maximum flow
+	 */
+	public long edmondsKarp(int source, int sink) {
+		reset();
+		if (source == sink) {
+			return 0;
+		}
+		long flow = 0;
+		while (findAugmentingPath(source, sink)) {
+			long f = bottleneck(source, sink);
+			augment(source, sink, f);
+			flow += f;
+		}
+		return flow;
+	}
+
+	/**
+	 * Computes a maximum flow by capacity scaling: augmenting paths are
+	 * searched as in edmondsKarp(), but only over arcs with a residual
+	 * capacity of at least delta. Delta starts at the largest power of two
+	 * not above the largest capacity and is halved when no such path is left.
+	 * Each phase finds at most 2m paths, so with capacities up to U there are
+	 * O(m log U) augmentations instead of many small ones. Any flow left from
+	 * an earlier run is removed first.
+	 *
+	 * @param source
+	 *            the id of the source
+	 * @param sink
+	 *            the id of the sink
+	 * @return value of the maximum flow
+	 */
+	public long capacityScaling(int source, int sink) {
+		reset();
+		if (source == sink) {
+			return 0;
+		}
+		long largest = 0;
+		for (int a = 0; a < capacity.length; a++) {
+			largest = Math.max(largest, capacity[a]);
+		}
+		long flow = 0;
+		for (long delta = Long.highestOneBit(largest); delta >= 1; delta /= 2) {
+			while (findAugmentingPath(source, sink, delta)) {
+				long f = bottleneck(source, sink);
+				augment(source, sink, f);
+				flow += f;
+			}
+		}
+		// the search of the last phase failed, so reached is the source side
+		if (largest == 0) {
+			markSourceSide(source);
+		}
+		return flow;
+	}
+
+	/**
+	 * Searches a shortest path with residual capacity by breadth first
+	 * search and records it in parentArc. Afterwards the nodes reached are
+	 * the source side of a minimum cut if no path was found.
+	 *
+	 * @return true if the sink was reached
+	 */
+	boolean findAugmentingPath(int source, int sink) {
+		return findAugmentingPath(source, sink, 1);
+	}
+
+	/**
+	 * Searches a shortest path over arcs with a residual capacity of at
+	 * least delta, as findAugmentingPath(int, int) does for delta 1.
+	 *
+	 * @return true if the sink was reached
+	 */
+	boolean findAugmentingPath(int source, int sink, long delta) {
+		nextSearch();
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = source;
+		reached[source] = search;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				int w = heads[a];
+				if (residual[a] >= delta && reached[w] != search) {
+					reached[w] = search;
+					parentArc[w] = a;
+					if (w == sink) {
+						return true;
+					}
+					queue[tail++] = w;
+				}
+			}
+		}
+		return false;
+	}
+
+	// the smallest residual capacity on the path found last
+	long bottleneck(int source, int sink) {
+		long f = Long.MAX_VALUE;
+		for (int v = sink; v != source; v = heads[reverse[parentArc[v]]]) {
+			f = Math.min(f, residual[parentArc[v]]);
+		}
+		return f;
+	}
+
+	// sends f units along the path found last
+	void augment(int source, int sink, long f) {
+		for (int v = sink; v != source; v = heads[reverse[parentArc[v]]]) {
+			int a = parentArc[v];
+			residual[a] -= f;
+			residual[reverse[a]] += f;
+		}
+		augmentationCount++;
+	}
+
+	/**
+	 * Marks the nodes that can be reached from the source in the residual
+	 * network, for isOnSourceSide().
+	 */
+	void markSourceSide(int source) {
+		findAugmentingPath(source, -1);
+	}
+
+	/**
+	 * Marks the nodes that cannot reach the sink in the residual network, for
+	 * isOnSourceSide(). Unlike markSourceSide() this finds a minimum cut for
+	 * a maximum preflow, where some nodes still hold excess.
+	 */
+	void markSinkUnreachable(int sink) {
+		nextSearch();
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = sink;
+		reached[sink] = search;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				// heads[a] -> v has residual capacity
+				int w = heads[a];
+				if (residual[reverse[a]] > 0 && reached[w] != search) {
+					reached[w] = search;
+					queue[tail++] = w;
+				}
+			}
+		}
+		// 0 is never the number of a search
+		for (int v = 0; v < reached.length; v++) {
+			reached[v] = reached[v] == search ? 0 : search;
+		}
+	}
+
+	private void nextSearch() {
+		if (search == Integer.MAX_VALUE) {
+			Arrays.fill(reached, 0);
+			search = 0;
+		}
+		search++;
+	}
+
+	/**
+	 * Removes all flow from the network.
+	 */
+	public void reset() {
+		System.arraycopy(capacity, 0, residual, 0, capacity.length);
+		augmentationCount = 0;
+	}
+
+	/**
+	 * @param edge
+	 *            the index of an edge, in the order the edges were given
+	 * @return the flow over the edge
+	 */
+	public long getFlow(int edge) {
+		int a = edgeArc[edge];
+		return capacity[a] - residual[a];
+	}
+
+	/**
+	 * Tells if a node is on the source side of the minimum cut found by the
+	 * last maximum flow computation, i.e. if it can still be reached from
+	 * the source in the residual network.
+	 *
+	 * @param nodeID
+	 *            the id of the node
+	 * @return true if the node is on the source side
+	 */
+	public boolean isOnSourceSide(int nodeID) {
+		return reached[nodeID] == search;
+	}
+
+	/**
+	 * @return number of nodes
+	 */
+	public int getNodeCount() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * @return number of edges, every edge has a forward and a reverse arc
+	 */
+	public int getEdgeCount() {
+		return edgeArc.length;
+	}
+
+	/**
+	 * @return number of augmenting paths used by the last computation
+	 */
+	public int getAugmentationCount() {
+		return augmentationCount;
+	}
+}
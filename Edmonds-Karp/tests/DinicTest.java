@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DinicTest {
+
+	@Test
+	public void testEdgeList_pokalfinale() throws IOException {
+		Network g = GraphIO.loadEdgeList("tests/testgraphen/graph_pokalfinale_edges.txt");
+		g.setShowSteps(false);
+
+		Assert.assertEquals(11, g.maxFlowDinic());
+		Assert.assertEquals(g.edmondsKarp(), g.maxFlowDinic(), 0.0);
+	}
+
+	@Test
+	public void testRandomNetworksMatchEdmondsKarp() {
+		Random random = new Random(22);
+		for (int round = 0; round < 50; round++) {
+			int n = 2 + random.nextInt(60);
+			int m = random.nextInt(8 * n);
+			FlowTestUtil.TestNetwork g = FlowTestUtil.randomNetwork(random, n, m, 1000);
+			long expected = g.network.edmondsKarp(0, n - 1);
+			long flow = new Dinic(g.network).maxFlow(0, n - 1);
+			Assert.assertEquals(expected, flow);
+			FlowTestUtil.assertMaximumFlow(g, 0, n - 1, flow);
+		}
+	}
+
+	@Test
+	public void testLayeredNetwork() {
+		// 20 layers of 500 nodes, every node has edges to 5 nodes of the
+		// next layer
+		Random random = new Random(5);
+		int layers = 20;
+		int width = 500;
+		int n = layers * width + 2;
+		int source = n - 2;
+		int sink = n - 1;
+		int m = 2 * width + (layers - 1) * width * 5;
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		long[] capacities = new long[m];
+		int e = 0;
+		for (int i = 0; i < width; i++) {
+			tails[e] = source;
+			heads[e] = i;
+			capacities[e++] = 1000;
+			tails[e] = (layers - 1) * width + i;
+			heads[e] = sink;
+			capacities[e++] = 1000;
+		}
+		for (int l = 0; l + 1 < layers; l++) {
+			for (int i = 0; i < width; i++) {
+				for (int k = 0; k < 5; k++) {
+					tails[e] = l * width + i;
+					heads[e] = (l + 1) * width + random.nextInt(width);
+					capacities[e++] = 1 + random.nextInt(100);
+				}
+			}
+		}
+		FlowTestUtil.TestNetwork g = new FlowTestUtil.TestNetwork(n, tails, heads, capacities);
+		Dinic dinic = new Dinic(g.network);
+		long flow = dinic.maxFlow(source, sink);
+		// the cut proves the flow maximal, Edmonds-Karp would take far longer
+		FlowTestUtil.assertMaximumFlow(g, source, sink, flow);
+		Assert.assertTrue(dinic.getPhaseCount() <= n);
+	}
+
+	@Test
+	public void testSourceIsSink() {
+		ResidualNetwork r = ResidualNetwork.fromEdges(2, new int[] { 0 }, new int[] { 1 }, new long[] { 4 }, 1);
+		Assert.assertEquals(0, new Dinic(r).maxFlow(1, 1));
+	}
+}
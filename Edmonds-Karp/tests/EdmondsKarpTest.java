@@ -20,5 +20,45 @@ public class EdmondsKarpTest
 		Assert.assertEquals("Error Calculating Max Flow on Graph: graph_pokalfinale . ", 11, g1.edmondsKarp(), 0.01);
 	}
 
+	@Test
+	public void testEdmondsKarpEdgeList_pokalfinale() throws IOException {
+		Network g = GraphIO.loadEdgeList("tests/testgraphen/graph_pokalfinale_edges.txt");
+		g.setShowSteps(false);
+
+		Assert.assertEquals(4, g.getNodes().size());
+		Assert.assertEquals(10, g.getWeight(0, 1), 0.0);
+		Assert.assertEquals("Error Calculating Max Flow on Graph: graph_pokalfinale_edges . ", 11, g.edmondsKarp(), 0.01);
+	}
+
+	@Test
+	public void testEdmondsKarpReportsSteps() throws IOException {
+		Network g = GraphIO.loadEdgeList("tests/testgraphen/graph_pokalfinale_edges.txt");
+		// counts colored nodes and finished steps
+		final int[] counts = new int[2];
+		g.setStepListener(new StepListener() {
+			@Override
+			public void nodeColored(int nodeID, int color) {
+				counts[0]++;
+			}
+
+			@Override
+			public void edgeColored(int startNodeID, int targetNodeID, int color) {
+			}
+
+			@Override
+			public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+			}
+
+			@Override
+			public void step() {
+				counts[1]++;
+			}
+		});
+
+		Assert.assertEquals(11, g.edmondsKarp(), 0.01);
+		Assert.assertTrue(counts[0] > 0);
+		Assert.assertTrue(counts[1] > 0);
+	}
+
  }
 
@@ -0,0 +1,93 @@
+import java.util.Random;
+
+import org.junit.Assert;
+
+/**
+ * Random networks and checks of flows and cuts for the tests of the maximum
+ * flow algorithms.
+ */
+public class FlowTestUtil {
+
+	/**
+	 * A residual network together with the edges it was built from, so that
+	 * flows and cuts can be checked edge by edge.
+	 */
+	static class TestNetwork {
+
+		final int[] tails;
+		final int[] heads;
+		final long[] capacities;
+		final ResidualNetwork network;
+
+		TestNetwork(int nodeCount, int[] tails, int[] heads, long[] capacities) {
+			this.tails = tails;
+			this.heads = heads;
+			this.capacities = capacities;
+			network = ResidualNetwork.fromEdges(nodeCount, tails, heads, capacities, tails.length);
+		}
+	}
+
+	/**
+	 * Random network with capacities from 0 to maxCapacity-1; loops and
+	 * parallel edges may occur.
+	 */
+	static TestNetwork randomNetwork(Random random, int nodeCount, int edgeCount, int maxCapacity) {
+		return randomNetwork(random, nodeCount, edgeCount, maxCapacity, false);
+	}
+
+	/**
+	 * Random network with capacities from 1 to 10^9, spread over all
+	 * magnitudes, so that many shortest paths carry little flow.
+	 */
+	static TestNetwork randomWideNetwork(Random random, int nodeCount, int edgeCount) {
+		return randomNetwork(random, nodeCount, edgeCount, 0, true);
+	}
+
+	private static TestNetwork randomNetwork(Random random, int nodeCount, int edgeCount, int maxCapacity,
+			boolean wide) {
+		int[] tails = new int[edgeCount];
+		int[] heads = new int[edgeCount];
+		long[] capacities = new long[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			tails[e] = random.nextInt(nodeCount);
+			heads[e] = random.nextInt(nodeCount);
+			capacities[e] = wide ? 1 + (long) Math.pow(10, 9 * random.nextDouble()) : random.nextInt(maxCapacity);
+		}
+		return new TestNetwork(nodeCount, tails, heads, capacities);
+	}
+
+	// checks capacities and conservation, and that the flow is as large as
+	// the minimum cut
+	static void assertMaximumFlow(TestNetwork g, int source, int sink, long flow) {
+		ResidualNetwork r = g.network;
+		long[] balance = new long[r.getNodeCount()];
+		for (int e = 0; e < g.tails.length; e++) {
+			long f = r.getFlow(e);
+			Assert.assertTrue(f >= 0 && f <= g.capacities[e]);
+			balance[g.tails[e]] -= f;
+			balance[g.heads[e]] += f;
+		}
+		for (int v = 0; v < balance.length; v++) {
+			if (v != source && v != sink) {
+				Assert.assertEquals(0, balance[v]);
+			}
+		}
+		Assert.assertEquals(flow, balance[sink]);
+		assertMinimumCut(g, source, sink, flow);
+	}
+
+	// checks that the source side separates source and sink by a cut of the
+	// given capacity; holds for a maximum preflow as well
+	static void assertMinimumCut(TestNetwork g, int source, int sink, long flow) {
+		ResidualNetwork r = g.network;
+		long cut = 0;
+		for (int e = 0; e < g.tails.length; e++) {
+			if (r.isOnSourceSide(g.tails[e]) && !r.isOnSourceSide(g.heads[e])) {
+				cut += g.capacities[e];
+			}
+		}
+		Assert.assertTrue(r.isOnSourceSide(source));
+		Assert.assertFalse(r.isOnSourceSide(sink));
+		Assert.assertEquals(flow, cut);
+	}
+}
@@ -0,0 +1,89 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelPushRelabelTest {
+
+	@Test
+	public void testGraph_pokalfinale() throws IOException {
+		Network g = GraphIO.loadGraph("tests/testgraphen/graph_pokalfinale.txt");
+		g.setShowSteps(false);
+
+		Assert.assertEquals(11, g.maxFlowParallelPushRelabel(4));
+		Assert.assertEquals(g.edmondsKarp(), g.maxFlowParallelPushRelabel(2), 0.0);
+	}
+
+	@Test
+	public void testRoundEndsAfterLastDischarge() {
+		// a round used to end while discharges were still running, which
+		// lost flow on this network in some runs
+		int[] tails = { 3, 0, 0, 2, 2, 1, 1 };
+		int[] heads = { 0, 1, 1, 3, 0, 1, 1 };
+		long[] capacities = { 5, 3, 2, 2, 1, 1, 1 };
+		ResidualNetwork r = ResidualNetwork.fromEdges(4, tails, heads, capacities, 7);
+		ForkJoinPool shared = new ForkJoinPool(4);
+		try {
+			for (int run = 0; run < 1000; run++) {
+				ParallelPushRelabel own = new ParallelPushRelabel(r, 1 + run % 4);
+				try {
+					Assert.assertEquals(5, own.minCut(3, 1));
+				} finally {
+					own.shutdown();
+				}
+				Assert.assertEquals(5, new ParallelPushRelabel(r, shared).minCut(3, 1));
+			}
+		} finally {
+			shared.shutdown();
+		}
+	}
+
+	@Test
+	public void testRandomNetworksMatchEdmondsKarp() {
+		Random random = new Random(24);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int round = 0; round < 200; round++) {
+				int n = 2 + random.nextInt(60);
+				int m = random.nextInt(8 * n);
+				FlowTestUtil.TestNetwork g = FlowTestUtil.randomNetwork(random, n, m, 1000);
+				long expected = g.network.edmondsKarp(0, n - 1);
+				Assert.assertEquals(expected, new ParallelPushRelabel(g.network, pool).minCut(0, n - 1));
+				FlowTestUtil.assertMinimumCut(g, 0, n - 1, expected);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testLargeSparseNetwork() {
+		// 20000 nodes with 4 random edges each
+		Random random = new Random(8);
+		int n = 20000;
+		int m = 4 * n;
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		long[] capacities = new long[m];
+		for (int e = 0; e < m; e++) {
+			tails[e] = e / 4;
+			heads[e] = random.nextInt(n);
+			capacities[e] = 1 + random.nextInt(1000);
+		}
+		FlowTestUtil.TestNetwork g = new FlowTestUtil.TestNetwork(n, tails, heads, capacities);
+		long expected = new Dinic(g.network).maxFlow(0, n - 1);
+		ParallelPushRelabel engine = new ParallelPushRelabel(g.network, 4);
+		try {
+			// a second run on the same engine starts from scratch
+			for (int run = 0; run < 2; run++) {
+				Assert.assertEquals(expected, engine.minCut(0, n - 1));
+				FlowTestUtil.assertMinimumCut(g, 0, n - 1, expected);
+			}
+			Assert.assertTrue(engine.getRoundCount() >= 1);
+		} finally {
+			engine.shutdown();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PushRelabelTest {
+
+	@Test
+	public void testGraph_pokalfinale() throws IOException {
+		Network g = GraphIO.loadGraph("tests/testgraphen/graph_pokalfinale.txt");
+		g.setShowSteps(false);
+
+		Assert.assertEquals(11, g.maxFlowPushRelabel());
+		Assert.assertEquals(g.edmondsKarp(), g.maxFlowPushRelabel(), 0.0);
+	}
+
+	@Test
+	public void testRandomNetworksMatchEdmondsKarp() {
+		Random random = new Random(23);
+		for (int round = 0; round < 200; round++) {
+			int n = 2 + random.nextInt(60);
+			int m = random.nextInt(8 * n);
+			FlowTestUtil.TestNetwork g = FlowTestUtil.randomNetwork(random, n, m, 1000);
+			long expected = g.network.edmondsKarp(0, n - 1);
+			PushRelabel pushRelabel = new PushRelabel(g.network);
+
+			// the first phase finds the value and a minimum cut
+			Assert.assertEquals(expected, pushRelabel.minCut(0, n - 1));
+			FlowTestUtil.assertMinimumCut(g, 0, n - 1, expected);
+
+			// the second phase turns the preflow into a flow
+			pushRelabel.convertToFlow();
+			FlowTestUtil.assertMaximumFlow(g, 0, n - 1, expected);
+			Assert.assertEquals(expected, pushRelabel.maxFlow(0, n - 1));
+			FlowTestUtil.assertMaximumFlow(g, 0, n - 1, expected);
+		}
+	}
+
+	@Test
+	public void testDenseNetwork() {
+		// every pair of 400 nodes is connected in both directions
+		Random random = new Random(4);
+		int n = 400;
+		int m = n * (n - 1);
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		long[] capacities = new long[m];
+		int e = 0;
+		for (int v = 0; v < n; v++) {
+			for (int w = 0; w < n; w++) {
+				if (v != w) {
+					tails[e] = v;
+					heads[e] = w;
+					capacities[e++] = random.nextInt(1000000);
+				}
+			}
+		}
+		FlowTestUtil.TestNetwork g = new FlowTestUtil.TestNetwork(n, tails, heads, capacities);
+		PushRelabel pushRelabel = new PushRelabel(g.network);
+		long flow = pushRelabel.maxFlow(0, n - 1);
+		FlowTestUtil.assertMaximumFlow(g, 0, n - 1, flow);
+		Assert.assertEquals(flow, new Dinic(g.network).maxFlow(0, n - 1));
+		Assert.assertTrue(pushRelabel.getGlobalRelabelCount() >= 1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testConvertWithoutPreflow() {
+		ResidualNetwork r = ResidualNetwork.fromEdges(2, new int[] { 0 }, new int[] { 1 }, new long[] { 4 }, 1);
+		new PushRelabel(r).convertToFlow();
+	}
+}
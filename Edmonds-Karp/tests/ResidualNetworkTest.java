@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResidualNetworkTest {
+
+	@Test
+	public void testEdgeList_pokalfinale() throws IOException {
+		Network g = GraphIO.loadEdgeList("tests/testgraphen/graph_pokalfinale_edges.txt");
+		g.setShowSteps(false);
+
+		ResidualNetwork r = g.toResidualNetwork();
+		Assert.assertEquals(4, r.getNodeCount());
+		Assert.assertEquals(5, r.getEdgeCount());
+		Assert.assertEquals(11, r.edmondsKarp(0, 3));
+		Assert.assertTrue(r.isOnSourceSide(0));
+		Assert.assertFalse(r.isOnSourceSide(3));
+
+		Assert.assertEquals(11, g.maxFlowEdmondsKarp());
+		Assert.assertEquals(g.edmondsKarp(), g.maxFlowEdmondsKarp(), 0.0);
+	}
+
+	@Test
+	public void testRandomNetworks() {
+		Random random = new Random(21);
+		for (int round = 0; round < 50; round++) {
+			int n = 2 + random.nextInt(40);
+			int m = random.nextInt(6 * n);
+			FlowTestUtil.TestNetwork g = FlowTestUtil.randomNetwork(random, n, m, 100);
+			ResidualNetwork r = g.network;
+			long flow = r.edmondsKarp(0, n - 1);
+			FlowTestUtil.assertMaximumFlow(g, 0, n - 1, flow);
+
+			// a second run starts without flow
+			Assert.assertEquals(flow, r.edmondsKarp(0, n - 1));
+		}
+	}
+
+	@Test
+	public void testCapacitiesBeyondInt() {
+		long big = 3L * Integer.MAX_VALUE;
+		int[] tails = { 0, 0, 1, 2 };
+		int[] heads = { 1, 2, 3, 3 };
+		long[] capacities = { big, big, big, big + 5 };
+		ResidualNetwork r = ResidualNetwork.fromEdges(4, tails, heads, capacities, 4);
+		Assert.assertEquals(2 * big, r.edmondsKarp(0, 3));
+		Assert.assertEquals(big, r.getFlow(3));
+	}
+
+	@Test
+	public void testCapacityScaling() throws IOException {
+		Network g = GraphIO.loadEdgeList("tests/testgraphen/graph_pokalfinale_edges.txt");
+		g.setShowSteps(false);
+		Assert.assertEquals(11, g.maxFlowCapacityScaling());
+
+		Random random = new Random(25);
+		for (int round = 0; round < 50; round++) {
+			int n = 2 + random.nextInt(40);
+			int m = random.nextInt(6 * n);
+			FlowTestUtil.TestNetwork t = FlowTestUtil.randomWideNetwork(random, n, m);
+			ResidualNetwork r = t.network;
+			long expected = r.edmondsKarp(0, n - 1);
+			long flow = r.capacityScaling(0, n - 1);
+			Assert.assertEquals(expected, flow);
+			FlowTestUtil.assertMaximumFlow(t, 0, n - 1, flow);
+		}
+	}
+
+	@Test
+	public void testCapacityScalingNeedsFewerPaths() {
+		int n = 500;
+		FlowTestUtil.TestNetwork g = FlowTestUtil.randomWideNetwork(new Random(25), n, 8 * n);
+		ResidualNetwork r = g.network;
+		long expected = r.edmondsKarp(0, n - 1);
+		int plainPaths = r.getAugmentationCount();
+		Assert.assertEquals(expected, r.capacityScaling(0, n - 1));
+		Assert.assertTrue(r.getAugmentationCount() * 2 < plainPaths);
+		FlowTestUtil.assertMaximumFlow(g, 0, n - 1, expected);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeCapacity() {
+		ResidualNetwork.fromEdges(2, new int[] { 0 }, new int[] { 1 }, new long[] { -1 }, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFractionalCapacity() {
+		Network g = new Network();
+		g.addNode();
+		g.addNode();
+		g.addEdge(0, 1, 1.5);
+		g.toResidualNetwork();
+	}
+}
@@ -28,8 +28,8 @@ public class DiGraph implements Graph {
 
 	public HashMap<Integer, Node> nodes;
 
-	// needed for testing, where the execution of methods should not stop
-	private boolean showSteps = true;
+	// stepping is opt-in: without setShowSteps(true) the algorithms never wait
+	private boolean showSteps = false;
 
 	public DiGraph() {
 		nodes = new HashMap<Integer, Node>();
@@ -189,9 +189,9 @@ public class DiGraph implements Graph {
 	@Override
 	public void clearMarks() {
 		for (Node nextNode : nodes.values()) {
-			nextNode.status = Node.WHITE;
+			setStatus(nextNode, Node.WHITE);
 			for (Edge nextEdge : nextNode.getIncidentEdges()) {
-				nextEdge.status = Edge.WHITE;
+				setStatus(nextNode, nextEdge, Edge.WHITE);
 			}
 		}
 	}
@@ -201,7 +201,7 @@ public class DiGraph implements Graph {
 	 */
 	protected void resetState() {
 		for (Node n : nodes.values()) {
-			n.status = Node.WHITE;
+			setStatus(n, Node.WHITE);
 		}
 	}
 	
@@ -219,10 +219,10 @@ public class DiGraph implements Graph {
 			System.out.println("Error! this node does not exist!");
 			return;
 		}
-		startNode.status = Node.GRAY;
+		setStatus(startNode, Node.GRAY);
 		
 		this.stopExecutionUntilSignal();
-		startNode.status = Node.BLACK;
+		setStatus(startNode, Node.BLACK);
 		
 		List<Edge> edges = startNode.getIncidentEdges();
 		Random ran = new Random();
@@ -233,7 +233,7 @@ public class DiGraph implements Graph {
 			//white and gray neighbor nodes will add to nodes-list
 			for(Edge e: edges){
 				if(e.endnode.status != Node.BLACK){
-					e.endnode.status = Node.GRAY;
+					setStatus(e.endnode, Node.GRAY);
 					nodes.add(e.endnode);
 				}
 			}
@@ -242,7 +242,7 @@ public class DiGraph implements Graph {
 			
 			startNode= nodes.get(ran.nextInt(nodes.size()));
 			edges = startNode.getIncidentEdges();
-			startNode.status = Node.BLACK;
+			setStatus(startNode, Node.BLACK);
 		}
 	}
 	
@@ -269,20 +269,20 @@ public class DiGraph implements Graph {
 			
 			this.stopExecutionUntilSignal();
 			
-			startNode.status = Node.GRAY;
+			setStatus(startNode, Node.GRAY);
 			queue.addLast(startNode);
 			
 			while(!queue.isEmpty()){
 				Node current = queue.removeFirst();
 				this.stopExecutionUntilSignal();
-				current.status = Node.BLACK;
+				setStatus(current, Node.BLACK);
 				nodeList.addLast(current);
 				
 				for(Node neighbor : current.getAdjacentNodes()){
 
 					if(neighbor.status == Node.WHITE){
 						this.stopExecutionUntilSignal();
-						neighbor.status = Node.GRAY;
+						setStatus(neighbor, Node.GRAY);
 						queue.addLast(neighbor);
 					}
 				}
@@ -315,21 +315,21 @@ public class DiGraph implements Graph {
 			LinkedList<Node> stack = new LinkedList<Node>();
 			
 			this.stopExecutionUntilSignal();		
-			startNode.status = Node.GRAY;
+			setStatus(startNode, Node.GRAY);
 			stack.addFirst(startNode);
 			
 			while(!stack.isEmpty()){
 				
 				Node current = stack.removeFirst();
 				this.stopExecutionUntilSignal();
-				current.status = Node.BLACK;
+				setStatus(current, Node.BLACK);
 				nodeList.addLast(current);
 				
 				for(Node neighbor : current.getAdjacentNodes()){
 					
 					if(neighbor.status == Node.WHITE){
 						this.stopExecutionUntilSignal();
-						neighbor.status = Node.GRAY;
+						setStatus(neighbor, Node.GRAY);
 						stack.addFirst(neighbor);
 					}
 				}
@@ -396,7 +396,7 @@ public class DiGraph implements Graph {
 		}
 
 		// set start node to GRAY, its distance to zero, and add it to the queue
-		startNode.status = Node.GRAY;
+		setStatus(startNode, Node.GRAY);
 		startNode.distance = 0;
 		startNode.predecessor = null;
 		distanceQueue.add(startNode);
@@ -406,7 +406,7 @@ public class DiGraph implements Graph {
 		while (!distanceQueue.isEmpty()) {
 			// get first node in the queue, i.e. the one with correct distance
 			Node current = distanceQueue.poll();
-			current.status = Node.BLACK;
+			setStatus(current, Node.BLACK);
 			if (current == targetNode) { //if targetNode is null, we will never trigger the stop
 				//finished.
 				return;
@@ -421,11 +421,12 @@ public class DiGraph implements Graph {
 
 				if (neighbor.status == Node.WHITE) {
 					// set status to GRAY
-					neighbor.status = Node.GRAY;
+					setStatus(neighbor, Node.GRAY);
 					this.stopExecutionUntilSignal();
 
 					neighbor.distance = current.distance + incidentEdge.weight;
 					neighbor.predecessor = current;
+					stepListener.edgeRelaxed(current.id, neighbor.id, neighbor.distance);
 
 					distanceQueue.add(neighbor);
 				} else if (neighbor.status == Node.GRAY) {
@@ -436,6 +437,7 @@ public class DiGraph implements Graph {
 						// correct distance value
 						neighbor.distance = newDistance;
 						neighbor.predecessor = current;
+						stepListener.edgeRelaxed(current.id, neighbor.id, neighbor.distance);
 						// re-insert neighbor into the priority queue
 						distanceQueue.add(neighbor);
 					}
@@ -447,6 +449,79 @@ public class DiGraph implements Graph {
 	}
 
 
+	public void populateDialDijkstraFrom(int startNodeID, int targetNodeID) {
+		populateDialDijkstraFrom(nodes.get(startNodeID), nodes.get(targetNodeID));
+	}
+
+	/**
+	 * Dijkstra's algorithm with a DialQueue instead of a PriorityQueue. The
+	 * weights are integers, so there is one bucket per possible distance
+	 * and the search takes O(m + C * n) time for the largest weight C
+	 * instead of the O(m log n) comparisons of the heap. The distances,
+	 * predecessors and colors of the nodes are set like by
+	 * populateDijkstraFrom().
+	 * 
+	 * @param startNode
+	 *            the start node
+	 * @param targetNode
+	 *            the search stops when this node is settled, null to search
+	 *            the whole graph
+	 * @throws IllegalArgumentException
+	 *             if there is a negative edge weight
+	 */
+	public void populateDialDijkstraFrom(Node startNode, Node targetNode) {
+
+		this.resetState();
+		if(startNode == null || !nodes.containsKey(startNode.id)){
+			return;
+		}
+
+		// initialize distance of all nodes and find the largest weight
+		int maxWeight = 0;
+		for (Node anyNode : nodes.values()) {
+			anyNode.distance = Integer.MAX_VALUE;
+			anyNode.predecessor = null;
+			for (Edge e : anyNode.edges) {
+				if (e.weight < 0) {
+					throw new IllegalArgumentException("Dijkstra needs non-negative edge weights");
+				}
+				maxWeight = Math.max(maxWeight, e.weight);
+			}
+		}
+
+		DialQueue<Node> distanceQueue = new DialQueue<Node>(maxWeight);
+		setStatus(startNode, Node.GRAY);
+		startNode.distance = 0;
+		distanceQueue.add(startNode, 0);
+		this.stopExecutionUntilSignal();
+
+		while (!distanceQueue.isEmpty()) {
+			Node current = distanceQueue.poll();
+			// a node is added again for every improvement, only the first entry counts
+			if (current.status == Node.BLACK) {
+				continue;
+			}
+			setStatus(current, Node.BLACK);
+			if (current == targetNode) {
+				return;
+			}
+			this.stopExecutionUntilSignal();
+
+			int currentDistance = current.distance;
+			for (Edge incidentEdge : current.edges) {
+				Node neighbor = incidentEdge.endnode;
+				int newDistance = currentDistance + incidentEdge.weight;
+				if (neighbor.status != Node.BLACK && newDistance < neighbor.distance) {
+					setStatus(neighbor, Node.GRAY);
+					neighbor.distance = newDistance;
+					neighbor.predecessor = current;
+					stepListener.edgeRelaxed(current.id, neighbor.id, neighbor.distance);
+					distanceQueue.add(neighbor, newDistance);
+				}
+			}
+		}
+	}
+
 	@Override
 	public List<Node> getShortestPathDijkstra(int startNodeID, int targetNodeID) {
 		return getShortestPathDijkstra(nodes.get(startNodeID), nodes.get(targetNodeID));
@@ -522,6 +597,7 @@ public class DiGraph implements Graph {
 					if (u.distance != Integer.MAX_VALUE && w != Integer.MAX_VALUE && u.distance + w < v.distance) {
 						v.distance = u.distance + w;
 						v.predecessor = u;
+						stepListener.edgeRelaxed(u.id, v.id, v.distance);
 					}
 				}
 			}
@@ -637,6 +713,9 @@ public class DiGraph implements Graph {
 	// synchronization variable used to stop and resume processing
 	private boolean isStopped = false;
 
+	// receives the steps of the algorithms, does nothing by default
+	protected StepListener stepListener = StepListener.NONE;
+
 	/**
 	 * Tests if the current execution of a graph-algorithm was stopped
 	 * @return true if the processing is stopped, false otherwise. 
@@ -653,40 +732,78 @@ public class DiGraph implements Graph {
 	@Override
 	synchronized public void setStopped(boolean status) {
 		this.isStopped = status;
+		notifyAll();
 	}
 
 	/**
-	 * Stops the execution of an algorithm until the visualization signals that
-	 * he can be resumed. This feature can be used to visualize the steps of the
+	 * Sets the listener that receives the steps of the algorithms, e.g. a
+	 * TraceRecorder.
+	 * @param listener the listener, null for none
+	 */
+	public void setStepListener(StepListener listener) {
+		this.stepListener = listener == null ? StepListener.NONE : listener;
+	}
+
+	/**
+	 * @return the listener that receives the steps of the algorithms
+	 */
+	public StepListener getStepListener() {
+		return stepListener;
+	}
+
+	/**
+	 * Sets the color of a node and reports it to the step listener.
+	 * @param node the node
+	 * @param status the new color
+	 */
+	protected void setStatus(Node node, int status) {
+		node.status = status;
+		stepListener.nodeColored(node.id, status);
+	}
+
+	/**
+	 * Sets the color of an edge and reports it to the step listener.
+	 * @param startNode the node the edge starts at
+	 * @param edge the edge
+	 * @param status the new color
+	 */
+	protected void setStatus(Node startNode, Edge edge, int status) {
+		edge.status = status;
+		stepListener.edgeColored(startNode.id, edge.endnode.id, status);
+	}
+
+	/**
+	 * Reports the end of a step to the step listener. If showSteps is set,
+	 * the execution then waits until the visualization signals that it can
+	 * be resumed. This feature can be used to visualize the steps of the
 	 * algorithms.
 	 */
 	protected void stopExecutionUntilSignal() {
+		stepListener.step();
 		if (showSteps) {
-			System.out.print(".");
-			this.setStopped(true);
-			while (this.isStopped()) {
-				this.sleep(100);
-			}
+			waitForSignal();
 		}
 	}
 
-	/**
-	 * Stops the execution for a given time
-	 * 
-	 * @param milliseconds
-	 *            time the execution will stop in milliseconds
-	 */
-	protected void sleep(int milliseconds) {
-		try {
-			Thread.sleep(milliseconds);
-		} catch (InterruptedException e) {
-			// the VM doesn't want us to sleep anymore,
-			// so get back to work
+	// blocks until setStopped(false) is called
+	private synchronized void waitForSignal() {
+		System.out.print(".");
+		this.isStopped = true;
+		while (this.isStopped) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// stop waiting, but keep the interrupt for the caller
+				Thread.currentThread().interrupt();
+				this.isStopped = false;
+			}
 		}
 	}
 
 	/**
-	 * Sets the showSteps flag.
+	 * Sets the showSteps flag. If it is set, the algorithms wait after every
+	 * step until the visualization signals that they can go on. It is not
+	 * set by default.
 	 * @param show the flag
 	 */
 	@Override
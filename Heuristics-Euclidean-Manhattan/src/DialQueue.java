@@ -0,0 +1,104 @@
+import java.util.Arrays;
+
+/**
+ * Monotone priority queue for integer keys after Dial: one bucket per key.
+ *
+ * As long as every key added lies between the key of the last removed item
+ * and that key plus maxSpread, maxSpread + 1 buckets used cyclically are
+ * enough. This holds for Dijkstra's algorithm with integer edge weights of
+ * at most maxSpread. Adding and removing then take constant time, apart from
+ * skipping empty buckets, which costs at most the largest key in total.
+ *
+ * There is no decreaseKey(): an item is simply added again with its smaller
+ * key, and the caller skips the outdated entry when it is removed.
+ */
+public class DialQueue<T> {
+
+	private final Object[][] buckets;
+	private final int[] sizes;
+	/** key of the bucket at which the search for the minimum starts */
+	private int key;
+	private int size;
+
+	/**
+	 * Creates an empty queue.
+	 *
+	 * @param maxSpread
+	 *            largest difference between an added key and the key of the
+	 *            last removed item, e.g. the largest edge weight
+	 */
+	public DialQueue(int maxSpread) {
+		if (maxSpread < 0 || maxSpread == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("spread has to be between 0 and " + (Integer.MAX_VALUE - 1));
+		}
+		buckets = new Object[maxSpread + 1][];
+		sizes = new int[maxSpread + 1];
+	}
+
+	/**
+	 * @return true if the queue is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return number of entries, outdated ones included
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds an item.
+	 *
+	 * @param item
+	 *            the item
+	 * @param itemKey
+	 *            its key, at least getKey() and at most getKey() + maxSpread
+	 */
+	public void add(T item, int itemKey) {
+		if (itemKey < key || (long) itemKey - key >= buckets.length) {
+			throw new IllegalArgumentException("key " + itemKey + " out of range [" + key + ", "
+					+ ((long) key + buckets.length - 1) + "]");
+		}
+		int b = itemKey % buckets.length;
+		if (buckets[b] == null) {
+			buckets[b] = new Object[4];
+		} else if (sizes[b] == buckets[b].length) {
+			buckets[b] = Arrays.copyOf(buckets[b], 2 * sizes[b]);
+		}
+		buckets[b][sizes[b]++] = item;
+		size++;
+	}
+
+	/**
+	 * Removes an item with the smallest key. Its key is returned by getKey()
+	 * afterwards.
+	 *
+	 * @return the item
+	 */
+	@SuppressWarnings("unchecked")
+	public T poll() {
+		if (size == 0) {
+			throw new IllegalStateException("queue is empty");
+		}
+		int b = key % buckets.length;
+		while (sizes[b] == 0) {
+			key++;
+			b = b + 1 == buckets.length ? 0 : b + 1;
+		}
+		size--;
+		T item = (T) buckets[b][--sizes[b]];
+		// no reference to removed items
+		buckets[b][sizes[b]] = null;
+		return item;
+	}
+
+	/**
+	 * @return key of the last removed item, 0 before the first removal
+	 */
+	public int getKey() {
+		return key;
+	}
+}
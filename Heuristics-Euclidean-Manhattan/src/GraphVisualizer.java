@@ -13,6 +13,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JPanel;
 
@@ -76,6 +77,12 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 	/** Edges with adjacent nodes and labels */
 	private Map<VisualNode, Map<VisualNode, VisualEdge>> edges = new HashMap<VisualNode, Map<VisualNode, VisualEdge>>();
 
+	/** Node colors of a replayed trace, null if the colors of the graph are shown */
+	private volatile Map<Integer, Integer> replayNodeColors;
+
+	/** Edge colors of a replayed trace, keyed by start and target node */
+	private volatile Map<Long, Integer> replayEdgeColors;
+
 	/**
 	 * create an area to paint the graph on.
 	 * 
@@ -211,7 +218,7 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 			
 			if(graph.getNodes().contains(node)){
 			// draw current Node
-				drawNode(graphicsMain, node.position, "" + node.getLabel(), this.graph.getColorOfNode(node.getLabel()));
+				drawNode(graphicsMain, node.position, "" + node.getLabel(), colorOfNode(node.getLabel()));
 			
 				Map<VisualNode, VisualEdge> adjacentNodes = edges.get(node);
 				if (adjacentNodes != null) {
@@ -219,7 +226,7 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 						// draw edge and it's weight
 						if(this.graph.isConnected(node.getID(), edge.target.getID())){
 							drawEdge(graphicsMain, edge.start.position,
-									edge.target.position, this.graph.getColorOfEdge(edge.start, edge.target), "" + edge.weight);
+									edge.target.position, colorOfEdge(edge), "" + edge.weight);
 						}else{
 							edgesToDelete.add(edge);
 						}
@@ -393,6 +400,73 @@ public class GraphVisualizer extends JPanel implements ComponentListener{
 		this.drawGraphImage();
 	}
 
+	/**
+	 * Shows the colors set by setReplayNodeColor() and setReplayEdgeColor()
+	 * instead of the colors of the graph, until stopReplay() is called.
+	 * Nodes and edges without a replayed color get the color index 0.
+	 */
+	public void startReplay() {
+		replayEdgeColors = new ConcurrentHashMap<Long, Integer>();
+		replayNodeColors = new ConcurrentHashMap<Integer, Integer>();
+	}
+
+	/** Shows the colors of the graph again. */
+	public void stopReplay() {
+		replayNodeColors = null;
+		replayEdgeColors = null;
+	}
+
+	/**
+	 * Sets the color of a node during a replay.
+	 * 
+	 * @param nodeID the id of the node
+	 * @param color the color index, see Graph.getColorOfNode()
+	 */
+	public void setReplayNodeColor(int nodeID, int color) {
+		Map<Integer, Integer> colors = replayNodeColors;
+		if (colors != null) {
+			colors.put(nodeID, color);
+		}
+	}
+
+	/**
+	 * Sets the color of an edge during a replay.
+	 * 
+	 * @param startNodeID the id of the node where the edge starts
+	 * @param targetNodeID the id of the node where the edge ends
+	 * @param color the color index, see Graph.getColorOfEdge()
+	 */
+	public void setReplayEdgeColor(int startNodeID, int targetNodeID, int color) {
+		Map<Long, Integer> colors = replayEdgeColors;
+		if (colors != null) {
+			colors.put(edgeKey(startNodeID, targetNodeID), color);
+		}
+	}
+
+	private static Long edgeKey(int startNodeID, int targetNodeID) {
+		return ((long) startNodeID << 32) | (targetNodeID & 0xffffffffL);
+	}
+
+	// the replayed color of a node if a replay runs, else its color in the graph
+	private int colorOfNode(int nodeID) {
+		Map<Integer, Integer> colors = replayNodeColors;
+		if (colors == null) {
+			return this.graph.getColorOfNode(nodeID);
+		}
+		Integer color = colors.get(nodeID);
+		return color == null ? 0 : color;
+	}
+
+	// the replayed color of an edge if a replay runs, else its color in the graph
+	private int colorOfEdge(VisualEdge edge) {
+		Map<Long, Integer> colors = replayEdgeColors;
+		if (colors == null) {
+			return this.graph.getColorOfEdge(edge.start, edge.target);
+		}
+		Integer color = colors.get(edgeKey(edge.start.getID(), edge.target.getID()));
+		return color == null ? 0 : color;
+	}
+
 	/** deletes all nodes and edges */
 	public void clear(){
 		this.edges.clear();
@@ -221,7 +221,7 @@ public class GridGraph extends DiGraph {
 		}
 
 		// set start node to GRAY, its distance to zero, and add it to the queue
-		startCNode.status = Node.GRAY;
+		setStatus(startCNode, Node.GRAY);
 		startCNode.distance = 0;
 		startCNode.predecessor = null;
 		distanceQueue.add(startCNode);
@@ -231,7 +231,7 @@ public class GridGraph extends DiGraph {
 		while (!distanceQueue.isEmpty()) {
 			// get first node in the queue, i.e. the one with correct distance
 			Node current = distanceQueue.poll();
-			current.status = Node.BLACK;
+			setStatus(current, Node.BLACK);
 			if (current == targetCNode) { //if targetNode is null, we will never trigger the stop
 				//finished.
 				return;
@@ -246,11 +246,12 @@ public class GridGraph extends DiGraph {
 
 				if (neighbor.status == Node.WHITE) {
 					// set status to GRAY
-					neighbor.status = Node.GRAY;
+					setStatus(neighbor, Node.GRAY);
 					this.stopExecutionUntilSignal();
 
 					neighbor.distance = current.distance + incidentEdge.weight;
 					neighbor.predecessor = current;
+					stepListener.edgeRelaxed(current.id, neighbor.id, neighbor.distance);
 
 					distanceQueue.add(neighbor);
 				} else if (neighbor.status == Node.GRAY) {
@@ -261,6 +262,7 @@ public class GridGraph extends DiGraph {
 						// correct distance value
 						neighbor.distance = newDistance;
 						neighbor.predecessor = current;
+						stepListener.edgeRelaxed(current.id, neighbor.id, neighbor.distance);
 						// re-insert neighbor into the priority queue
 						distanceQueue.add(neighbor);
 					}
@@ -3,6 +3,7 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.io.IOException;
 import java.util.TreeMap;
 
 import javax.swing.JFrame;
@@ -155,6 +156,54 @@ public class VisualGraph implements KeyListener, MouseListener{
 	public void update(){
 		this.panel.update();
 	}
+
+	/**
+	 * Replays a trace written by a TraceRecorder, e.g. of a run on a machine
+	 * without a display. While the replay runs, the colors of the trace are
+	 * shown instead of the colors of the graph; relaxed edges are drawn in
+	 * orange until they get another color. The graph is repainted after
+	 * every step. The colors of the trace stay visible until stopReplay() is
+	 * called.
+	 * 
+	 * @param file
+	 *            url to the trace
+	 * @param delayMillis
+	 *            time to show every step, 0 to replay at full speed
+	 * @return number of steps replayed
+	 * @throws IOException
+	 *             if the file can not be read or is not a trace
+	 */
+	public long replay(String file, long delayMillis) throws IOException {
+		panel.startReplay();
+		return TraceRecorder.replay(file, new StepListener() {
+			@Override
+			public void nodeColored(int nodeID, int color) {
+				panel.setReplayNodeColor(nodeID, color);
+			}
+
+			@Override
+			public void edgeColored(int startNodeID, int targetNodeID, int color) {
+				panel.setReplayEdgeColor(startNodeID, targetNodeID, color);
+			}
+
+			@Override
+			public void edgeRelaxed(int startNodeID, int targetNodeID, double distance) {
+				panel.setReplayEdgeColor(startNodeID, targetNodeID, 4);
+			}
+
+			@Override
+			public void step() {
+				panel.update();
+			}
+		}, delayMillis);
+	}
+
+	/**
+	 * shows the colors of the graph again after a replay
+	 */
+	public void stopReplay(){
+		this.panel.stopReplay();
+	}
 	
 	/**
 	 * Thread used to trigger an periodic repaint of the 
@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+public class DialDijkstraTest {
+
+	@Test
+	public void testGridMatchesDijkstra() throws IOException {
+		GridGraph g = new GridGraph(new Picture("tests/testgrids/16x16_A.png"));
+		g.setShowSteps(false);
+		CellNode start = g.getCellNode(12, 2);
+
+		g.populateDijkstraFrom(start, null);
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		for (Node n : g.getNodes()) {
+			expected.put(n.getID(), n.distance);
+		}
+
+		g.populateDialDijkstraFrom(start, null);
+		for (Node n : g.getNodes()) {
+			Assert.assertEquals(expected.get(n.getID()), n.distance);
+			if (n.predecessor != null) {
+				Assert.assertEquals(n.distance.intValue(), n.predecessor.distance + n.predecessor.getWeight(n));
+			}
+		}
+	}
+
+	@Test
+	public void testRandomGraphsMatchDijkstra() {
+		Random r = new Random(6);
+		for (int round = 0; round < 10; round++) {
+			DiGraph g = new DiGraph();
+			g.setShowSteps(false);
+			int n = 300;
+			for (int i = 0; i < n; i++) {
+				g.addNode();
+			}
+			for (int e = 0; e < 1500; e++) {
+				g.nodes.get(r.nextInt(n)).addEdge(g.nodes.get(r.nextInt(n)), r.nextInt(10));
+			}
+			Node start = g.nodes.get(r.nextInt(n));
+
+			g.populateDijkstraFrom(start, null);
+			int[] expected = new int[n];
+			for (int i = 0; i < n; i++) {
+				expected[i] = g.nodes.get(i).distance;
+			}
+
+			g.populateDialDijkstraFrom(start, null);
+			for (int i = 0; i < n; i++) {
+				Assert.assertEquals(expected[i], g.nodes.get(i).distance.intValue());
+			}
+		}
+	}
+
+	@Test
+	public void testStopsAtTarget() {
+		DiGraph g = new DiGraph();
+		g.setShowSteps(false);
+		for (int i = 0; i < 3; i++) {
+			g.addNode();
+		}
+		g.addEdge(0, 1, 2);
+		g.addEdge(1, 2, 3);
+
+		g.populateDialDijkstraFrom(0, 1);
+
+		Assert.assertEquals(2, g.nodes.get(1).distance.intValue());
+		Assert.assertEquals(Node.BLACK, g.nodes.get(1).status);
+		// the edges of the target are not relaxed anymore
+		Assert.assertEquals(Node.WHITE, g.nodes.get(2).status);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeWeightIsRejected() {
+		DiGraph g = new DiGraph();
+		g.setShowSteps(false);
+		g.addNode();
+		g.addNode();
+		g.addEdge(0, 1, -1);
+
+		g.populateDialDijkstraFrom(0, 1);
+	}
+}
@@ -27,8 +27,8 @@ public class SimpleGraph implements Graph {
 
 	public HashMap<Integer, Node> nodes;
 
-	// needed for testing, where the execution of methods should not stop
-	private boolean showSteps = true;
+	// stepping is opt-in: without setShowSteps(true) the algorithms never wait
+	private boolean showSteps = false;
 
 	public SimpleGraph() {
 		nodes = new HashMap<Integer, Node>();
@@ -193,7 +193,7 @@ public class SimpleGraph implements Graph {
 	@Override
 	public void clearMarks() {
 		for (Node nextNode : nodes.values()) {
-			nextNode.status = Node.WHITE;
+			setStatus(nextNode, Node.WHITE);
 		}
 	}
 
@@ -202,7 +202,7 @@ public class SimpleGraph implements Graph {
 	 */
 	private void resetState() {
 		for (Node n : nodes.values()) {
-			n.status = Node.WHITE;
+			setStatus(n, Node.WHITE);
 		}
 	}
 
@@ -219,10 +219,10 @@ public class SimpleGraph implements Graph {
 			System.out.println("Error! this node does not exist!");
 			return;
 		}
-		startNode.status = Node.GRAY;
+		setStatus(startNode, Node.GRAY);
 
 		this.stopExecutionUntilSignal();
-		startNode.status = Node.BLACK;
+		setStatus(startNode, Node.BLACK);
 
 		List<Edge> edges = startNode.getIncidentEdges();
 		Random ran = new Random();
@@ -233,7 +233,7 @@ public class SimpleGraph implements Graph {
 			// white and gray neighbor nodes will add to nodes-list
 			for (Edge e : edges) {
 				if (e.getEndnode().status != Node.BLACK) {
-					e.getEndnode().status = Node.GRAY;
+					setStatus(e.getEndnode(), Node.GRAY);
 					nodes.add(e.getEndnode());
 				}
 			}
@@ -243,7 +243,7 @@ public class SimpleGraph implements Graph {
 
 			startNode = nodes.get(ran.nextInt(nodes.size()));
 			edges = startNode.getIncidentEdges();
-			startNode.status = Node.BLACK;
+			setStatus(startNode, Node.BLACK);
 		}
 	}
 
@@ -479,6 +479,9 @@ public class SimpleGraph implements Graph {
 	// synchronization variable used to stop and resume processing
 	private boolean isStopped = false;
 
+	// receives the steps of the algorithms, does nothing by default
+	private StepListener stepListener = StepListener.NONE;
+
 	/**
 	 * Tests if the current execution of a graph-algorithm was stopped
 	 * 
@@ -498,35 +501,65 @@ public class SimpleGraph implements Graph {
 	@Override
 	synchronized public void setStopped(boolean status) {
 		this.isStopped = status;
+		notifyAll();
+	}
+
+	/**
+	 * Sets the listener that receives the steps of the algorithms, e.g. a
+	 * TraceRecorder.
+	 * 
+	 * @param listener
+	 *            the listener, null for none
+	 */
+	public void setStepListener(StepListener listener) {
+		this.stepListener = listener == null ? StepListener.NONE : listener;
 	}
 
 	/**
-	 * Stops the execution of an algorithm until the visualization signals that
-	 * he can be resumed. This feature can be used to visualize the steps of the
+	 * @return the listener that receives the steps of the algorithms
+	 */
+	public StepListener getStepListener() {
+		return stepListener;
+	}
+
+	/**
+	 * Sets the color of a node and reports it to the step listener.
+	 * 
+	 * @param node
+	 *            the node
+	 * @param status
+	 *            the new color
+	 */
+	private void setStatus(Node node, int status) {
+		node.status = status;
+		stepListener.nodeColored(node.id, status);
+	}
+
+	/**
+	 * Reports the end of a step to the step listener. If showSteps is set,
+	 * the execution then waits until the visualization signals that it can
+	 * be resumed. This feature can be used to visualize the steps of the
 	 * algorithms.
 	 */
 	private void stopExecutionUntilSignal() {
+		stepListener.step();
 		if (showSteps) {
-			System.out.print(".");
-			this.setStopped(true);
-			while (this.isStopped()) {
-				this.sleep(100);
-			}
+			waitForSignal();
 		}
 	}
 
-	/**
-	 * Stops the execution for a given time
-	 * 
-	 * @param milliseconds
-	 *            time the execution will stop in milliseconds
-	 */
-	private void sleep(int milliseconds) {
-		try {
-			Thread.sleep(milliseconds);
-		} catch (InterruptedException e) {
-			// the VM doesn't want us to sleep anymore,
-			// so get back to work
+	// blocks until setStopped(false) is called
+	private synchronized void waitForSignal() {
+		System.out.print(".");
+		this.isStopped = true;
+		while (this.isStopped) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// stop waiting, but keep the interrupt for the caller
+				Thread.currentThread().interrupt();
+				this.isStopped = false;
+			}
 		}
 	}
 